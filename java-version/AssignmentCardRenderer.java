@@ -0,0 +1,85 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Renderer wiersza wyników w stylu karty: "losujący → cel" i wyróżniona litera (lub kod).
+ *
+ * Karta jest budowana raz i tylko "stemplowana" dla każdego widocznego wiersza - zmieniają
+ * się same teksty, więc lista z milionem przydziałów rysuje jedynie kilkanaście kart
+ * widocznych na ekranie i nie trzyma komponentów dla pozostałych.
+ */
+public class AssignmentCardRenderer extends JPanel implements ListCellRenderer<Integer> {
+    // === PALETA KOLORÓW (zgodna z głównym oknem) ===
+    private static final Color PRIMARY_COLOR = new Color(52, 152, 219);      // Niebieski
+    private static final Color CARD_COLOR = Color.WHITE;                     // Biały
+    private static final Color TEXT_COLOR = Color.BLACK;                     // Wszystkie teksty czarne
+    private static final Color LETTER_BACKGROUND = new Color(240, 248, 255); // Bardzo jasnoniebieski
+    
+    // Wysokość karty i odstęp pod nią (stała wysokość wiersza listy)
+    public static final int CARD_HEIGHT = 70;
+    public static final int CARD_GAP = 15;
+    
+    private final AssignmentListModel model;
+    private final JPanel card;
+    private final JLabel namesLabel;
+    private final JPanel letterPanel;
+    private final JLabel letterLabel;
+    
+    public AssignmentCardRenderer(AssignmentListModel model) {
+        super(new BorderLayout());
+        this.model = model;
+        setOpaque(true);
+        setBorder(BorderFactory.createEmptyBorder(0, 0, CARD_GAP, 0));
+        
+        card = new JPanel(new BorderLayout(20, 0));
+        card.setBackground(CARD_COLOR);
+        // Subtelny cień wokół karty
+        card.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(new Color(0, 0, 0, 20), 1),
+                BorderFactory.createLineBorder(CARD_COLOR, 2)
+            ),
+            BorderFactory.createEmptyBorder(7, 25, 7, 25)
+        ));
+        
+        namesLabel = new JLabel();
+        namesLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        namesLabel.setForeground(TEXT_COLOR);
+        
+        // === ELEGANCKA STYLIZACJA LITERY ===
+        letterPanel = new JPanel(new BorderLayout());
+        letterPanel.setBackground(LETTER_BACKGROUND);
+        letterPanel.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(PRIMARY_COLOR, 2), // Niebieskie obramowanie
+            BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(new Color(220, 235, 255), 1), // Jasnoniebieski inner border
+                BorderFactory.createEmptyBorder(4, 8, 4, 8)
+            )
+        ));
+        
+        letterLabel = new JLabel();
+        letterLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
+        letterLabel.setForeground(PRIMARY_COLOR);
+        letterLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        letterLabel.setVerticalAlignment(SwingConstants.CENTER);
+        letterPanel.add(letterLabel, BorderLayout.CENTER);
+        
+        card.add(namesLabel, BorderLayout.CENTER);
+        card.add(letterPanel, BorderLayout.EAST);
+        add(card, BorderLayout.CENTER);
+    }
+    
+    @Override
+    public Component getListCellRendererComponent(JList<? extends Integer> list, Integer drawer,
+                                                  int index, boolean isSelected, boolean cellHasFocus) {
+        GameSnapshot game = model.getGame();
+        String symbol = game.getSymbol(drawer);
+        namesLabel.setText(game.getName(drawer) + " → " + game.getName(game.getTargetId(drawer)));
+        letterLabel.setText(symbol);
+        letterPanel.setPreferredSize(new Dimension(60 + 18 * (symbol.length() - 1), CARD_HEIGHT - 20));
+        
+        setBackground(list.getBackground());
+        card.setBackground(isSelected ? LETTER_BACKGROUND : CARD_COLOR);
+        return this;
+    }
+}
@@ -0,0 +1,56 @@
+import javax.swing.AbstractListModel;
+
+/**
+ * Model listy wyników: kolejne elementy to identyfikatory losujących, którzy mają przydział.
+ *
+ * Dane pochodzą z migawki gry, więc lista nie tworzy obiektu dla każdego przydziału,
+ * a rysowanie nie blokuje silnika. Nazwy i symbole odczytuje renderer tylko dla
+ * wierszy widocznych na ekranie.
+ */
+public class AssignmentListModel extends AbstractListModel<Integer> {
+    // Migawka gry, z której czytane są wiersze
+    private GameSnapshot game;
+    // Identyfikatory losujących z przydziałem, w kolejności tur
+    private int[] drawers = new int[0];
+    
+    /**
+     * Podmienia wyświetlane wyniki na przydziały z migawki
+     */
+    public void setGame(GameSnapshot game) {
+        int oldSize = drawers.length;
+        int[] assigned = new int[game.getAssignedCount()];
+        int count = 0;
+        for (int drawer = 0; drawer < game.getPlayerCount() && count < assigned.length; drawer++) {
+            if (game.getTargetId(drawer) >= 0) assigned[count++] = drawer;
+        }
+        
+        this.game = game;
+        this.drawers = assigned;
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+        if (count > 0) fireIntervalAdded(this, 0, count - 1);
+    }
+    
+    /**
+     * Usuwa wszystkie wiersze
+     */
+    public void clear() {
+        int oldSize = drawers.length;
+        game = null;
+        drawers = new int[0];
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+    }
+    
+    public GameSnapshot getGame() {
+        return game;
+    }
+    
+    @Override
+    public int getSize() {
+        return drawers.length;
+    }
+    
+    @Override
+    public Integer getElementAt(int index) {
+        return drawers[index];
+    }
+}
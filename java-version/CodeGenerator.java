@@ -0,0 +1,187 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Generator unikalnych, niesekwencyjnych kodów wieloznakowych ("AQ", "KZB", ...) dla
+ * dowolnie dużej liczby graczy.
+ *
+ * Kolejny kod to obraz licznika w pseudolosowej permutacji przestrzeni kodów [0, k^L),
+ * zapisany w systemie o podstawie k literami alfabetu. Permutacja to sieć Feistela na
+ * dziedzinie a×a (a = ⌈√(k^L)⌉) z kluczami rund losowanymi na początku gry; wartości spoza
+ * przestrzeni kodów są odrzucane przez ponowne szyfrowanie (cycle walking), co zachowuje
+ * format. Unikalność wynika z tego, że permutacja jest różnowartościowa - generator nie
+ * przechowuje zbioru wydanych kodów, tylko licznik (pamięć O(1)).
+ */
+public class CodeGenerator {
+    // Liczba rund sieci Feistela
+    private static final int ROUNDS = 6;
+    
+    // Litery, z których składane są kody
+    private final char[] alphabet;
+    // Długość kodu
+    private final int length;
+    // Rozmiar przestrzeni kodów (k^L)
+    private final long space;
+    // Rozmiar połówki dziedziny Feistela (a, gdzie a*a >= space)
+    private final long half;
+    // Klucze rund
+    private final long[] roundKeys = new long[ROUNDS];
+    // Liczba wydanych kodów
+    private long issued;
+    
+    /**
+     * @param letters litery dostępne w kodach (np. alfabet bez liter wykluczonych)
+     * @param capacity liczba kodów, które muszą się zmieścić w przestrzeni
+     * @param minLength minimalna długość kodu
+     * @param random źródło kluczy permutacji
+     * @throws IllegalArgumentException gdy nie ma żadnej dostępnej litery
+     */
+    public CodeGenerator(String letters, long capacity, int minLength, RandomGenerator random) {
+        if (letters.isEmpty()) {
+            throw new IllegalArgumentException("Brak dostępnych liter do tworzenia kodów.");
+        }
+        this.alphabet = letters.toCharArray();
+        
+        // Najkrótsza długość, przy której mieści się wymagana liczba kodów
+        int k = alphabet.length;
+        int len = Math.max(1, minLength);
+        long size = pow(k, len);
+        while (size < capacity) {
+            if (k == 1) {
+                throw new IllegalArgumentException("Jedna litera nie wystarczy do utworzenia unikalnych kodów.");
+            }
+            size *= k;
+            len++;
+        }
+        this.length = len;
+        this.space = size;
+        
+        long a = (long) Math.ceil(Math.sqrt((double) size));
+        while (a * a < size) a++;
+        this.half = a;
+        
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = random.nextLong();
+        }
+    }
+    
+    /**
+     * Odtwarza generator z zapisanego stanu (litery, długość, klucze rund, liczba wydanych kodów)
+     * @throws IllegalArgumentException gdy stan jest nieprawidłowy
+     */
+    CodeGenerator(String letters, int length, long[] roundKeys, long issued) {
+        if (letters.isEmpty() || length < 1 || roundKeys.length != ROUNDS) {
+            throw new IllegalArgumentException("Nieprawidłowy stan generatora kodów.");
+        }
+        this.alphabet = letters.toCharArray();
+        this.length = length;
+        this.space = pow(alphabet.length, length);
+        long a = (long) Math.ceil(Math.sqrt((double) space));
+        while (a * a < space) a++;
+        this.half = a;
+        System.arraycopy(roundKeys, 0, this.roundKeys, 0, ROUNDS);
+        this.issued = issued;
+    }
+    
+    /**
+     * Zwraca niezależną kopię generatora (te same klucze i licznik) - np. do migawki stanu gry,
+     * której nie zmieniają kolejne kody wydane przez silnik
+     */
+    CodeGenerator copy() {
+        return new CodeGenerator(getLetters(), length, roundKeys, issued);
+    }
+    
+    /**
+     * Wydaje kolejny unikalny kod
+     * @throws IllegalStateException gdy przestrzeń kodów została wyczerpana
+     */
+    public String next() {
+        if (issued >= space) {
+            throw new IllegalStateException("Wyczerpano pulę unikalnych kodów.");
+        }
+        return codeAt(issued++);
+    }
+    
+    /**
+     * Zwraca kod o podanym numerze wydania (bez zmiany licznika)
+     */
+    public String codeAt(long index) {
+        long value = permute(index);
+        char[] code = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            code[i] = alphabet[(int) (value % alphabet.length)];
+            value /= alphabet.length;
+        }
+        return new String(code);
+    }
+    
+    /**
+     * Ustawia liczbę już wydanych kodów (np. przy odtwarzaniu stanu gry)
+     */
+    public void setIssued(long issued) {
+        this.issued = issued;
+    }
+    
+    public long getIssued() {
+        return issued;
+    }
+    
+    public int getLength() {
+        return length;
+    }
+    
+    /**
+     * Zwraca litery, z których składane są kody
+     */
+    public String getLetters() {
+        return new String(alphabet);
+    }
+    
+    /**
+     * Zwraca kopię kluczy rund (do zapisu stanu gry)
+     */
+    long[] getRoundKeys() {
+        return roundKeys.clone();
+    }
+    
+    // === PERMUTACJA ZACHOWUJĄCA FORMAT ===
+    
+    /**
+     * Permutacja [0, space): szyfrowanie Feistela powtarzane, dopóki wynik nie trafi do przestrzeni kodów
+     */
+    private long permute(long value) {
+        do {
+            value = feistel(value);
+        } while (value >= space);
+        return value;
+    }
+    
+    /**
+     * Sieć Feistela na parach (l, r) z [0, a)², czyli permutacja [0, a²)
+     */
+    private long feistel(long value) {
+        long left = value / half;
+        long right = value % half;
+        for (int round = 0; round < ROUNDS; round++) {
+            long mixed = Math.floorMod(mix(right ^ roundKeys[round]), half);
+            long newRight = (left + mixed) % half;
+            left = right;
+            right = newRight;
+        }
+        return left * half + right;
+    }
+    
+    /**
+     * Funkcja mieszająca rundy (finalizator SplitMix64)
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    private static long pow(int base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) result *= base;
+        return result;
+    }
+}
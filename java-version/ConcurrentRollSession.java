@@ -0,0 +1,140 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Losowanie samoobsługowe w dowolnej kolejności, z wielu stanowisk naraz, bez blokad.
+ *
+ * Przy otwarciu sesji silnik wykonuje pod swoją blokadą tury wszystkich pozostałych graczy
+ * (te same reguły liter, kodów i przydziałów co tura po turze, zapis do dziennika), a sesja
+ * dostaje niezmienną migawkę wyniku. Losowanie gracza to już tylko odsłonięcie jego pary:
+ * zajęcie miejsca jego celu w tablicy atomowej operacją compare-and-set. Każdy cel może zostać
+ * zajęty raz, więc ten sam gracz nie wylosuje dwa razy, nawet z dwóch stanowisk jednocześnie,
+ * a gracze losujący równocześnie nie czekają na siebie nawzajem - każdy dotyka innego miejsca
+ * tablicy, a pozostałe dane są tylko czytane.
+ */
+public final class ConcurrentRollSession {
+    // Niezmienny wynik wszystkich tur (nazwy, symbole, przydziały)
+    private final GameSnapshot game;
+    // Pierwsza tura sesji - wcześniejsi gracze losowali już przed jej otwarciem
+    private final int firstTurn;
+    // Identyfikatory uczestników po nazwie (nazwy są niepowtarzalne) - mapa tylko do odczytu
+    private final Map<String, Integer> ids;
+    // Miejsce każdego celu: 0 = jeszcze nieodsłonięty, inaczej identyfikator losującego + 1
+    private final AtomicIntegerArray claimedBy;
+    // Odsłonięcia graczy bez celu (tylko gdy pełny przydział nie istnieje; null gdy brak takich graczy)
+    private final AtomicIntegerArray unmatchedRevealed;
+    // Liczba odsłoniętych losowań (licznik rozproszony - bez wspólnego miejsca zapisu)
+    private final LongAdder revealed = new LongAdder();
+    // Sesja zamknięta przez nową grę lub nową listę - nic już nie odsłania
+    private volatile boolean closed;
+    
+    ConcurrentRollSession(GameSnapshot game, int firstTurn) {
+        this.game = game;
+        this.firstTurn = firstTurn;
+        int n = game.getPlayerCount();
+        Map<String, Integer> byName = new HashMap<>(n * 2);
+        boolean unmatched = false;
+        for (int id = 0; id < n; id++) {
+            byName.put(game.getName(id), id);
+            if (id >= firstTurn && game.getTargetId(id) < 0) unmatched = true;
+        }
+        this.ids = byName;
+        this.claimedBy = new AtomicIntegerArray(n);
+        this.unmatchedRevealed = unmatched ? new AtomicIntegerArray(n) : null;
+    }
+    
+    /**
+     * Odsłania losowanie gracza - bez blokad, z dowolnego wątku
+     * @return przydział gracza; target jest null, gdy gracz nie ma dopuszczalnego celu
+     * @throws IllegalArgumentException gdy nie ma takiego uczestnika
+     * @throws IllegalStateException gdy gracz już losował albo sesja została zamknięta
+     */
+    public PairingEngine.Assignment roll(String drawer) {
+        Integer id = ids.get(drawer);
+        if (id == null) {
+            throw new IllegalArgumentException("Nieznany uczestnik: " + drawer);
+        }
+        checkOpen();
+        if (id < firstTurn || !claim(id)) {
+            throw new IllegalStateException("Uczestnik " + drawer + " już losował.");
+        }
+        revealed.increment();
+        // Zamknięcie w trakcie zajmowania celu - para z zamkniętej gry nie jest zwracana
+        checkOpen();
+        return assignmentOf(id);
+    }
+    
+    /**
+     * Zajmuje miejsce celu gracza; false gdy zostało już zajęte (gracz już losował)
+     */
+    private boolean claim(int drawer) {
+        int target = game.getTargetId(drawer);
+        if (target < 0) return unmatchedRevealed.compareAndSet(drawer, 0, 1);
+        return claimedBy.compareAndSet(target, 0, drawer + 1);
+    }
+    
+    /**
+     * Zwraca przydział gracza, o ile już go odsłonił (null gdy jeszcze nie losował w tej sesji)
+     * @throws IllegalArgumentException gdy nie ma takiego uczestnika
+     * @throws IllegalStateException gdy sesja została zamknięta
+     */
+    public PairingEngine.Assignment getResult(String drawer) {
+        Integer id = ids.get(drawer);
+        if (id == null) {
+            throw new IllegalArgumentException("Nieznany uczestnik: " + drawer);
+        }
+        PairingEngine.Assignment result = hasRolled(id) ? assignmentOf(id) : null;
+        checkOpen();
+        return result;
+    }
+    
+    /**
+     * Zamyka sesję (nowa gra lub nowa lista) - kolejne odsłonięcia i odczyty kończą się błędem
+     */
+    void close() {
+        closed = true;
+    }
+    
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Losowanie samoobsługowe zostało zamknięte - rozpoczęto nową grę.");
+        }
+    }
+    
+    private boolean hasRolled(int drawer) {
+        if (drawer < firstTurn) return true;
+        int target = game.getTargetId(drawer);
+        if (target < 0) return unmatchedRevealed.get(drawer) != 0;
+        return claimedBy.get(target) != 0;
+    }
+    
+    private PairingEngine.Assignment assignmentOf(int drawer) {
+        int target = game.getTargetId(drawer);
+        String code = game.codeNumbers != null && game.codeNumbers[drawer] >= 0 ? game.getSymbol(drawer) : null;
+        return new PairingEngine.Assignment(game.getName(drawer), target < 0 ? null : game.getName(target),
+            game.letters[drawer], code);
+    }
+    
+    /**
+     * Liczba graczy, którzy odsłonili losowanie w tej sesji
+     */
+    public long getRevealedCount() {
+        return revealed.sum();
+    }
+    
+    /**
+     * Liczba graczy losujących w tej sesji
+     */
+    public int getPlayerCount() {
+        return game.getPlayerCount() - firstTurn;
+    }
+    
+    /**
+     * Czy wszyscy gracze sesji już odsłonili losowanie
+     */
+    public boolean isFinished() {
+        return revealed.sum() >= getPlayerCount();
+    }
+}
@@ -0,0 +1,226 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Samodzielny test silnika losowania, zapisu sesji i dziennika - bez interfejsu graficznego
+ * i bez bibliotek testowych.
+ *
+ * Użycie:
+ *   java EngineSelfCheck
+ *
+ * Sprawdza, że przydział jest permutacją bez par z samym sobą (w obu trybach losowania),
+ * że przestrzegane są ograniczenia i grupy, że ten sam --seed daje te same wyniki, że sesja
+ * zapisana przez SessionStore wczytuje się bez zmian i że RollJournal po ucięciu ostatniego
+ * rekordu odtwarza wszystkie wcześniejsze losowania. Kod wyjścia 1 oznacza błąd.
+ */
+public class EngineSelfCheck {
+    private static final int PLAYERS = 300;
+    // Ile tur losuje gra zapisywana do dziennika przed "awarią"
+    private static final int JOURNAL_TURNS = 25;
+    
+    private static int failures;
+    
+    public static void main(String[] args) throws IOException {
+        checkDerangement(false);
+        checkDerangement(true);
+        checkRules(false);
+        checkRules(true);
+        checkSeed();
+        checkSessionRoundTrip();
+        checkJournalRecovery();
+        
+        if (failures > 0) {
+            System.err.println("Błędy: " + failures);
+            System.exit(1);
+        }
+        System.out.println("Wszystkie testy zaliczone.");
+    }
+    
+    // === PRZYDZIAŁY ===
+    
+    /**
+     * Każdy gracz ma cel, nikt nie losuje siebie i nikt nie jest wylosowany dwa razy
+     */
+    private static void checkDerangement(boolean turns) {
+        PairingEngine engine = newEngine(42);
+        play(engine, turns);
+        String mode = turns ? " (tury)" : " (naraz)";
+        
+        check(engine.isFinished() && engine.getAssignedCount() == PLAYERS, "pełny przydział" + mode);
+        BitSet taken = new BitSet(PLAYERS);
+        boolean valid = true;
+        for (int drawer = 0; drawer < PLAYERS; drawer++) {
+            int target = engine.getTargetId(drawer);
+            if (target < 0 || target == drawer || taken.get(target)) valid = false;
+            else taken.set(target);
+        }
+        check(valid, "przydział jest permutacją bez par z samym sobą" + mode);
+    }
+    
+    /**
+     * Nikt nie losuje osoby z ograniczeniem ani członka swojej grupy
+     */
+    private static void checkRules(boolean turns) {
+        PairingEngine engine = newEngine(7);
+        // Ograniczenia w obie strony między sąsiadami i grupy po 10 osób
+        List<String[]> pairs = new ArrayList<>();
+        for (int i = 0; i + 1 < PLAYERS; i += 2) {
+            pairs.add(new String[] {name(i), name(i + 1)});
+        }
+        engine.addRestrictions(pairs);
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < PLAYERS / 2; i++) {
+            groups.computeIfAbsent("Grupa " + i / 10, g -> new ArrayList<>()).add(name(i));
+        }
+        engine.addGroups(groups);
+        play(engine, turns);
+        String mode = turns ? " (tury)" : " (naraz)";
+        
+        check(engine.getAssignedCount() == PLAYERS, "pełny przydział z ograniczeniami" + mode);
+        GameSnapshot game = engine.snapshot();
+        boolean valid = true;
+        for (int drawer = 0; drawer < PLAYERS; drawer++) {
+            int target = game.getTargetId(drawer);
+            if (target < 0) continue;
+            if (engine.isRestrictedPair(name(drawer), name(target))) valid = false;
+            int group = game.getGroupOf(drawer);
+            if (group >= 0 && group == game.getGroupOf(target)) valid = false;
+        }
+        check(valid, "ograniczenia i grupy są przestrzegane" + mode);
+    }
+    
+    /**
+     * Ten sam seed i te same dane dają identyczne litery i przydziały
+     */
+    private static void checkSeed() {
+        List<String> first = results(new PairingEngine(RandomizerCli.createRandom("42")));
+        List<String> second = results(new PairingEngine(RandomizerCli.createRandom("42")));
+        List<String> other = results(new PairingEngine(RandomizerCli.createRandom("43")));
+        check(first.equals(second), "ten sam --seed daje te same wyniki");
+        check(!first.equals(other), "inny --seed daje inne wyniki");
+    }
+    
+    private static List<String> results(PairingEngine engine) {
+        engine.loadNames(names());
+        engine.startGame();
+        play(engine, true);
+        List<String> results = new ArrayList<>();
+        for (PairingEngine.Assignment pair : engine.getFinalPairs()) {
+            results.add(pair.drawer + ";" + pair.target + ";" + pair.letter);
+        }
+        return results;
+    }
+    
+    // === ZAPIS I ODTWARZANIE ===
+    
+    /**
+     * Sesja zapisana w połowie gry (z kodami, grupą i ograniczeniem) wczytuje się bez zmian
+     */
+    private static void checkSessionRoundTrip() throws IOException {
+        PairingEngine engine = newEngine(11);
+        engine.addRestriction(name(0), name(5));
+        engine.addGroup("Rodzina", List.of(name(1), name(2), name(3)));
+        engine.setCodeMode(true);
+        engine.startGame();
+        engine.rollBatch(PLAYERS / 2, (done, total) -> { });
+        
+        Path dir = Files.createTempDirectory("selfcheck");
+        try {
+            Path file = dir.resolve("gra.rnds");
+            SessionStore.save(engine.snapshot(), file);
+            PairingEngine loaded = new PairingEngine();
+            loaded.restore(SessionStore.load(file));
+            check(sameState(engine, loaded, PLAYERS) && loaded.getCurrentTurnIndex() == PLAYERS / 2
+                && loaded.isRestrictedPair(name(0), name(5)) && loaded.getGroups().size() == 1,
+                "sesja po zapisie i wczytaniu jest taka sama");
+        } finally {
+            delete(dir);
+        }
+    }
+    
+    /**
+     * Po ucięciu ostatniego rekordu dziennika odtwarzane są wszystkie wcześniejsze losowania
+     */
+    private static void checkJournalRecovery() throws IOException {
+        PairingEngine engine = newEngine(5);
+        engine.startGame();
+        Path dir = Files.createTempDirectory("selfcheck");
+        try {
+            try (RollJournal journal = RollJournal.open(engine, dir)) {
+                for (int i = 0; i < JOURNAL_TURNS; i++) engine.rollNext();
+                journal.sync();
+            }
+            // Awaria w trakcie zapisu ostatniego rekordu
+            try (FileChannel channel = FileChannel.open(dir.resolve("gra.rlog"), StandardOpenOption.WRITE)) {
+                channel.truncate(channel.size() - 7);
+            }
+            
+            PairingEngine recovered = new PairingEngine();
+            boolean found = RollJournal.recover(recovered, dir, (done, total) -> { });
+            check(found && recovered.getCurrentTurnIndex() == JOURNAL_TURNS - 1
+                && sameState(engine, recovered, JOURNAL_TURNS - 1),
+                "dziennik odtwarza losowania sprzed uciętego rekordu");
+        } finally {
+            delete(dir);
+        }
+    }
+    
+    // === POMOCNICZE ===
+    
+    private static PairingEngine newEngine(long seed) {
+        PairingEngine engine = new PairingEngine(RandomSources.seeded(seed));
+        engine.loadNames(names());
+        return engine;
+    }
+    
+    private static void play(PairingEngine engine, boolean turns) {
+        engine.startGame();
+        if (!turns) {
+            engine.drawAllAtOnce();
+            return;
+        }
+        while (!engine.isFinished()) engine.rollNext();
+    }
+    
+    /**
+     * Porównuje nazwy, symbole i przydziały pierwszych count graczy
+     */
+    private static boolean sameState(PairingEngine expected, PairingEngine actual, int count) {
+        if (!expected.getNames().equals(actual.getNames())) return false;
+        for (int i = 0; i < count; i++) {
+            if (expected.getTargetId(i) != actual.getTargetId(i)
+                    || !expected.getSymbol(i).equals(actual.getSymbol(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static List<String> names() {
+        List<String> names = new ArrayList<>(PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) names.add(name(i));
+        return names;
+    }
+    
+    private static String name(int i) {
+        return "Uczestnik " + i;
+    }
+    
+    private static void check(boolean passed, String description) {
+        System.out.println((passed ? "OK    " : "BŁĄD  ") + description);
+        if (!passed) failures++;
+    }
+    
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Pokój gry - jedno niezależne losowanie w rejestrze pokoi (RoomRegistry): własny silnik
+ * z listą uczestników, ograniczeniami i wynikami oraz własna sesja losowania samoobsługowego.
+ *
+ * Pokoje nie współdzielą żadnego stanu gry, więc losowania w różnych pokojach nie czekają
+ * na siebie nawzajem - każdy silnik ma własną blokadę.
+ */
+public final class GameRoom {
+    // Identyfikator pokoju (część adresu, np. /rooms/k7m2x9qa/roll)
+    private final String id;
+    private final PairingEngine engine;
+    // Pokój przypięty (np. domyślny pokój serwera) nie jest usuwany przez sprzątanie
+    private final boolean pinned;
+    // Otwarte losowanie samoobsługowe (null = tury po kolei); zamykane przez nową listę lub nową grę
+    private volatile ConcurrentRollSession concurrentSession;
+    // Czas ostatniego użycia i czas, od którego gra jest zakończona (0 = trwa), w ms
+    private volatile long lastAccess;
+    private volatile long finishedSince;
+    
+    GameRoom(String id, PairingEngine engine, boolean pinned, long now) {
+        this.id = id;
+        this.engine = engine;
+        this.pinned = pinned;
+        this.lastAccess = now;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public PairingEngine getEngine() {
+        return engine;
+    }
+    
+    public boolean isPinned() {
+        return pinned;
+    }
+    
+    public ConcurrentRollSession getConcurrentSession() {
+        return concurrentSession;
+    }
+    
+    /**
+     * Ustawia sesję samoobsługową (null zamyka sesję); wywoływane pod blokadą silnika
+     * Poprzednia sesja jest zamykana, więc żądanie, które pobrało ją przed zmianą, nie odsłoni
+     * już pary z zakończonej gry.
+     */
+    void setConcurrentSession(ConcurrentRollSession session) {
+        ConcurrentRollSession previous = concurrentSession;
+        if (previous != null && previous != session) previous.close();
+        concurrentSession = session;
+    }
+    
+    /**
+     * Zapisuje czas użycia pokoju (pokój nieużywany dłużej niż limit jest usuwany)
+     */
+    void touch(long now) {
+        lastAccess = now;
+    }
+    
+    long getLastAccess() {
+        return lastAccess;
+    }
+    
+    /**
+     * Czy wszyscy gracze już losowali (w sesji samoobsługowej - odsłonili losowanie)
+     */
+    public boolean isFinished() {
+        ConcurrentRollSession session = concurrentSession;
+        if (session != null) return session.isFinished();
+        synchronized (engine) {
+            return engine.getPlayerCount() > 0 && engine.isFinished();
+        }
+    }
+    
+    /**
+     * Zwraca czas, od którego gra jest zakończona (0 = trwa), zapamiętując go przy pierwszym sprawdzeniu
+     * po zakończeniu; nowa gra w pokoju zeruje ten czas
+     */
+    long finishedSince(long now) {
+        if (!isFinished()) {
+            finishedSince = 0;
+        } else if (finishedSince == 0) {
+            finishedSince = now;
+        }
+        return finishedSince;
+    }
+}
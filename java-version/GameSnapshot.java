@@ -0,0 +1,120 @@
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Niezmienna kopia stanu gry w postaci tablic (nazwy, litery, przydziały).
+ *
+ * Migawka pozwala zapisywać wyniki w tle, podczas gdy silnik działa dalej - eksport nie
+ * trzyma blokady silnika i nie tworzy obiektów dla każdego uczestnika. Kody wieloznakowe
+ * nie są kopiowane jako tekst: migawka przechowuje ich numery i generator (jego permutacja
+ * jest stała przez całą grę), a kod odtwarzany jest przy odczycie.
+ */
+public final class GameSnapshot {
+    // Nazwy uczestników (indeks = identyfikator)
+    final String[] names;
+    // Ograniczenia w kolejności dodawania jako pary identyfikatorów (RestrictionIndex.first/second)
+    final long[] restrictions;
+    // Nazwy grup ograniczeń i numer grupy uczestnika (-1 = brak; tablica null gdy brak grup)
+    final String[] groupNames;
+    final int[] groupOf;
+    // Wykluczone litery (posortowane)
+    final Set<Character> excludedLetters;
+    // Alfabet losowanych liter i tryby losowania
+    final String alphabet;
+    final boolean balancedLetters;
+    final boolean codeMode;
+    // Liczba graczy, którzy już losowali
+    final int turnCount;
+    // Litera gracza i numer jego kodu (-1 = brak; tablica null poza trybem kodów)
+    final char[] letters;
+    final int[] codeNumbers;
+    // Generator kodów (kopia - kody wydane później przez silnik go nie zmieniają; nie jest modyfikowany)
+    final CodeGenerator codeGenerator;
+    // Cel przydzielony losującemu (-1 = brak)
+    final int[] targetOf;
+    // Liczba przydzielonych par
+    final int assignedCount;
+    
+    GameSnapshot(String[] names, long[] restrictions, String[] groupNames, int[] groupOf, Set<Character> excludedLetters,
+                 String alphabet, boolean balancedLetters, boolean codeMode, int turnCount,
+                 char[] letters, int[] codeNumbers, CodeGenerator codeGenerator, int[] targetOf, int assignedCount) {
+        this.names = names;
+        this.restrictions = restrictions;
+        this.groupNames = groupNames;
+        this.groupOf = groupOf;
+        this.excludedLetters = excludedLetters;
+        this.alphabet = alphabet;
+        this.balancedLetters = balancedLetters;
+        this.codeMode = codeMode;
+        this.turnCount = turnCount;
+        this.letters = letters;
+        this.codeNumbers = codeNumbers;
+        this.codeGenerator = codeGenerator;
+        this.targetOf = targetOf;
+        this.assignedCount = assignedCount;
+    }
+    
+    public int getPlayerCount() {
+        return names.length;
+    }
+    
+    public int getTurnCount() {
+        return turnCount;
+    }
+    
+    public int getAssignedCount() {
+        return assignedCount;
+    }
+    
+    public int getRestrictionCount() {
+        return restrictions.length;
+    }
+    
+    public String getName(int playerId) {
+        return names[playerId];
+    }
+    
+    /**
+     * Zwraca identyfikator celu wylosowanego przez gracza (-1 gdy brak przydziału)
+     */
+    public int getTargetId(int drawerId) {
+        return targetOf[drawerId];
+    }
+    
+    /**
+     * Zwraca symbol wylosowany przez gracza - kod albo literę
+     */
+    public String getSymbol(int playerId) {
+        if (codeNumbers != null && codeNumbers[playerId] >= 0) {
+            return codeGenerator.codeAt(codeNumbers[playerId]);
+        }
+        return String.valueOf(letters[playerId]);
+    }
+    
+    /**
+     * Zwraca nazwy obu osób z ograniczenia o podanym numerze
+     */
+    public List<String> getRestriction(int index) {
+        long pair = restrictions[index];
+        return List.of(names[RestrictionIndex.first(pair)], names[RestrictionIndex.second(pair)]);
+    }
+    
+    public int getGroupCount() {
+        return groupNames.length;
+    }
+    
+    public String getGroupName(int group) {
+        return groupNames[group];
+    }
+    
+    /**
+     * Zwraca numer grupy ograniczeń uczestnika (-1 gdy nie należy do grupy)
+     */
+    public int getGroupOf(int playerId) {
+        return groupOf != null ? groupOf[playerId] : -1;
+    }
+    
+    public Set<Character> getExcludedLetters() {
+        return excludedLetters;
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Pula identyfikatorów 0..n-1 z indeksem pozycji - usuwanie przez zamianę z ostatnim
+ * elementem i losowanie elementu po indeksie działają w O(1), bez kopiowania ani tasowania.
+ * Kolejność elementów w puli nie ma znaczenia.
+ */
+public class IndexedPool {
+    // Elementy puli (pierwsze size pozycji)
+    private final int[] items;
+    // Pozycja elementu w tablicy items (-1 gdy elementu nie ma w puli)
+    private final int[] position;
+    // Liczba elementów w puli
+    private int size;
+    
+    /**
+     * Tworzy pulę zawierającą wszystkie identyfikatory 0..n-1
+     */
+    public IndexedPool(int n) {
+        items = new int[n];
+        position = new int[n];
+        for (int i = 0; i < n; i++) {
+            items[i] = i;
+            position[i] = i;
+        }
+        size = n;
+    }
+    
+    /**
+     * Usuwa element z puli (nic nie robi, jeśli go nie ma)
+     */
+    public void remove(int id) {
+        int idx = position[id];
+        if (idx < 0) return;
+        
+        int last = items[--size];
+        items[idx] = last;
+        position[last] = idx;
+        items[size] = id;
+        position[id] = -1;
+    }
+    
+    /**
+     * Zwraca element na podanej pozycji (0..size-1)
+     */
+    public int get(int index) {
+        return items[index];
+    }
+    
+    /**
+     * Zwraca losowy element puli - O(1)
+     */
+    public int sample(RandomGenerator random) {
+        return items[random.nextInt(size)];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
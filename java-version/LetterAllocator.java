@@ -0,0 +1,160 @@
+import java.util.Set;
+import java.util.random.RandomGenerator;
+
+/**
+ * Przydział liter z dowolnego alfabetu (do 64 liter), bez alokacji przy losowaniu.
+ *
+ * Użyte i wykluczone litery trzymane są jako maski bitowe (bit i = i-ta litera alfabetu).
+ * Losowanie to wybór k-tego wolnego bitu: liczba wolnych liter to popcount maski,
+ * a pozycję k-tego ustawionego bitu wyznacza wyszukiwanie binarne po połówkach słowa
+ * (6 kroków z Long.bitCount) - stały czas niezależnie od liczby graczy.
+ *
+ * W trybie równomiernym (gdy graczy jest więcej niż liter) litery rozdawane są rundami:
+ * dopiero gdy każda dostępna litera została wylosowana, zaczyna się kolejna runda. Dzięki
+ * temu przy n graczach i k literach każda litera trafia do ⌊n/k⌋ albo ⌈n/k⌉ osób,
+ * a losowanie nadal kosztuje O(1) i nie wymaga liczników.
+ */
+public class LetterAllocator {
+    // === PREDEFINIOWANE ALFABETY ===
+    public static final String LATIN = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    public static final String POLISH = "AĄBCĆDEĘFGHIJKLŁMNŃOÓPRSŚTUWYZŹŻ";
+    
+    // Maksymalna liczba liter w alfabecie (bity jednej wartości long)
+    public static final int MAX_LETTERS = 64;
+    
+    // Litery alfabetu w kolejności
+    private final char[] alphabet;
+    // Maska wszystkich liter alfabetu
+    private final long allMask;
+    // Maska liter wykluczonych przez użytkownika
+    private long excludedMask;
+    // Maska liter już wylosowanych (w trybie równomiernym - w bieżącej rundzie)
+    private long usedMask;
+    // Tryb równomiernego rozkładu liter
+    private boolean balanced;
+    
+    /**
+     * @param letters litery alfabetu (bez powtórzeń, najwyżej 64)
+     * @throws IllegalArgumentException gdy alfabet jest pusty, za długi lub ma powtórzenia
+     */
+    public LetterAllocator(String letters) {
+        if (letters.isEmpty() || letters.length() > MAX_LETTERS) {
+            throw new IllegalArgumentException("Alfabet musi mieć od 1 do " + MAX_LETTERS + " liter.");
+        }
+        for (int i = 0; i < letters.length(); i++) {
+            if (letters.indexOf(letters.charAt(i)) != i) {
+                throw new IllegalArgumentException("Litera " + letters.charAt(i) + " powtarza się w alfabecie.");
+            }
+        }
+        this.alphabet = letters.toCharArray();
+        this.allMask = letters.length() == 64 ? -1L : (1L << letters.length()) - 1;
+    }
+    
+    /**
+     * Ustawia litery wykluczone z losowania (litery spoza alfabetu są pomijane)
+     */
+    public void setExcluded(Set<Character> letters) {
+        excludedMask = 0;
+        for (char c : letters) {
+            int index = indexOf(c);
+            if (index >= 0) excludedMask |= 1L << index;
+        }
+    }
+    
+    /**
+     * Włącza tryb równomierny: po wyczerpaniu liter zaczyna się nowa runda zamiast
+     * losowania dowolnej niewykluczonej litery
+     */
+    public void setBalanced(boolean balanced) {
+        this.balanced = balanced;
+    }
+    
+    public boolean isBalanced() {
+        return balanced;
+    }
+    
+    /**
+     * Zwalnia wszystkie wylosowane litery (nowa gra)
+     */
+    public void reset() {
+        usedMask = 0;
+    }
+    
+    /**
+     * Oznacza literę jako wylosowaną (np. przy odtwarzaniu stanu gry w kolejności losowań)
+     */
+    public void markUsed(char letter) {
+        int index = indexOf(letter);
+        if (index < 0) return;
+        
+        startRoundIfExhausted();
+        usedMask |= 1L << index;
+    }
+    
+    /**
+     * Losuje literę, unikając już użytych i wykluczonych liter
+     * Gdy wszystkie litery są zajęte, w trybie równomiernym zaczyna nową rundę, a w zwykłym
+     * losuje dowolną niewykluczoną (a gdy wszystkie są wykluczone - dowolną z alfabetu).
+     */
+    public char next(RandomGenerator random) {
+        startRoundIfExhausted();
+        long free = allMask & ~excludedMask & ~usedMask;
+        if (free == 0) {
+            free = allMask & ~excludedMask;
+            if (free == 0) free = allMask;
+        }
+        
+        int index = select(free, random.nextInt(Long.bitCount(free)));
+        usedMask |= 1L << index;
+        return alphabet[index];
+    }
+    
+    /**
+     * W trybie równomiernym zaczyna nową rundę, gdy wszystkie dostępne litery są zajęte
+     */
+    private void startRoundIfExhausted() {
+        if (balanced && (allMask & ~excludedMask & ~usedMask) == 0) {
+            usedMask = 0;
+        }
+    }
+    
+    /**
+     * Liczba liter, które można jeszcze wylosować bez powtórzeń
+     */
+    public int freeCount() {
+        return Long.bitCount(allMask & ~excludedMask & ~usedMask);
+    }
+    
+    /**
+     * Zwraca alfabet jako tekst
+     */
+    public String getAlphabet() {
+        return new String(alphabet);
+    }
+    
+    /**
+     * Zwraca pozycję litery w alfabecie albo -1
+     */
+    public int indexOf(char letter) {
+        for (int i = 0; i < alphabet.length; i++) {
+            if (alphabet[i] == letter) return i;
+        }
+        return -1;
+    }
+    
+    /**
+     * Zwraca pozycję k-tego (od 0) ustawionego bitu maski - wyszukiwanie binarne po połówkach
+     */
+    static int select(long mask, int k) {
+        int position = 0;
+        for (int width = 32; width > 0; width >>= 1) {
+            int count = Long.bitCount(mask & ((1L << width) - 1));
+            if (k >= count) {
+                k -= count;
+                mask >>>= width;
+                position += width;
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,338 @@
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.random.RandomGenerator;
+
+/**
+ * Solwer przydziałów oparty na maksymalnym skojarzeniu w grafie dwudzielnym losujący → cel.
+ *
+ * Krawędź (d, t) istnieje, gdy reguła gry pozwala osobie d wylosować osobę t (nie siebie
+ * i nie parę z ograniczeniem). Solwer zwraca skojarzenie doskonałe (poprawną derangement)
+ * zawsze, gdy ono istnieje.
+ *
+ * Algorytm to Hopcroft–Karp: w każdej fazie BFS z wszystkich wolnych losujących wyznacza
+ * warstwy grafu, a DFS po warstwach znajduje maksymalny zbiór rozłącznych najkrótszych
+ * ścieżek powiększających. Faz jest O(√n).
+ *
+ * Graf jest dopełnieniem rzadkiego grafu ograniczeń, więc ma prawie n² krawędzi - nie jest
+ * materializowany. Cele trzymane są na listach (nieodwiedzone w BFS, cele danej warstwy w DFS),
+ * z których cel jest usuwany przy pierwszym użyciu. Losujący pomija na liście tylko cele
+ * dla niego zabronione, więc faza kosztuje O(n + R) zamiast O(n²), gdzie R to liczba ograniczeń.
+ *
+ * Losowość wyniku zapewnia wstępne losowe dopasowanie zachłanne oraz tasowanie kolejności
+ * celów i losujących w każdej fazie (odpowiednik tasowania list sąsiedztwa).
+ *
+ * Postęp (liczba skojarzonych losujących) zgłaszany jest po fazie zachłannej i po każdej
+ * fazie powiększania; żądanie przerwania sprawdzane jest co CHECK_INTERVAL losujących.
+ */
+public class MatchingSolver {
+    // Liczba prób losowego celu dla jednego losującego w fazie zachłannej
+    private static final int GREEDY_ATTEMPTS = 8;
+    // Co ilu losujących sprawdzane jest żądanie przerwania (potęga dwójki)
+    private static final int CHECK_INTERVAL = 4096;
+    // Odbiorca postępu bez przerywania
+    private static final Progress NO_PROGRESS = (done, total) -> { };
+    
+    /**
+     * Reguła określająca czy losujący może wylosować dany cel
+     */
+    public interface PairRule {
+        boolean isAllowed(int drawer, int target);
+    }
+    
+    // Liczba uczestników (losujących i celów)
+    private final int n;
+    // Reguła dopuszczalności par
+    private final PairRule rule;
+    // Źródło losowości
+    private final RandomGenerator random;
+    // Odbiorca postępu bieżącego rozwiązywania
+    private Progress progress = NO_PROGRESS;
+    
+    // Cel przydzielony losującemu (-1 gdy brak)
+    private final int[] matchDrawer;
+    // Losujący przydzielony do celu (-1 gdy brak)
+    private final int[] matchTarget;
+    
+    public MatchingSolver(int n, PairRule rule, RandomGenerator random) {
+        this.n = n;
+        this.rule = rule;
+        this.random = random;
+        this.matchDrawer = new int[n];
+        this.matchTarget = new int[n];
+    }
+    
+    /**
+     * Wyznacza maksymalne skojarzenie
+     * @return tablica cel[losujący]; -1 oznacza losującego bez przydziału (brak skojarzenia doskonałego)
+     */
+    public int[] solve() {
+        return solve(NO_PROGRESS);
+    }
+    
+    /**
+     * Wyznacza maksymalne skojarzenie, zgłaszając postęp
+     * @return tablica cel[losujący]; -1 oznacza losującego bez przydziału (brak skojarzenia doskonałego)
+     * @throws CancellationException gdy odbiorca postępu zażądał przerwania
+     */
+    public int[] solve(Progress progress) {
+        this.progress = progress;
+        try {
+            Arrays.fill(matchDrawer, -1);
+            Arrays.fill(matchTarget, -1);
+            
+            long matched = greedyMatch();
+            progress.update(matched, n);
+            for (int augmented; (augmented = augmentPhase()) > 0; ) {
+                matched += augmented;
+                progress.update(matched, n);
+            }
+            return matchDrawer.clone();
+        } finally {
+            this.progress = NO_PROGRESS;
+        }
+    }
+    
+    /**
+     * Sprawdza czy ostatnie rozwiązanie przydzieliło cel każdemu losującemu
+     */
+    public boolean isPerfect() {
+        for (int t : matchDrawer) {
+            if (t < 0) return false;
+        }
+        return true;
+    }
+    
+    // === FAZA ZACHŁANNA ===
+    
+    /**
+     * Losowe dopasowanie wstępne: każdy losujący (w losowej kolejności) próbuje kilku losowych
+     * wolnych celów, a potem przegląda pulę od losowego miejsca. Pula wolnych celów usuwa
+     * elementy przez zamianę z ostatnim - O(1), a przegląd pomija tylko cele zabronione.
+     * @return liczba skojarzonych losujących
+     */
+    private int greedyMatch() {
+        IndexedPool pool = new IndexedPool(n);
+        int[] order = shuffledIdentity();
+        
+        for (int step = 0; step < order.length; step++) {
+            if (pool.isEmpty()) break;
+            checkCancelled(step);
+            int drawer = order[step];
+            
+            int target = -1;
+            for (int attempt = 0; attempt < GREEDY_ATTEMPTS && target < 0; attempt++) {
+                int candidate = pool.sample(random);
+                if (rule.isAllowed(drawer, candidate)) target = candidate;
+            }
+            if (target < 0) {
+                int start = random.nextInt(pool.size());
+                for (int i = 0; i < pool.size() && target < 0; i++) {
+                    int candidate = pool.get((start + i) % pool.size());
+                    if (rule.isAllowed(drawer, candidate)) target = candidate;
+                }
+            }
+            if (target < 0) continue;
+            
+            matchDrawer[drawer] = target;
+            matchTarget[target] = drawer;
+            pool.remove(target);
+        }
+        return n - pool.size();
+    }
+    
+    // === FAZY HOPCROFTA–KARPA ===
+    
+    // Odległość (warstwa) losującego w bieżącej fazie
+    private int[] dist;
+    // Listy celów: nieodwiedzonych (w BFS) oraz należących do warstw (w DFS)
+    private int[] nextTarget, prevTarget;
+    private int[] layerHead;
+    private int unvisitedHead;
+    // Warstwa, na której BFS znalazł najkrótsze ścieżki powiększające
+    private int phaseLimit;
+    // Pozycja, od której losujący kontynuuje przegląd swojej warstwy
+    private int[] cursor;
+    
+    private static final int UNSET = Integer.MAX_VALUE;
+    private static final int DEAD = Integer.MAX_VALUE - 1;
+    
+    /**
+     * Jedna faza: BFS wyznacza warstwy, DFS powiększa rozłączne najkrótsze ścieżki
+     * @return liczba powiększonych ścieżek
+     */
+    private int augmentPhase() {
+        if (dist == null) {
+            dist = new int[n];
+            nextTarget = new int[n];
+            prevTarget = new int[n];
+            layerHead = new int[n + 1];
+            cursor = new int[n];
+        }
+        if (!buildLayers()) return 0;
+        
+        int augmented = 0;
+        int[] order = shuffledIdentity();
+        for (int i = 0; i < order.length; i++) {
+            checkCancelled(i);
+            if (dist[order[i]] == 0 && augmentFrom(order[i])) {
+                augmented++;
+            }
+        }
+        return augmented;
+    }
+    
+    /**
+     * BFS z wszystkich wolnych losujących. Cel odwiedzony z warstwy k trafia na listę warstwy k.
+     * @return true jeśli osiągnięto jakikolwiek wolny cel
+     */
+    private boolean buildLayers() {
+        // Lista nieodwiedzonych celów (dwukierunkowa, w losowej kolejności)
+        int[] order = shuffledIdentity();
+        unvisitedHead = n > 0 ? order[0] : -1;
+        for (int i = 0; i < n; i++) {
+            prevTarget[order[i]] = i > 0 ? order[i - 1] : -1;
+            nextTarget[order[i]] = i + 1 < n ? order[i + 1] : -1;
+        }
+        Arrays.fill(layerHead, -1);
+        
+        int[] queue = new int[n];
+        int queueHead = 0, queueTail = 0;
+        for (int drawer = 0; drawer < n; drawer++) {
+            if (matchDrawer[drawer] < 0) {
+                dist[drawer] = 0;
+                queue[queueTail++] = drawer;
+            } else {
+                dist[drawer] = UNSET;
+            }
+        }
+        
+        // Warstwa, na której znaleziono najkrótsze ścieżki (dalsze warstwy nie są rozwijane)
+        int limit = UNSET;
+        while (queueHead < queueTail) {
+            checkCancelled(queueHead);
+            int drawer = queue[queueHead++];
+            int layer = dist[drawer];
+            if (layer > limit) break;
+            
+            int target = unvisitedHead;
+            while (target >= 0) {
+                int following = nextTarget[target];
+                if (rule.isAllowed(drawer, target)) {
+                    unlink(target, -1);
+                    pushToLayer(target, layer);
+                    
+                    int owner = matchTarget[target];
+                    if (owner < 0) {
+                        limit = layer;
+                    } else if (dist[owner] == UNSET) {
+                        dist[owner] = layer + 1;
+                        queue[queueTail++] = owner;
+                    }
+                }
+                target = following;
+            }
+        }
+        phaseLimit = limit;
+        return limit != UNSET;
+    }
+    
+    /**
+     * Iteracyjny DFS po warstwach od wolnego losującego; przy sukcesie powiększa skojarzenie
+     */
+    private boolean augmentFrom(int start) {
+        int[] stack = new int[phaseLimit + 1];
+        int[] via = new int[stack.length];
+        int top = 0;
+        stack[top++] = start;
+        cursor[start] = layerHead[0];
+        
+        while (top > 0) {
+            int drawer = stack[top - 1];
+            int layer = dist[drawer];
+            
+            // Pominięcie celów zabronionych dla tego losującego
+            int target = cursor[drawer];
+            while (target >= 0 && !rule.isAllowed(drawer, target)) {
+                target = nextTarget[target];
+            }
+            if (target < 0) {
+                // Ślepy zaułek - losujący nie prowadzi do wolnego celu w tej fazie
+                dist[drawer] = DEAD;
+                top--;
+                continue;
+            }
+            
+            // Cel jest zużyty w tej fazie niezależnie od wyniku (jego jedyną kontynuacją jest właściciel)
+            cursor[drawer] = nextTarget[target];
+            unlink(target, layer);
+            
+            int owner = matchTarget[target];
+            if (owner < 0) {
+                // Wolny cel - powiększenie skojarzenia wzdłuż ścieżki na stosie
+                via[top - 1] = target;
+                for (int i = 0; i < top; i++) {
+                    matchDrawer[stack[i]] = via[i];
+                    matchTarget[via[i]] = stack[i];
+                }
+                return true;
+            }
+            if (layer < phaseLimit && dist[owner] == layer + 1) {
+                via[top - 1] = target;
+                cursor[owner] = layerHead[layer + 1];
+                stack[top++] = owner;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Dodaje cel na początek listy warstwy
+     */
+    private void pushToLayer(int target, int layer) {
+        int head = layerHead[layer];
+        prevTarget[target] = -1;
+        nextTarget[target] = head;
+        if (head >= 0) prevTarget[head] = target;
+        layerHead[layer] = target;
+    }
+    
+    /**
+     * Usuwa cel z listy nieodwiedzonych (layer = -1) albo z listy warstwy
+     */
+    private void unlink(int target, int layer) {
+        int before = prevTarget[target];
+        int after = nextTarget[target];
+        if (before >= 0) {
+            nextTarget[before] = after;
+        } else if (layer < 0) {
+            unvisitedHead = after;
+        } else {
+            layerHead[layer] = after;
+        }
+        if (after >= 0) prevTarget[after] = before;
+    }
+    
+    /**
+     * Co CHECK_INTERVAL kroków sprawdza, czy odbiorca postępu zażądał przerwania
+     */
+    private void checkCancelled(int step) {
+        if ((step & (CHECK_INTERVAL - 1)) == 0 && progress.isCancelled()) {
+            throw new CancellationException("Wyznaczanie przydziałów zostało anulowane.");
+        }
+    }
+    
+    /**
+     * Zwraca losową permutację liczb 0..n-1 (tasowanie Fishera-Yatesa)
+     */
+    private int[] shuffledIdentity() {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        return values;
+    }
+}
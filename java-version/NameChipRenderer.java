@@ -0,0 +1,61 @@
+import javax.swing.*;
+import javax.swing.border.Border;
+import java.awt.*;
+
+/**
+ * Renderer nazwy uczestnika jako kolorowej karty (kolor zależy od pozycji na liście).
+ *
+ * Jedna etykieta jest stemplowana dla każdej widocznej nazwy, więc lista uczestników nie
+ * trzyma komponentu na osobę - dodanie, usunięcie czy zmiana jednej nazwy przerysowuje
+ * tylko widoczny fragment listy.
+ */
+public class NameChipRenderer extends JLabel implements ListCellRenderer<String> {
+    // === PALETA KOLORÓW (zgodna z głównym oknem) ===
+    private static final Color PRIMARY_COLOR = new Color(52, 152, 219);      // Niebieski
+    private static final Color SECONDARY_COLOR = new Color(46, 204, 113);    // Zielony
+    private static final Color ACCENT_COLOR = new Color(231, 76, 60);        // Czerwony
+    private static final Color WARNING_COLOR = new Color(255, 193, 7);       // Żółty
+    private static final Color CARD_COLOR = Color.WHITE;                     // Biały
+    
+    private static final Color[] CHIP_COLORS = {
+        SECONDARY_COLOR, PRIMARY_COLOR, ACCENT_COLOR, WARNING_COLOR,
+        new Color(156, 39, 176), new Color(255, 152, 0), new Color(76, 175, 80)
+    };
+    
+    // Stały rozmiar karty (z odstępem) - lista nie mierzy każdej nazwy osobno
+    public static final int CHIP_WIDTH = 170;
+    public static final int CHIP_HEIGHT = 50;
+    // Odstęp wokół karty
+    private static final Border GAP = BorderFactory.createMatteBorder(5, 5, 5, 5, CARD_COLOR);
+    // Zaznaczona karta ma grubszą, ciemną ramkę
+    private static final Border SELECTED_BORDER = BorderFactory.createCompoundBorder(GAP, BorderFactory.createCompoundBorder(
+        BorderFactory.createLineBorder(Color.BLACK, 2),
+        BorderFactory.createEmptyBorder(4, 13, 4, 13)
+    ));
+    
+    private final Border[] chipBorders = new Border[CHIP_COLORS.length];
+    
+    public NameChipRenderer() {
+        setOpaque(true);
+        setForeground(Color.WHITE);
+        setFont(new Font("Segoe UI", Font.BOLD, 13));
+        for (int i = 0; i < CHIP_COLORS.length; i++) {
+            Color color = CHIP_COLORS[i];
+            chipBorders[i] = BorderFactory.createCompoundBorder(GAP, BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(color.darker(), 1),
+                BorderFactory.createEmptyBorder(5, 14, 5, 14)
+            ));
+        }
+    }
+    
+    @Override
+    public Component getListCellRendererComponent(JList<? extends String> list, String name,
+                                                  int index, boolean isSelected, boolean cellHasFocus) {
+        int color = index % CHIP_COLORS.length;
+        setText(name);
+        setToolTipText(name);
+        setBackground(CHIP_COLORS[color]);
+        setBorder(isSelected ? SELECTED_BORDER : chipBorders[color]);
+        return this;
+    }
+}
@@ -0,0 +1,172 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+
+/**
+ * Pole wyboru uczestnika z podpowiedziami podczas pisania (zamiast listy rozwijanej ze
+ * wszystkimi nazwami).
+ *
+ * Po każdym naciśnięciu klawisza pod polem pojawia się kilka pierwszych nazw z indeksu
+ * prefiksów - lista podpowiedzi ma stałą, małą długość niezależnie od liczby uczestników.
+ * Strzałki zmieniają podświetloną nazwę, Enter lub kliknięcie ją wybiera, Escape zamyka
+ * podpowiedzi.
+ */
+public class NamePicker extends JTextField {
+    // Maksymalna liczba podpowiedzi
+    private static final int MAX_MATCHES = 8;
+    private static final Color HINT_COLOR = new Color(150, 150, 150);
+    
+    // Tekst pokazywany w pustym polu
+    private final String placeholder;
+    private NamePrefixIndex index = NamePrefixIndex.EMPTY;
+    
+    // Lista podpowiedzi w wyskakującym okienku
+    private final DefaultListModel<String> matchesModel = new DefaultListModel<>();
+    private final JList<String> matchesList = new JList<>(matchesModel);
+    private final JPopupMenu popup = new JPopupMenu();
+    // Zmiana tekstu przez wybór podpowiedzi - bez ponownego wyszukiwania
+    private boolean accepting = false;
+    
+    public NamePicker(String placeholder) {
+        this.placeholder = placeholder;
+        
+        matchesList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        matchesList.setFocusable(false);
+        matchesList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = matchesList.locationToIndex(e.getPoint());
+                if (row >= 0) accept(matchesModel.get(row));
+            }
+        });
+        popup.setFocusable(false);
+        popup.setBorder(BorderFactory.createLineBorder(new Color(222, 226, 230), 1));
+        popup.add(new JScrollPane(matchesList,
+            ScrollPaneConstants.VERTICAL_SCROLLBAR_NEVER, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER));
+        
+        // Wyszukiwanie przy każdej zmianie tekstu
+        getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { refreshMatches(); }
+            public void removeUpdate(DocumentEvent e) { refreshMatches(); }
+            public void changedUpdate(DocumentEvent e) { refreshMatches(); }
+        });
+        
+        // Klawisze nawigacji po podpowiedziach
+        bindKey("DOWN", "pickerNext", () -> moveSelection(1));
+        bindKey("UP", "pickerPrevious", () -> moveSelection(-1));
+        bindKey("ENTER", "pickerAccept", () -> {
+            int row = matchesList.getSelectedIndex();
+            if (popup.isVisible() && row >= 0) accept(matchesModel.get(row));
+        });
+        bindKey("ESCAPE", "pickerClose", () -> popup.setVisible(false));
+        
+        addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+            }
+        });
+    }
+    
+    /**
+     * Ustawia indeks nazw, z którego pochodzą podpowiedzi (wpisany tekst pozostaje w polu)
+     */
+    public void setIndex(NamePrefixIndex index) {
+        this.index = index;
+    }
+    
+    /**
+     * Zwraca wybraną nazwę albo null, gdy tekst nie jest nazwą uczestnika
+     */
+    public String getSelectedName() {
+        String text = getText().trim();
+        return index.contains(text) ? text : null;
+    }
+    
+    /**
+     * Czyści pole i zamyka podpowiedzi
+     */
+    public void clear() {
+        accepting = true;
+        setText("");
+        accepting = false;
+        popup.setVisible(false);
+    }
+    
+    /**
+     * Wyszukuje podpowiedzi dla bieżącego tekstu i pokazuje je pod polem
+     */
+    private void refreshMatches() {
+        if (accepting) return;
+        
+        String text = getText();
+        List<String> matches = text.isBlank() ? List.of() : index.match(text, MAX_MATCHES);
+        matchesModel.clear();
+        matchesModel.addAll(matches);
+        if (matches.isEmpty() || !isShowing()) {
+            popup.setVisible(false);
+            return;
+        }
+        
+        matchesList.setSelectedIndex(0);
+        matchesList.setVisibleRowCount(matches.size());
+        popup.setPopupSize(getWidth(), matchesList.getPreferredScrollableViewportSize().height + 4);
+        if (!popup.isVisible()) {
+            popup.show(this, 0, getHeight());
+        } else {
+            popup.revalidate();
+            popup.repaint();
+        }
+    }
+    
+    private void moveSelection(int delta) {
+        if (!popup.isVisible() || matchesModel.isEmpty()) return;
+        int row = Math.floorMod(matchesList.getSelectedIndex() + delta, matchesModel.size());
+        matchesList.setSelectedIndex(row);
+    }
+    
+    /**
+     * Wstawia wybraną nazwę do pola
+     */
+    private void accept(String name) {
+        accepting = true;
+        setText(name);
+        accepting = false;
+        popup.setVisible(false);
+    }
+    
+    private void bindKey(String key, String actionName, Runnable action) {
+        getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(key), actionName);
+        getActionMap().put(actionName, new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+    
+    /**
+     * Rysuje podpowiedź w pustym polu
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (!getText().isEmpty()) return;
+        
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setColor(HINT_COLOR);
+        g2d.setFont(getFont().deriveFont(Font.ITALIC));
+        Insets insets = getInsets();
+        FontMetrics metrics = g2d.getFontMetrics();
+        int y = insets.top + (getHeight() - insets.top - insets.bottom - metrics.getHeight()) / 2 + metrics.getAscent();
+        g2d.drawString(placeholder, insets.left, y);
+        g2d.dispose();
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Indeks prefiksów nazw uczestników do podpowiadania podczas pisania.
+ *
+ * Nazwy są posortowane według klucza (nazwa małymi literami), więc wszystkie nazwy
+ * zaczynające się od wpisanego tekstu leżą obok siebie: początek zakresu wyznacza
+ * wyszukiwanie binarne, a odpowiedź to najwyżej kilka kolejnych pozycji. Koszt zapytania
+ * zależy od logarytmu liczby uczestników i długości tekstu, nie od wielkości listy.
+ * Indeks jest niezmienny; dodanie lub usunięcie jednej nazwy tworzy kopię z nazwą wstawioną
+ * w miejsce wskazane wyszukiwaniem binarnym, bez ponownego sortowania.
+ */
+public final class NamePrefixIndex {
+    private static final Locale POLISH = Locale.forLanguageTag("pl");
+    
+    // Pusty indeks (przed załadowaniem uczestników)
+    public static final NamePrefixIndex EMPTY = new NamePrefixIndex(new String[0], new String[0]);
+    
+    // Klucze (małe litery) i nazwy w kolejności kluczy
+    private final String[] keys;
+    private final String[] names;
+    
+    private NamePrefixIndex(String[] keys, String[] names) {
+        this.keys = keys;
+        this.names = names;
+    }
+    
+    /**
+     * Buduje indeks z nazw uczestników (powtórzone nazwy występują w indeksie raz)
+     */
+    public static NamePrefixIndex build(Collection<String> names) {
+        String[][] entries = new String[names.size()][];
+        int count = 0;
+        for (String name : names) {
+            entries[count++] = new String[] {key(name), name};
+        }
+        Arrays.parallelSort(entries, (a, b) -> {
+            int byKey = a[0].compareTo(b[0]);
+            return byKey != 0 ? byKey : a[1].compareTo(b[1]);
+        });
+        
+        String[] keys = new String[count];
+        String[] sorted = new String[count];
+        int unique = 0;
+        for (String[] entry : entries) {
+            if (unique > 0 && sorted[unique - 1].equals(entry[1])) continue;
+            keys[unique] = entry[0];
+            sorted[unique++] = entry[1];
+        }
+        return new NamePrefixIndex(Arrays.copyOf(keys, unique), Arrays.copyOf(sorted, unique));
+    }
+    
+    /**
+     * Zwraca indeks z dodaną nazwą (bez zmian, gdy nazwa już jest w indeksie)
+     */
+    public NamePrefixIndex withName(String name) {
+        if (contains(name)) return this;
+        
+        String key = key(name);
+        int at = lowerBound(key);
+        while (at < keys.length && keys[at].equals(key) && names[at].compareTo(name) < 0) at++;
+        return new NamePrefixIndex(insert(keys, at, key), insert(names, at, name));
+    }
+    
+    /**
+     * Zwraca indeks bez podanej nazwy (bez zmian, gdy nazwy nie ma w indeksie)
+     */
+    public NamePrefixIndex withoutName(String name) {
+        String key = key(name);
+        for (int i = lowerBound(key); i < keys.length && keys[i].equals(key); i++) {
+            if (names[i].equals(name)) {
+                return new NamePrefixIndex(delete(keys, i), delete(names, i));
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * Zwraca najwyżej limit nazw zaczynających się od tekstu (bez rozróżniania wielkości liter),
+     * w kolejności alfabetycznej
+     */
+    public List<String> match(String prefix, int limit) {
+        String key = key(prefix.trim());
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        for (int i = lowerBound(key); i < keys.length && matches.size() < limit && keys[i].startsWith(key); i++) {
+            matches.add(names[i]);
+        }
+        return matches;
+    }
+    
+    /**
+     * Sprawdza, czy nazwa (dokładnie w tej postaci) jest w indeksie
+     */
+    public boolean contains(String name) {
+        String key = key(name);
+        for (int i = lowerBound(key); i < keys.length && keys[i].equals(key); i++) {
+            if (names[i].equals(name)) return true;
+        }
+        return false;
+    }
+    
+    public int size() {
+        return names.length;
+    }
+    
+    /**
+     * Pierwsza pozycja, której klucz nie jest mniejszy od podanego
+     */
+    private int lowerBound(String key) {
+        int low = 0, high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private static String[] insert(String[] array, int at, String value) {
+        String[] copy = new String[array.length + 1];
+        System.arraycopy(array, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(array, at, copy, at + 1, array.length - at);
+        return copy;
+    }
+    
+    private static String[] delete(String[] array, int at) {
+        String[] copy = new String[array.length - 1];
+        System.arraycopy(array, 0, copy, 0, at);
+        System.arraycopy(array, at + 1, copy, at, copy.length - at);
+        return copy;
+    }
+    
+    private static String key(String name) {
+        return name.toLowerCase(POLISH);
+    }
+}
@@ -0,0 +1,284 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Przydzielanie celów na bieżąco (tura po turze) bez zapędzania się w ślepy zaułek.
+ *
+ * Matcher utrzymuje skojarzenie doskonałe między graczami, którzy jeszcze nie losowali,
+ * a celami, które jeszcze nie zostały wylosowane. Gracz dostaje losowy dopuszczalny cel,
+ * ale tylko taki, po którym pozostali gracze nadal mają pełny przydział. Sprawdzenie polega
+ * na tymczasowym przypięciu pary i naprawie skojarzenia jedną ścieżką powiększającą
+ * (od gracza, który stracił cel, do celu zwolnionego przez losującego) - bez rozwiązywania
+ * całego problemu od nowa w każdej turze.
+ *
+ * Wolne cele trzymane są w puli indeksowanej (usuwanie przez zamianę z ostatnim), a cel
+ * losowany jest po indeksie z odrzucaniem niedopuszczalnych kandydatów - oczekiwany koszt
+ * tury to O(1), niezależnie od tego, ilu graczy już losowało.
+ */
+public class OnlineMatcher {
+    // Liczba losowań po indeksie, zanim matcher przejdzie do przeglądu całej puli
+    private static final int SAMPLING_ATTEMPTS = 32;
+    
+    // Liczba uczestników
+    private final int n;
+    // Reguła dopuszczalności par (nie siebie, nie ograniczenie)
+    private final MatchingSolver.PairRule rule;
+    // Źródło losowości
+    private final RandomGenerator random;
+    
+    // Skojarzenie wśród niezatwierdzonych graczy i celów (-1 gdy brak)
+    private final int[] matchDrawer;
+    private final int[] matchTarget;
+    // Gracze, którzy już losowali, i cele, które już zostały wylosowane
+    private final boolean[] committedDrawer;
+    private final boolean[] committedTarget;
+    
+    // Cele, które jeszcze nie zostały wylosowane
+    private final IndexedPool openTargets;
+    // Znacznik kandydatów odrzuconych w bieżącej turze (numer tury, w której odrzucono)
+    private final int[] rejectedInRoll;
+    private int rollCounter;
+    // Robocze tablice ścieżki powiększającej, przydzielane raz: lista nieodwiedzonych celów,
+    // poprzednik celu na ścieżce i kolejka BFS - każde wywołanie zapisuje pozycję, zanim ją odczyta,
+    // więc tablic nie trzeba czyścić między kandydatami
+    private final int[] nextUnvisited;
+    private final int[] prevUnvisited;
+    private final int[] parent;
+    private final int[] queue;
+    
+    // Czy pozostali gracze mają skojarzenie doskonałe
+    private boolean feasible;
+    
+    public OnlineMatcher(int n, MatchingSolver.PairRule rule, RandomGenerator random) {
+        this.n = n;
+        this.rule = rule;
+        this.random = random;
+        this.matchDrawer = new int[n];
+        this.matchTarget = new int[n];
+        this.committedDrawer = new boolean[n];
+        this.committedTarget = new boolean[n];
+        this.openTargets = new IndexedPool(n);
+        this.rejectedInRoll = new int[n];
+        this.nextUnvisited = new int[n];
+        this.prevUnvisited = new int[n];
+        this.parent = new int[n];
+        this.queue = new int[n];
+        Arrays.fill(matchDrawer, -1);
+        Arrays.fill(matchTarget, -1);
+    }
+    
+    /**
+     * Oznacza parę jako już wylosowaną (np. przy odtwarzaniu stanu gry przed initialize)
+     */
+    public void commit(int drawer, int target) {
+        committedDrawer[drawer] = true;
+        committedTarget[target] = true;
+        openTargets.remove(target);
+    }
+    
+    /**
+     * Wyznacza skojarzenie doskonałe dla graczy, którzy jeszcze nie losowali
+     * @return true jeśli pełny przydział dla pozostałych graczy istnieje
+     */
+    public boolean initialize() {
+        return initialize((done, total) -> { });
+    }
+    
+    /**
+     * Wyznacza skojarzenie doskonałe dla graczy, którzy jeszcze nie losowali, zgłaszając postęp
+     * @return true jeśli pełny przydział dla pozostałych graczy istnieje
+     * @throws java.util.concurrent.CancellationException gdy odbiorca postępu zażądał przerwania
+     */
+    public boolean initialize(Progress progress) {
+        // Zawężenie problemu do niezatwierdzonych graczy i celów
+        int[] drawers = openIds(committedDrawer);
+        int[] targets = openIds(committedTarget);
+        int m = Math.min(drawers.length, targets.length);
+        
+        MatchingSolver solver = new MatchingSolver(m,
+            (d, t) -> rule.isAllowed(drawers[d], targets[t]), random);
+        int[] solution = solver.solve(progress);
+        
+        Arrays.fill(matchDrawer, -1);
+        Arrays.fill(matchTarget, -1);
+        for (int d = 0; d < m; d++) {
+            if (solution[d] >= 0) {
+                matchDrawer[drawers[d]] = targets[solution[d]];
+                matchTarget[targets[solution[d]]] = drawers[d];
+            }
+        }
+        feasible = solver.isPerfect() && drawers.length == targets.length;
+        return feasible;
+    }
+    
+    /**
+     * Czy pozostali gracze mają gwarantowany pełny przydział
+     */
+    public boolean isFeasible() {
+        return feasible;
+    }
+    
+    /**
+     * Losuje cel dla gracza i zatwierdza parę
+     * @return identyfikator celu albo -1, gdy gracz nie ma żadnego dopuszczalnego celu
+     */
+    public int roll(int drawer) {
+        if (committedDrawer[drawer]) {
+            throw new IllegalStateException("Ten gracz już losował.");
+        }
+        
+        if (openTargets.isEmpty()) return -1;
+        rollCounter++;
+        
+        // Losowanie po indeksie z odrzucaniem - każdy kandydat sprawdzany jest najwyżej raz
+        for (int i = 0; i < SAMPLING_ATTEMPTS; i++) {
+            int target = openTargets.sample(random);
+            if (rejectedInRoll[target] != rollCounter && accept(drawer, target)) {
+                return target;
+            }
+        }
+        
+        // Rzadki przypadek (mało dopuszczalnych celów): przegląd puli od losowego miejsca
+        int size = openTargets.size();
+        int start = random.nextInt(size);
+        for (int i = 0; i < size; i++) {
+            int target = openTargets.get((start + i) % size);
+            if (rejectedInRoll[target] != rollCounter && accept(drawer, target)) {
+                return target;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Sprawdza kandydata i przy powodzeniu zatwierdza parę; odrzucony kandydat jest zapamiętywany
+     */
+    private boolean accept(int drawer, int target) {
+        // Bez gwarancji (brak skojarzenia doskonałego) przyjmowany jest każdy dopuszczalny cel
+        if (rule.isAllowed(drawer, target) && (!feasible || tryReserve(drawer, target))) {
+            finishCommit(drawer, target);
+            return true;
+        }
+        rejectedInRoll[target] = rollCounter;
+        return false;
+    }
+    
+    /**
+     * Próbuje przypiąć parę (drawer, target) tak, by pozostali gracze nadal mieli pełny przydział
+     * @return true jeśli skojarzenie zostało naprawione (para może być zatwierdzona)
+     */
+    private boolean tryReserve(int drawer, int target) {
+        int freedTarget = matchDrawer[drawer];
+        if (freedTarget == target) return true;
+        
+        int displaced = matchTarget[target];
+        // Szybka ścieżka: gracz, który traci cel, może wziąć cel zwolniony przez losującego
+        if (rule.isAllowed(displaced, freedTarget)) {
+            matchDrawer[drawer] = target;
+            matchTarget[target] = drawer;
+            matchDrawer[displaced] = freedTarget;
+            matchTarget[freedTarget] = displaced;
+            return true;
+        }
+        
+        // Tymczasowe przypięcie pary i szukanie ścieżki powiększającej od gracza bez celu
+        matchDrawer[drawer] = target;
+        matchTarget[target] = drawer;
+        matchDrawer[displaced] = -1;
+        matchTarget[freedTarget] = -1;
+        if (augment(displaced, drawer, target)) {
+            return true;
+        }
+        
+        // Cofnięcie zmian - ten cel zapędziłby grę w ślepy zaułek
+        matchDrawer[drawer] = freedTarget;
+        matchTarget[freedTarget] = drawer;
+        matchDrawer[displaced] = target;
+        matchTarget[target] = displaced;
+        return false;
+    }
+    
+    /**
+     * BFS po ścieżkach naprzemiennych od gracza bez celu do wolnego celu.
+     * Nieodwiedzone cele trzymane są na liście, z której odwiedzony cel jest usuwany,
+     * więc przeszukanie kosztuje O(n + R), bez przydzielania pamięci.
+     */
+    private boolean augment(int start, int pinnedDrawer, int pinnedTarget) {
+        // Lista nieodwiedzonych celów (wolne cele bez przypiętego)
+        int[] next = nextUnvisited;
+        int[] prev = prevUnvisited;
+        int head = -1, tail = -1;
+        for (int i = 0; i < openTargets.size(); i++) {
+            int t = openTargets.get(i);
+            if (t == pinnedTarget) continue;
+            prev[t] = tail;
+            next[t] = -1;
+            if (tail >= 0) next[tail] = t; else head = t;
+            tail = t;
+        }
+        
+        int queueHead = 0, queueTail = 0;
+        queue[queueTail++] = start;
+        
+        while (queueHead < queueTail) {
+            int drawer = queue[queueHead++];
+            int target = head;
+            while (target >= 0) {
+                int following = next[target];
+                if (rule.isAllowed(drawer, target)) {
+                    if (prev[target] >= 0) next[prev[target]] = following; else head = following;
+                    if (following >= 0) prev[following] = prev[target];
+                    parent[target] = drawer;
+                    
+                    int owner = matchTarget[target];
+                    if (owner < 0) {
+                        // Powiększenie wzdłuż ścieżki
+                        while (true) {
+                            int from = parent[target];
+                            int previousTarget = matchDrawer[from];
+                            matchDrawer[from] = target;
+                            matchTarget[target] = from;
+                            if (from == start) return true;
+                            target = previousTarget;
+                        }
+                    }
+                    if (owner != pinnedDrawer) {
+                        queue[queueTail++] = owner;
+                    }
+                }
+                target = following;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Zatwierdza parę i usuwa ją ze skojarzenia pozostałych graczy
+     */
+    private void finishCommit(int drawer, int target) {
+        if (!feasible) {
+            // Bez gwarancji skojarzenie jest częściowe - zwolnienie ewentualnych par obu stron
+            int oldTarget = matchDrawer[drawer];
+            if (oldTarget >= 0) matchTarget[oldTarget] = -1;
+            int oldOwner = matchTarget[target];
+            if (oldOwner >= 0) matchDrawer[oldOwner] = -1;
+        }
+        matchDrawer[drawer] = -1;
+        matchTarget[target] = -1;
+        commit(drawer, target);
+    }
+    
+    /**
+     * Zwraca identyfikatory, które nie są jeszcze zatwierdzone
+     */
+    private int[] openIds(boolean[] committed) {
+        int count = 0;
+        for (boolean c : committed) if (!c) count++;
+        int[] ids = new int[count];
+        int i = 0;
+        for (int id = 0; id < committed.length; id++) {
+            if (!committed[id]) ids[i++] = id;
+        }
+        return ids;
+    }
+}
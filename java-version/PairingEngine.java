@@ -0,0 +1,1294 @@
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * Silnik losowania par - cała logika gry (nazwy, ograniczenia, litery, przydziały)
+ * bez żadnych zależności od Swinga. Może działać w oknie aplikacji, jak i bez
+ * wyświetlacza (np. na serwerze, w trybie wsadowym z linii poleceń).
+ *
+ * Błędy walidacji zgłaszane są wyjątkami IllegalArgumentException/IllegalStateException
+ * z komunikatem gotowym do pokazania użytkownikowi.
+ */
+public class PairingEngine {
+    // === DANE GRY ===
+    
+    // Lista wszystkich uczestników gry
+    private final List<String> names = new ArrayList<>();
+    // Identyfikatory uczestników (indeks w liście nazw) do szybkiego wyszukiwania
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    // Identyfikator pierwszego wystąpienia nazwy dla każdego uczestnika (null gdy nazwy są unikalne)
+    private int[] canonicalIds;
+    // Indeks ograniczeń - pary które nie mogą być ze sobą dopasowane
+    private final RestrictionIndex restrictions = new RestrictionIndex();
+    // Grupy ograniczeń (np. rodzina, dział) - członkowie grupy nie losują siebie nawzajem.
+    // Numer grupy uczestnika (-1 = brak; tablica tworzona przy pierwszej grupie) i nazwy grup
+    // (null = grupa usunięta)
+    private int[] groupOf;
+    private final List<String> groupNames = new ArrayList<>();
+    // Indeks aktualnie losującego gracza
+    private int currentTurnIndex = 0;
+    
+    // Stan gry jako tablice indeksowane identyfikatorem uczestnika (gracz i losuje w turze i).
+    // Obiekty PlayerResult/Assignment tworzone są dopiero przy odczycie.
+    // Litera wylosowana przez gracza (w trybie kodów - pierwsza litera kodu)
+    private char[] letters = new char[0];
+    // Numer wydania kodu gracza (-1 = brak kodu; tablica tworzona przy pierwszym kodzie w grze)
+    private int[] codeNumbers;
+    // Cel przydzielony losującemu (-1 = brak) i odwrotnie: losujący, który wylosował cel
+    private int[] targetOf = new int[0];
+    private int[] drawerOf = new int[0];
+    // Liczba przydzielonych par
+    private int assignedCount = 0;
+    // Zbiór wykluczonych liter
+    private final Set<Character> excludedLetters = new HashSet<>();
+    // Przydział liter (maski bitowe użytych i wykluczonych liter wybranego alfabetu)
+    private LetterAllocator letterAllocator = new LetterAllocator(LetterAllocator.LATIN);
+    // Tryb unikalnych kodów wieloznakowych zamiast pojedynczych liter
+    private boolean codeMode = false;
+    // Generator kodów (tworzony przy pierwszym losowaniu w grze)
+    private CodeGenerator codeGenerator;
+    // Źródło losowości gry - przez nie przechodzi każda decyzja losowa
+    private RandomGenerator random;
+    // Przydzielanie celów na bieżąco z gwarancją pełnego przydziału dla pozostałych graczy
+    // (tworzone przy pierwszym losowaniu, odtwarzane po zmianie ograniczeń)
+    private OnlineMatcher onlineMatcher;
+    // Odbiorca wyników losowań (np. dziennik zapisu) - null gdy brak
+    private RollListener rollListener;
+    // Odbiorcy zmian listy uczestników, ograniczeń i grup (np. widoki okna)
+    private final List<RosterListener> rosterListeners = new ArrayList<>();
+    // Co tyle tur szybkie losowanie zgłasza postęp i sprawdza żądanie przerwania
+    private static final int BATCH_PROGRESS_INTERVAL = 4096;
+    
+    /**
+     * Odbiorca wyniku każdego losowania, wywoływany pod blokadą silnika zaraz po przydziale
+     */
+    public interface RollListener {
+        /**
+         * @param codeNumber numer wydania kodu (-1 poza trybem kodów)
+         * @param targetId identyfikator celu (-1 gdy gracz nie ma dopuszczalnego celu)
+         */
+        void rolled(int playerId, char letter, int codeNumber, int targetId);
+    }
+    
+    /**
+     * Odbiorca zmian listy uczestników, ograniczeń i grup. Każde zdarzenie opisuje jedną zmianę
+     * (z danymi potrzebnymi do jej naniesienia), więc widok aktualizuje tylko zmieniony element.
+     * Wywoływany pod blokadą silnika, w wątku, który wprowadził zmianę.
+     */
+    public interface RosterListener {
+        /**
+         * Cała zawartość została zastąpiona (nowa lista uczestników, wczytana sesja)
+         * @param restrictions ograniczenia w kolejności dodawania jako pary identyfikatorów
+         */
+        void rosterReplaced(List<String> names, long[] restrictions, List<Group> groups);
+        
+        void nameAdded(int playerId, String name);
+        
+        /**
+         * Uczestnik został usunięty - identyfikatory kolejnych uczestników zmniejszają się o 1
+         * (ograniczenia z jego udziałem zostały wcześniej usunięte osobnymi zdarzeniami)
+         */
+        void nameRemoved(int playerId, String name);
+        
+        void nameChanged(int playerId, String oldName, String newName);
+        
+        /**
+         * @param pair para identyfikatorów (RestrictionIndex.first/second)
+         */
+        void restrictionAdded(int index, long pair);
+        
+        void restrictionRemoved(int index);
+        
+        void groupsChanged(List<Group> groups);
+    }
+    
+    /**
+     * Tworzy silnik z losowym seedem
+     */
+    public PairingEngine() {
+        this(RandomSources.unseeded());
+    }
+    
+    /**
+     * Tworzy silnik z podanym źródłem losowości (np. RandomSources.seeded(42) dla powtarzalnych losowań)
+     */
+    public PairingEngine(RandomGenerator random) {
+        this.random = random;
+    }
+    
+    // === PARSOWANIE DANYCH WEJŚCIOWYCH ===
+    
+    /**
+     * Dzieli tekst na nazwy uczestników (przecinki lub nowe linie), pomijając puste wpisy
+     * @param text tekst z nazwami
+     * @return lista nazw w kolejności wystąpienia
+     */
+    public static List<String> parseNames(String text) {
+        List<String> parsed = new ArrayList<>();
+        if (text == null) return parsed;
+        
+        for (String name : text.split("[,\\n]")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                parsed.add(trimmed);
+            }
+        }
+        return parsed;
+    }
+    
+    /**
+     * Wyciąga wykluczone litery z tekstu (np. "A,B,C" lub "ABCD")
+     * @param text tekst z literami
+     * @return zbiór wykluczonych liter (wielkie litery)
+     */
+    public static Set<Character> parseExcludedLetters(String text) {
+        Set<Character> parsed = new HashSet<>();
+        if (text == null) return parsed;
+        
+        // Usuń przecinki i spacje, zostaw tylko litery
+        String cleaned = text.trim().toUpperCase().replaceAll("[^A-ZĄĆĘŁŃÓŚŹŻ]", "");
+        for (char c : cleaned.toCharArray()) {
+            if (Character.isLetter(c)) {
+                parsed.add(c);
+            }
+        }
+        return parsed;
+    }
+    
+    // === KONFIGURACJA GRY ===
+    
+    /**
+     * Ładuje nową listę uczestników, czyści ograniczenia i rozpoczyna nową grę
+     * @param newNames lista nazw uczestników
+     * @throws IllegalArgumentException gdy uczestników jest mniej niż 2
+     */
+    public synchronized void loadNames(Collection<String> newNames) {
+        if (newNames.size() < 2) {
+            throw new IllegalArgumentException("Proszę wprowadzić przynajmniej 2 nazwy.");
+        }
+        
+        setNames(newNames);
+        restrictions.clear();
+        groupOf = null;
+        groupNames.clear();
+        startGame();
+        fireRosterReplaced();
+    }
+    
+    // === EDYCJA LISTY UCZESTNIKÓW ===
+    
+    /**
+     * Dodaje uczestnika na koniec listy (przed pierwszym losowaniem) i rozpoczyna grę od nowa
+     * @throws IllegalArgumentException gdy nazwa jest pusta lub już jest na liście
+     * @throws IllegalStateException gdy losowanie już się rozpoczęło
+     */
+    public synchronized void addName(String name) {
+        checkRosterEditable();
+        String added = checkNewName(name);
+        
+        int id = names.size();
+        names.add(added);
+        nameIds.put(added, id);
+        if (groupOf != null) {
+            groupOf = Arrays.copyOf(groupOf, id + 1);
+            groupOf[id] = -1;
+        }
+        startGame();
+        for (RosterListener listener : rosterListeners) {
+            listener.nameAdded(id, added);
+        }
+    }
+    
+    /**
+     * Zmienia nazwę uczestnika - jego ograniczenia i grupa pozostają bez zmian
+     * @throws IllegalArgumentException gdy nowa nazwa jest pusta lub już jest na liście
+     * @throws IllegalStateException gdy losowanie już się rozpoczęło
+     */
+    public synchronized void renameName(int playerId, String newName) {
+        checkRosterEditable();
+        String oldName = names.get(playerId);
+        String renamed = newName == null ? "" : newName.trim();
+        if (renamed.equals(oldName)) return;
+        checkNewName(renamed);
+        
+        names.set(playerId, renamed);
+        nameIds.remove(oldName);
+        nameIds.put(renamed, playerId);
+        for (RosterListener listener : rosterListeners) {
+            listener.nameChanged(playerId, oldName, renamed);
+        }
+    }
+    
+    /**
+     * Usuwa uczestnika razem z jego ograniczeniami i rozpoczyna grę od nowa
+     * Identyfikatory kolejnych uczestników zmniejszają się o 1.
+     * @throws IllegalStateException gdy losowanie już się rozpoczęło lub zostałoby mniej niż 2 uczestników
+     */
+    public synchronized void removeName(int playerId) {
+        checkRosterEditable();
+        if (names.size() <= 2) {
+            throw new IllegalStateException("W grze musi pozostać przynajmniej 2 uczestników.");
+        }
+        
+        // Ograniczenia z udziałem uczestnika - od końca, żeby indeksy zdarzeń były aktualne
+        for (int i = restrictions.size() - 1; i >= 0; i--) {
+            long pair = restrictions.get(i);
+            if (RestrictionIndex.first(pair) == playerId || RestrictionIndex.second(pair) == playerId) {
+                restrictions.removeAt(i);
+                for (RosterListener listener : rosterListeners) {
+                    listener.restrictionRemoved(i);
+                }
+            }
+        }
+        restrictions.removeParticipant(playerId);
+        
+        String removed = names.remove(playerId);
+        nameIds.remove(removed);
+        for (int id = playerId; id < names.size(); id++) {
+            nameIds.put(names.get(id), id);
+        }
+        boolean grouped = groupOf != null && groupOf[playerId] >= 0;
+        if (groupOf != null) {
+            System.arraycopy(groupOf, playerId + 1, groupOf, playerId, names.size() - playerId);
+            groupOf = Arrays.copyOf(groupOf, names.size());
+        }
+        startGame();
+        for (RosterListener listener : rosterListeners) {
+            listener.nameRemoved(playerId, removed);
+            if (grouped) listener.groupsChanged(getGroups());
+        }
+    }
+    
+    /**
+     * Listę można zmieniać tylko przed pierwszym losowaniem i gdy nazwy są unikalne
+     */
+    private void checkRosterEditable() {
+        if (currentTurnIndex > 0 || assignedCount > 0) {
+            throw new IllegalStateException("Listę uczestników można zmieniać tylko przed pierwszym losowaniem.");
+        }
+        if (canonicalIds != null) {
+            throw new IllegalStateException("Lista zawiera powtórzone nazwy - załaduj ją ponownie bez powtórzeń.");
+        }
+    }
+    
+    /**
+     * Sprawdza nazwę nowego uczestnika
+     * @return nazwa bez białych znaków na brzegach
+     */
+    private String checkNewName(String name) {
+        String trimmed = name == null ? "" : name.trim();
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("Proszę podać nazwę uczestnika.");
+        }
+        if (nameIds.containsKey(trimmed)) {
+            throw new IllegalArgumentException("Uczestnik " + trimmed + " już jest na liście.");
+        }
+        return trimmed;
+    }
+    
+    /**
+     * Powiadamia odbiorców o zastąpieniu całej listy (dane kopiowane tylko, gdy są odbiorcy)
+     */
+    private void fireRosterReplaced() {
+        if (rosterListeners.isEmpty()) return;
+        
+        List<String> copy = List.copyOf(names);
+        long[] pairs = restrictionPairs();
+        List<Group> groups = getGroups();
+        for (RosterListener listener : rosterListeners) {
+            listener.rosterReplaced(copy, pairs, groups);
+        }
+    }
+    
+    /**
+     * Ustawia listę uczestników i buduje indeks nazw
+     */
+    private void setNames(Collection<String> newNames) {
+        names.clear();
+        names.addAll(newNames);
+        nameIds.clear();
+        canonicalIds = null;
+        for (int i = 0; i < names.size(); i++) {
+            // Przy powtórzonej nazwie obowiązuje pierwsze wystąpienie
+            Integer first = nameIds.putIfAbsent(names.get(i), i);
+            if (first != null) {
+                if (canonicalIds == null) {
+                    canonicalIds = new int[names.size()];
+                    for (int j = 0; j < canonicalIds.length; j++) canonicalIds[j] = j;
+                }
+                canonicalIds[i] = first;
+            }
+        }
+    }
+    
+    /**
+     * Ustawia zbiór liter, które nie będą losowane
+     */
+    public synchronized void setExcludedLetters(Set<Character> letters) {
+        excludedLetters.clear();
+        excludedLetters.addAll(letters);
+        letterAllocator.setExcluded(excludedLetters);
+    }
+    
+    /**
+     * Ustawia alfabet, z którego losowane są litery (np. LetterAllocator.POLISH)
+     * Litery już wylosowane w bieżącej grze pozostają zajęte.
+     * @throws IllegalArgumentException gdy alfabet jest nieprawidłowy
+     */
+    public synchronized void setAlphabet(String letters) {
+        LetterAllocator allocator = new LetterAllocator(letters);
+        allocator.setExcluded(excludedLetters);
+        allocator.setBalanced(letterAllocator.isBalanced());
+        for (int i = 0; i < currentTurnIndex; i++) {
+            allocator.markUsed(this.letters[i]);
+        }
+        letterAllocator = allocator;
+    }
+    
+    public synchronized String getAlphabet() {
+        return letterAllocator.getAlphabet();
+    }
+    
+    /**
+     * Włącza równomierny rozkład liter, gdy graczy jest więcej niż liter
+     * (każda litera trafia do ⌊n/k⌋ albo ⌈n/k⌉ osób)
+     */
+    public synchronized void setBalancedLetters(boolean balanced) {
+        letterAllocator.setBalanced(balanced);
+    }
+    
+    public synchronized boolean isBalancedLetters() {
+        return letterAllocator.isBalanced();
+    }
+    
+    /**
+     * Włącza tryb unikalnych kodów wieloznakowych (np. "AQ", "KZB") - każdy gracz dostaje
+     * inny kod niezależnie od liczby graczy. Kody składane są z liter alfabetu bez liter
+     * wykluczonych; długość dobierana jest do liczby graczy (co najmniej 2 znaki).
+     */
+    public synchronized void setCodeMode(boolean codeMode) {
+        this.codeMode = codeMode;
+    }
+    
+    public synchronized boolean isCodeMode() {
+        return codeMode;
+    }
+    
+    /**
+     * Ustawia źródło losowości dla kolejnych losowań (np. seed do powtórzenia gry)
+     * Żeby powtórzyć całą grę, źródło trzeba ustawić przed jej rozpoczęciem.
+     */
+    public synchronized void setRandom(RandomGenerator random) {
+        this.random = random;
+        onlineMatcher = null;
+    }
+    
+    /**
+     * Ustawia odbiorcę każdej tury (np. dziennik losowań); null wyłącza powiadomienia
+     */
+    public synchronized void setRollListener(RollListener listener) {
+        this.rollListener = listener;
+    }
+    
+    /**
+     * Dodaje odbiorcę zmian listy uczestników i ograniczeń
+     */
+    public synchronized void addRosterListener(RosterListener listener) {
+        rosterListeners.add(listener);
+    }
+    
+    /**
+     * Usuwa odbiorcę zmian listy uczestników i ograniczeń
+     */
+    public synchronized void removeRosterListener(RosterListener listener) {
+        rosterListeners.remove(listener);
+    }
+    
+    /**
+     * Dodaje nowe ograniczenie pary (dwie osoby które nie mogą być razem)
+     * @throws IllegalArgumentException gdy ograniczenie jest nieprawidłowe lub już istnieje
+     */
+    public synchronized void addRestriction(String person1, String person2) {
+        // Sprawdzenie czy osoba nie jest ograniczona sama ze sobą
+        if (person1.equals(person2)) {
+            throw new IllegalArgumentException("Osoba nie może być ograniczona sama ze sobą.");
+        }
+        
+        // Sprawdzenie czy obie osoby biorą udział w grze
+        Integer id1 = nameIds.get(person1);
+        Integer id2 = nameIds.get(person2);
+        if (id1 == null || id2 == null) {
+            throw new IllegalArgumentException("Nieznany uczestnik: " + (id1 == null ? person1 : person2));
+        }
+        
+        // Dodanie do indeksu (duplikat w dowolnej kolejności jest odrzucany)
+        if (!restrictions.add(id1, id2)) {
+            throw new IllegalArgumentException("To ograniczenie już istnieje.");
+        }
+        onlineMatcher = null;
+        int index = restrictions.size() - 1;
+        for (RosterListener listener : rosterListeners) {
+            listener.restrictionAdded(index, restrictions.get(index));
+        }
+    }
+    
+    /**
+     * Dodaje wiele ograniczeń naraz (np. zbiorczy import) - wszystkie albo żadne
+     * @param pairs pary nazw osób
+     * @throws IllegalArgumentException gdy któreś ograniczenie jest nieprawidłowe lub już istnieje
+     *         (ograniczenia dodane wcześniej z tej samej listy są wtedy wycofywane)
+     */
+    public synchronized void addRestrictions(List<String[]> pairs) {
+        int before = restrictions.size();
+        try {
+            for (String[] pair : pairs) {
+                addRestriction(pair[0], pair[1]);
+            }
+        } catch (IllegalArgumentException e) {
+            for (int i = restrictions.size() - 1; i >= before; i--) {
+                removeRestriction(i);
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Usuwa ograniczenie o podanym indeksie (w kolejności dodawania)
+     */
+    public synchronized void removeRestriction(int index) {
+        restrictions.removeAt(index);
+        onlineMatcher = null;
+        for (RosterListener listener : rosterListeners) {
+            listener.restrictionRemoved(index);
+        }
+    }
+    
+    /**
+     * Dodaje osoby do grupy ograniczeń (grupa powstaje przy pierwszym użyciu nazwy)
+     * Członkowie jednej grupy nie mogą wylosować siebie nawzajem; każdy należy najwyżej do jednej grupy.
+     * @throws IllegalArgumentException gdy nazwa jest pusta, osoba jest nieznana lub należy do innej grupy
+     */
+    public synchronized void addGroup(String group, Collection<String> members) {
+        String groupName = group == null ? "" : group.trim();
+        if (groupName.isEmpty()) {
+            throw new IllegalArgumentException("Proszę podać nazwę grupy.");
+        }
+        int groupId = groupNames.indexOf(groupName);
+        
+        // Walidacja wszystkich osób przed zmianą stanu
+        List<Integer> ids = new ArrayList<>(members.size());
+        for (String member : members) {
+            Integer id = nameIds.get(member);
+            if (id == null) {
+                throw new IllegalArgumentException("Nieznany uczestnik: " + member);
+            }
+            if (groupOf != null && groupOf[id] >= 0 && groupOf[id] != groupId) {
+                throw new IllegalArgumentException("Osoba " + member + " należy już do grupy " + groupNames.get(groupOf[id]) + ".");
+            }
+            ids.add(id);
+        }
+        if (groupId < 0 && new HashSet<>(ids).size() < 2) {
+            throw new IllegalArgumentException("Grupa musi mieć przynajmniej 2 osoby.");
+        }
+        
+        if (groupId < 0) {
+            groupId = groupNames.size();
+            groupNames.add(groupName);
+        }
+        if (groupOf == null) {
+            groupOf = new int[names.size()];
+            Arrays.fill(groupOf, -1);
+        }
+        for (int id : ids) {
+            groupOf[id] = groupId;
+        }
+        onlineMatcher = null;
+        fireGroupsChanged();
+    }
+    
+    /**
+     * Dodaje wiele grup naraz (np. zbiorczy import) - wszystkie albo żadna
+     * @param groups członkowie każdej grupy według nazwy grupy
+     * @throws IllegalArgumentException gdy któraś grupa jest nieprawidłowa
+     *         (grupy dodane wcześniej z tej samej listy są wtedy wycofywane)
+     */
+    public synchronized void addGroups(Map<String, ? extends Collection<String>> groups) {
+        int groupCount = groupNames.size();
+        int[] previousGroupOf = groupOf != null ? groupOf.clone() : null;
+        try {
+            for (Map.Entry<String, ? extends Collection<String>> group : groups.entrySet()) {
+                addGroup(group.getKey(), group.getValue());
+            }
+        } catch (IllegalArgumentException e) {
+            groupNames.subList(groupCount, groupNames.size()).clear();
+            groupOf = previousGroupOf;
+            onlineMatcher = null;
+            fireGroupsChanged();
+            throw e;
+        }
+    }
+    
+    /**
+     * Usuwa grupę ograniczeń (jej członkowie mogą znów losować siebie nawzajem)
+     */
+    public synchronized void removeGroup(String group) {
+        int groupId = groupNames.indexOf(group);
+        if (groupId < 0) return;
+        
+        groupNames.set(groupId, null);
+        for (int id = 0; id < groupOf.length; id++) {
+            if (groupOf[id] == groupId) groupOf[id] = -1;
+        }
+        onlineMatcher = null;
+        fireGroupsChanged();
+    }
+    
+    private void fireGroupsChanged() {
+        if (rosterListeners.isEmpty()) return;
+        
+        List<Group> groups = getGroups();
+        for (RosterListener listener : rosterListeners) {
+            listener.groupsChanged(groups);
+        }
+    }
+    
+    /**
+     * Zwraca grupy ograniczeń w kolejności tworzenia wraz z liczbą członków
+     */
+    public synchronized List<Group> getGroups() {
+        List<Group> groups = new ArrayList<>();
+        if (groupOf == null) return groups;
+        
+        int[] sizes = new int[groupNames.size()];
+        for (int group : groupOf) {
+            if (group >= 0) sizes[group]++;
+        }
+        for (int i = 0; i < groupNames.size(); i++) {
+            if (groupNames.get(i) != null) groups.add(new Group(groupNames.get(i), sizes[i]));
+        }
+        return groups;
+    }
+    
+    /**
+     * Rozpoczyna nową grę - resetuje wyniki, przydziały i pulę celów
+     */
+    public synchronized void startGame() {
+        int n = names.size();
+        currentTurnIndex = 0;
+        letters = new char[n];
+        codeNumbers = null;
+        clearAssignments();
+        onlineMatcher = null;
+        codeGenerator = null;
+        letterAllocator.reset();
+    }
+    
+    // === LOSOWANIE ===
+    
+    /**
+     * Generuje losową literę, unikając już użytych liter i wykluczonych liter
+     * @return losowa litera z alfabetu
+     */
+    public synchronized char getRandomLetter() {
+        return letterAllocator.next(random);
+    }
+    
+    /**
+     * Wydaje kolejny unikalny kod wieloznakowy
+     * @throws IllegalStateException gdy pula kodów została wyczerpana
+     */
+    public synchronized String getRandomCode() {
+        return codeGenerator.codeAt(nextCodeNumber());
+    }
+    
+    /**
+     * Wydaje numer kolejnego kodu; generator powstaje przy pierwszym kodzie i obowiązuje do końca gry
+     */
+    private int nextCodeNumber() {
+        if (codeGenerator == null) {
+            // Kody z liter alfabetu bez wykluczonych (gdy wykluczone są wszystkie - z całego alfabetu)
+            String alphabet = letterAllocator.getAlphabet();
+            StringBuilder codeLetters = new StringBuilder();
+            for (char c : alphabet.toCharArray()) {
+                if (!excludedLetters.contains(c)) codeLetters.append(c);
+            }
+            if (codeLetters.length() == 0) codeLetters.append(alphabet);
+            
+            codeGenerator = new CodeGenerator(codeLetters.toString(), names.size(), 2, random);
+        }
+        int number = (int) codeGenerator.getIssued();
+        codeGenerator.next();
+        return number;
+    }
+    
+    /**
+     * Losuje symbol dla gracza: literę albo (w trybie kodów) kod, którego numer zapisywany jest w stanie gry
+     * @return wylosowana litera (w trybie kodów - pierwsza litera kodu)
+     */
+    private char drawSymbol(int playerId) {
+        if (!codeMode) return getRandomLetter();
+        
+        int number = nextCodeNumber();
+        if (codeNumbers == null) {
+            codeNumbers = new int[names.size()];
+            Arrays.fill(codeNumbers, -1);
+        }
+        codeNumbers[playerId] = number;
+        return codeGenerator.codeAt(number).charAt(0);
+    }
+    
+    /**
+     * Zwraca kod gracza albo null, gdy gracz nie ma kodu
+     */
+    private String codeOf(int playerId) {
+        if (codeNumbers == null || codeNumbers[playerId] < 0) return null;
+        return codeGenerator.codeAt(codeNumbers[playerId]);
+    }
+    
+    /**
+     * Sprawdza czy dana para jest ograniczona (nie może być razem)
+     * @param name1 pierwsza osoba
+     * @param name2 druga osoba
+     * @return true jeśli para jest ograniczona
+     */
+    public synchronized boolean isRestrictedPair(String name1, String name2) {
+        if (restrictions.isEmpty()) return false;
+        
+        Integer id1 = nameIds.get(name1);
+        Integer id2 = nameIds.get(name2);
+        return id1 != null && id2 != null && restrictions.contains(id1, id2);
+    }
+    
+    /**
+     * Przydziela cel dla gracza podczas losowania i zapisuje parę
+     * Cel jest losowy, ale zawsze taki, po którym pozostali gracze nadal mogą dostać
+     * pełny przydział - żadna reguła nie jest łamana i nikt nie zostaje bez celu.
+     * @return nazwa wylosowanej osoby albo null, gdy dla gracza nie ma już dopuszczalnego celu
+     */
+    public synchronized String assignTargetForOnRoll(String drawer) {
+        int target = assignTargetForOnRoll(resolveDrawer(drawer));
+        return target < 0 ? null : names.get(target);
+    }
+    
+    /**
+     * Identyfikator gracza - przy powtórzonych nazwach liczy się gracz z bieżącej tury
+     */
+    private int resolveDrawer(String drawer) {
+        if (drawer.equals(getCurrentPlayer())) return currentTurnIndex;
+        
+        Integer drawerId = nameIds.get(drawer);
+        if (drawerId == null) {
+            throw new IllegalArgumentException("Nieznany uczestnik: " + drawer);
+        }
+        return drawerId;
+    }
+    
+    /**
+     * Losuje cel dla gracza matcherem na bieżąco i zapisuje parę
+     * @return identyfikator celu albo -1
+     */
+    private int assignTargetForOnRoll(int drawerId) {
+        int target = ensureOnlineMatcher().roll(drawerId);
+        if (target >= 0) {
+            setPair(drawerId, target);
+        }
+        return target;
+    }
+    
+    /**
+     * Losuje dla gracza literę (albo kod w trybie kodów) i przydziela mu cel
+     * Wynik nie jest jeszcze zapisywany jako tura - robi to recordPlayerResult.
+     * @return przydział z wylosowanym symbolem; target jest null, gdy gracz nie ma dopuszczalnego celu
+     */
+    public synchronized Assignment rollFor(String drawer) {
+        int drawerId = resolveDrawer(drawer);
+        char letter = drawSymbol(drawerId);
+        int target = assignTargetForOnRoll(drawerId);
+        if (rollListener != null) {
+            int codeNumber = codeMode ? codeNumbers[drawerId] : -1;
+            rollListener.rolled(drawerId, letter, codeNumber, target);
+        }
+        return new Assignment(drawer, target < 0 ? null : names.get(target), letter, codeOf(drawerId));
+    }
+    
+    /**
+     * Zwraca matcher dla losowania na bieżąco, budując go z uwzględnieniem już wylosowanych par
+     */
+    private OnlineMatcher ensureOnlineMatcher() {
+        return ensureOnlineMatcher((done, total) -> { });
+    }
+    
+    /**
+     * Zwraca matcher na bieżąco, tworząc go przy pierwszym użyciu (przerwany nie jest zapamiętywany)
+     */
+    private OnlineMatcher ensureOnlineMatcher(Progress progress) {
+        if (onlineMatcher == null) {
+            OnlineMatcher matcher = new OnlineMatcher(names.size(), this::isAllowedPair, random);
+            for (int drawer = 0; drawer < targetOf.length; drawer++) {
+                if (targetOf[drawer] >= 0) matcher.commit(drawer, targetOf[drawer]);
+            }
+            matcher.initialize(progress);
+            onlineMatcher = matcher;
+        }
+        return onlineMatcher;
+    }
+    
+    /**
+     * Wyznacza z wyprzedzeniem przydział dla graczy, którzy jeszcze nie losowali, żeby kolejne
+     * losowania były natychmiastowe (bez tego robi to pierwsze losowanie po zmianie reguł)
+     * @throws java.util.concurrent.CancellationException gdy odbiorca postępu zażądał przerwania
+     */
+    public synchronized void prepareRolling(Progress progress) {
+        if (currentTurnIndex < names.size()) ensureOnlineMatcher(progress);
+    }
+    
+    /**
+     * Zapisuje wynik losowania gracza i przechodzi do następnej tury
+     * @throws IllegalStateException gdy wszyscy gracze już wylosowali
+     * @throws IllegalArgumentException gdy kod w wyniku nie został wydany temu graczowi
+     */
+    public synchronized void recordPlayerResult(PlayerResult result) {
+        if (currentTurnIndex >= names.size()) {
+            throw new IllegalStateException("Wszyscy gracze już wylosowali.");
+        }
+        
+        int id = currentTurnIndex;
+        if (result.code != null) {
+            if (!result.code.equals(codeOf(id))) {
+                throw new IllegalArgumentException("Nieznany kod: " + result.code);
+            }
+        } else if (codeNumbers != null) {
+            codeNumbers[id] = -1;
+        }
+        letters[id] = result.letter;
+        currentTurnIndex++;
+    }
+    
+    /**
+     * Wykonuje pełną turę aktualnego gracza: losuje literę, przydziela cel i przechodzi dalej
+     * @return przydział wylosowany w tej turze
+     * @throws IllegalStateException gdy wszyscy gracze już wylosowali
+     */
+    public synchronized Assignment rollNext() {
+        if (currentTurnIndex >= names.size()) {
+            throw new IllegalStateException("Wszyscy gracze już wylosowali.");
+        }
+        
+        Assignment rolled = rollFor(names.get(currentTurnIndex));
+        recordPlayerResult(new PlayerResult(rolled.drawer, rolled.letter, rolled.code));
+        return rolled;
+    }
+    
+    /**
+     * Wykonuje turę podanego gracza, o ile to jego kolej (losowanie z osobnych urządzeń)
+     * @return przydział wylosowany w tej turze
+     * @throws IllegalArgumentException gdy nie ma takiego uczestnika
+     * @throws IllegalStateException gdy gracz już losował albo teraz jest kolej innego gracza
+     */
+    public synchronized Assignment rollTurnOf(String drawer) {
+        if (!nameIds.containsKey(drawer)) {
+            throw new IllegalArgumentException("Nieznany uczestnik: " + drawer);
+        }
+        if (drawer.equals(getCurrentPlayer())) return rollNext();
+        
+        if (isFinished()) {
+            throw new IllegalStateException("Wszyscy gracze już wylosowali.");
+        }
+        if (nameIds.get(drawer) < currentTurnIndex) {
+            throw new IllegalStateException("Uczestnik " + drawer + " już losował.");
+        }
+        throw new IllegalStateException("Teraz losuje: " + getCurrentPlayer());
+    }
+    
+    /**
+     * Wykonuje pełne tury kolejnych graczy jednym wywołaniem (szybkie losowanie)
+     * Każda tura przebiega jak rollNext() - te same reguły liter, kodów i przydziałów, zapis
+     * do dziennika przez RollListener - ale bez tworzenia obiektów wyniku dla gracza.
+     * Przerwanie zatrzymuje losowanie po ostatniej pełnej turze; wykonane tury zostają.
+     * @param count liczba tur do wykonania (obcinana do liczby graczy, którzy jeszcze nie losowali)
+     * @return liczba wykonanych tur
+     * @throws java.util.concurrent.CancellationException gdy przerwano przed pierwszą turą
+     *         (w trakcie wyznaczania przydziału pozostałych graczy)
+     */
+    public synchronized int rollBatch(int count, Progress progress) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Liczba tur nie może być ujemna: " + count);
+        }
+        int end = (int) Math.min((long) currentTurnIndex + count, names.size());
+        int first = currentTurnIndex;
+        if (first == end) return 0;
+        
+        OnlineMatcher matcher = ensureOnlineMatcher(progress);
+        int total = end - first;
+        progress.update(0, total);
+        for (int drawer = first; drawer < end; drawer++) {
+            int done = drawer - first;
+            if (done > 0 && done % BATCH_PROGRESS_INTERVAL == 0) {
+                if (progress.isCancelled()) break;
+                progress.update(done, total);
+            }
+            
+            char letter = drawSymbol(drawer);
+            int target = matcher.roll(drawer);
+            if (target >= 0) setPair(drawer, target);
+            if (rollListener != null) {
+                rollListener.rolled(drawer, letter, codeMode ? codeNumbers[drawer] : -1, target);
+            }
+            letters[drawer] = letter;
+            currentTurnIndex++;
+        }
+        progress.update(currentTurnIndex - first, total);
+        return currentTurnIndex - first;
+    }
+    
+    /**
+     * Otwiera losowanie samoobsługowe: pozostali gracze losują w dowolnej kolejności, z wielu
+     * stanowisk naraz (ConcurrentRollSession). Tury wszystkich pozostałych graczy wykonywane są
+     * od razu, jak w rollBatch(), a sesja tylko odsłania ich wyniki - bez blokady silnika.
+     * @throws IllegalStateException gdy nazwy uczestników się powtarzają (gracz losuje pod swoją nazwą,
+     *         więc powtórzona nazwa nie mogłaby odsłonić losowania i sesja nigdy by się nie zakończyła)
+     * @throws java.util.concurrent.CancellationException gdy przerwano wyznaczanie przydziału
+     *         (przed pierwszą turą - stan gry bez zmian)
+     */
+    public synchronized ConcurrentRollSession openConcurrentRolling(Progress progress) {
+        if (canonicalIds != null) {
+            throw new IllegalStateException("Losowanie samoobsługowe wymaga niepowtarzalnych nazw uczestników.");
+        }
+        int first = currentTurnIndex;
+        if (first < names.size()) {
+            ensureOnlineMatcher(progress);
+            // Po wyznaczeniu przydziału tury nie są już przerywane - sesja obejmuje wszystkich
+            rollBatch(names.size() - first, progress::update);
+        }
+        return new ConcurrentRollSession(snapshot(), first);
+    }
+    
+    /**
+     * Automatycznie generuje finalne przydziały par na podstawie wylosowanych liter
+     * Każda osoba musi kogoś wylosować i zostać wylosowana
+     * Przydziały wyznacza solwer maksymalnego skojarzenia: nikt nie losuje siebie ani osoby
+     * z ograniczeniem, a pełny przydział jest znajdowany zawsze, gdy tylko istnieje.
+     * @return true jeśli wszyscy uczestnicy dostali przydział
+     */
+    public synchronized boolean generatePairsAutomatically() {
+        return generatePairsAutomatically((done, total) -> { });
+    }
+    
+    /**
+     * Generuje finalne przydziały jak generatePairsAutomatically(), zgłaszając postęp solwera
+     * Przerwanie nie zmienia dotychczasowych przydziałów.
+     * @return true jeśli wszyscy uczestnicy dostali przydział
+     * @throws java.util.concurrent.CancellationException gdy odbiorca postępu zażądał przerwania
+     */
+    public synchronized boolean generatePairsAutomatically(Progress progress) {
+        if (currentTurnIndex != names.size()) return false;
+        
+        // Jeśli pary już zostały przydzielone podczas losowania, nie nadpisuj
+        if (assignedCount == names.size()) return true;
+        
+        // Skojarzenie losujący → cel bez par z samym sobą i par z ograniczeniem
+        MatchingSolver solver = new MatchingSolver(names.size(), this::isAllowedPair, random);
+        int[] targets = solver.solve(progress);
+        
+        // Zapisanie wyników (osoby bez przydziału są pomijane - żadna reguła nie jest łamana)
+        clearAssignments();
+        for (int drawer = 0; drawer < targets.length; drawer++) {
+            if (targets[drawer] >= 0) setPair(drawer, targets[drawer]);
+        }
+        return assignedCount == names.size();
+    }
+    
+    /**
+     * Losuje litery wszystkim pozostałym graczom, a następnie wyznacza wszystkie przydziały naraz
+     * @return true jeśli wszyscy uczestnicy dostali przydział
+     */
+    public synchronized boolean drawAllAtOnce() {
+        for (; currentTurnIndex < names.size(); currentTurnIndex++) {
+            letters[currentTurnIndex] = drawSymbol(currentTurnIndex);
+        }
+        clearAssignments();
+        return generatePairsAutomatically();
+    }
+    
+    /**
+     * Zapisuje parę losujący → cel w tablicach przydziałów
+     */
+    private void setPair(int drawer, int target) {
+        targetOf[drawer] = target;
+        drawerOf[target] = drawer;
+        assignedCount++;
+    }
+    
+    /**
+     * Usuwa wszystkie przydziały
+     */
+    private void clearAssignments() {
+        int n = names.size();
+        if (targetOf.length != n) {
+            targetOf = new int[n];
+            drawerOf = new int[n];
+        }
+        Arrays.fill(targetOf, -1);
+        Arrays.fill(drawerOf, -1);
+        assignedCount = 0;
+    }
+    
+    /**
+     * Reguła gry dla identyfikatorów uczestników: nie siebie i nie parę z ograniczeniem
+     * (ograniczenia zapisane są dla pierwszego wystąpienia nazwy)
+     */
+    private boolean isAllowedPair(int drawer, int target) {
+        if (drawer == target) return false;
+        if (canonicalIds != null) {
+            drawer = canonicalIds[drawer];
+            target = canonicalIds[target];
+        }
+        
+        // Grupa to jedno porównanie numerów, bez par członków
+        if (groupOf != null && groupOf[drawer] >= 0 && groupOf[drawer] == groupOf[target]) return false;
+        return restrictions.isEmpty() || !restrictions.contains(drawer, target);
+    }
+    
+    // === ODCZYT STANU GRY ===
+    
+    public synchronized List<String> getNames() {
+        return new ArrayList<>(names);
+    }
+    
+    public synchronized int getPlayerCount() {
+        return names.size();
+    }
+    
+    /**
+     * Zwraca ograniczenia w kolejności dodawania (obiekty tworzone na żądanie z indeksu)
+     */
+    public synchronized List<Restriction> getRestrictions() {
+        List<Restriction> list = new ArrayList<>(restrictions.size());
+        for (int i = 0; i < restrictions.size(); i++) {
+            long pair = restrictions.get(i);
+            list.add(new Restriction(names.get(RestrictionIndex.first(pair)), names.get(RestrictionIndex.second(pair))));
+        }
+        return list;
+    }
+    
+    public synchronized int getRestrictionCount() {
+        return restrictions.size();
+    }
+    
+    /**
+     * Ograniczenia w kolejności dodawania jako pary identyfikatorów
+     */
+    private long[] restrictionPairs() {
+        long[] pairs = new long[restrictions.size()];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = restrictions.get(i);
+        }
+        return pairs;
+    }
+    
+    /**
+     * Zwraca niezmienną kopię stanu gry (np. do zapisu w tle bez blokowania silnika)
+     */
+    public synchronized GameSnapshot snapshot() {
+        long[] pairs = restrictionPairs();
+        
+        // Grupy bez usuniętych (numery przenumerowane po kolei)
+        String[] groups = new String[0];
+        int[] groupIds = null;
+        if (groupOf != null) {
+            int[] renumber = new int[groupNames.size()];
+            List<String> live = new ArrayList<>();
+            for (int i = 0; i < groupNames.size(); i++) {
+                renumber[i] = groupNames.get(i) != null ? live.size() : -1;
+                if (groupNames.get(i) != null) live.add(groupNames.get(i));
+            }
+            groups = live.toArray(new String[0]);
+            groupIds = new int[groupOf.length];
+            for (int id = 0; id < groupOf.length; id++) {
+                groupIds[id] = groupOf[id] >= 0 ? renumber[groupOf[id]] : -1;
+            }
+        }
+        return new GameSnapshot(names.toArray(new String[0]), pairs, groups, groupIds,
+            Collections.unmodifiableSet(new TreeSet<>(excludedLetters)),
+            letterAllocator.getAlphabet(), letterAllocator.isBalanced(), codeMode, currentTurnIndex,
+            letters.clone(), codeNumbers != null ? codeNumbers.clone() : null,
+            codeGenerator != null ? codeGenerator.copy() : null,
+            targetOf.clone(), assignedCount);
+    }
+    
+    /**
+     * Przywraca pełny stan gry z migawki (np. wczytanej sesji) - uczestników, ograniczenia,
+     * ustawienia liter, wyniki tur i przydziały. Losowanie można kontynuować od następnej tury.
+     * @throws IllegalArgumentException gdy migawka jest niespójna
+     */
+    public synchronized void restore(GameSnapshot game) {
+        int n = game.names.length;
+        if (game.letters.length != n || game.targetOf.length != n || game.turnCount < 0 || game.turnCount > n
+                || (game.codeNumbers != null && (game.codeNumbers.length != n || game.codeGenerator == null))) {
+            throw new IllegalArgumentException("Niespójny stan gry.");
+        }
+        LetterAllocator allocator = new LetterAllocator(game.alphabet);
+        // Każdy cel najwyżej raz, ograniczenia tylko między istniejącymi graczami
+        BitSet taken = new BitSet(n);
+        for (int target : game.targetOf) {
+            if (target < 0) continue;
+            if (target >= n || taken.get(target)) {
+                throw new IllegalArgumentException("Niespójny stan gry.");
+            }
+            taken.set(target);
+        }
+        for (long pair : game.restrictions) {
+            int first = RestrictionIndex.first(pair), second = RestrictionIndex.second(pair);
+            if (first < 0 || first >= n || second < 0 || second >= n) {
+                throw new IllegalArgumentException("Niespójny stan gry.");
+            }
+        }
+        if (game.groupOf != null) {
+            if (game.groupOf.length != n) throw new IllegalArgumentException("Niespójny stan gry.");
+            for (int group : game.groupOf) {
+                if (group >= game.groupNames.length) throw new IllegalArgumentException("Niespójny stan gry.");
+            }
+        }
+        
+        setNames(Arrays.asList(game.names));
+        restrictions.clear();
+        for (long pair : game.restrictions) {
+            restrictions.add(RestrictionIndex.first(pair), RestrictionIndex.second(pair));
+        }
+        groupNames.clear();
+        Collections.addAll(groupNames, game.groupNames);
+        groupOf = game.groupOf != null ? game.groupOf.clone() : null;
+        
+        // Ustawienia liter; litery wylosowane w kolejnych turach są znów zajęte
+        excludedLetters.clear();
+        excludedLetters.addAll(game.excludedLetters);
+        allocator.setExcluded(excludedLetters);
+        allocator.setBalanced(game.balancedLetters);
+        letterAllocator = allocator;
+        codeMode = game.codeMode;
+        for (int i = 0; i < game.turnCount; i++) {
+            letterAllocator.markUsed(game.letters[i]);
+        }
+        
+        // Wyniki tur, kody i przydziały
+        currentTurnIndex = game.turnCount;
+        letters = game.letters.clone();
+        codeNumbers = game.codeNumbers != null ? game.codeNumbers.clone() : null;
+        codeGenerator = game.codeGenerator != null ? game.codeGenerator.copy() : null;
+        targetOf = new int[n];
+        drawerOf = new int[n];
+        Arrays.fill(targetOf, -1);
+        Arrays.fill(drawerOf, -1);
+        assignedCount = 0;
+        for (int drawer = 0; drawer < n; drawer++) {
+            if (game.targetOf[drawer] >= 0) setPair(drawer, game.targetOf[drawer]);
+        }
+        onlineMatcher = null;
+        fireRosterReplaced();
+    }
+    
+    /**
+     * Powtarza zapisane losowanie gracza z bieżącej tury (odtwarzanie dziennika po awarii)
+     * @param codes generator kodów gry - używany, gdy silnik jeszcze go nie ma
+     * @throws IllegalArgumentException gdy losowanie nie pasuje do stanu gry
+     */
+    synchronized void replayRoll(int playerId, char letter, int codeNumber, int targetId, CodeGenerator codes) {
+        int n = names.size();
+        if (playerId != currentTurnIndex || playerId >= n || targetId >= n || (targetId >= 0 && drawerOf[targetId] >= 0)
+                || (codeNumber >= 0 && codeGenerator == null && codes == null)) {
+            throw new IllegalArgumentException("Niespójny stan gry.");
+        }
+        
+        letters[playerId] = letter;
+        if (codeNumber >= 0) {
+            if (codeGenerator == null) codeGenerator = codes;
+            if (codeNumbers == null) {
+                codeNumbers = new int[n];
+                Arrays.fill(codeNumbers, -1);
+            }
+            codeNumbers[playerId] = codeNumber;
+            codeGenerator.setIssued(Math.max(codeGenerator.getIssued(), codeNumber + 1L));
+        } else {
+            letterAllocator.markUsed(letter);
+        }
+        if (targetId >= 0) setPair(playerId, targetId);
+        currentTurnIndex++;
+        onlineMatcher = null;
+    }
+    
+    /**
+     * Zwraca generator kodów gry (null, dopóki nie wylosowano pierwszego kodu)
+     */
+    synchronized CodeGenerator getCodeGenerator() {
+        return codeGenerator;
+    }
+    
+    public synchronized Set<Character> getExcludedLetters() {
+        return new TreeSet<>(excludedLetters);
+    }
+    
+    /**
+     * Zwraca wyniki graczy, którzy już losowali, w kolejności tur
+     */
+    public synchronized List<PlayerResult> getPlayerResults() {
+        List<PlayerResult> list = new ArrayList<>(currentTurnIndex);
+        for (int i = 0; i < currentTurnIndex; i++) {
+            list.add(new PlayerResult(names.get(i), letters[i], codeOf(i)));
+        }
+        return list;
+    }
+    
+    /**
+     * Zwraca przydziały w kolejności losujących (obiekty tworzone na żądanie z tablic)
+     */
+    public synchronized List<Assignment> getFinalPairs() {
+        List<Assignment> list = new ArrayList<>(assignedCount);
+        for (int drawer = 0; drawer < targetOf.length; drawer++) {
+            if (targetOf[drawer] < 0) continue;
+            list.add(new Assignment(names.get(drawer), names.get(targetOf[drawer]), letters[drawer], codeOf(drawer)));
+        }
+        return list;
+    }
+    
+    /**
+     * Liczba przydzielonych par
+     */
+    public synchronized int getAssignedCount() {
+        return assignedCount;
+    }
+    
+    // Odczyt pojedynczych wpisów po identyfikatorze - bez tworzenia list dla bardzo dużych gier
+    
+    public synchronized String getName(int playerId) {
+        return names.get(playerId);
+    }
+    
+    /**
+     * Zwraca identyfikator uczestnika o podanej nazwie (pierwsze wystąpienie; -1 gdy brak)
+     */
+    public synchronized int getPlayerId(String name) {
+        Integer id = nameIds.get(name);
+        return id != null ? id : -1;
+    }
+    
+    /**
+     * Zwraca identyfikator celu wylosowanego przez gracza (-1 gdy brak przydziału)
+     */
+    public synchronized int getTargetId(int drawerId) {
+        return targetOf[drawerId];
+    }
+    
+    /**
+     * Zwraca identyfikator gracza, który wylosował daną osobę (-1 gdy nikt)
+     */
+    public synchronized int getDrawerId(int targetId) {
+        return drawerOf[targetId];
+    }
+    
+    /**
+     * Zwraca symbol wylosowany przez gracza - kod albo literę
+     */
+    public synchronized String getSymbol(int playerId) {
+        String code = codeOf(playerId);
+        return code != null ? code : String.valueOf(letters[playerId]);
+    }
+    
+    public synchronized int getCurrentTurnIndex() {
+        return currentTurnIndex;
+    }
+    
+    /**
+     * Zwraca imię gracza, którego jest teraz tura (null gdy wszyscy już wylosowali)
+     */
+    public synchronized String getCurrentPlayer() {
+        return currentTurnIndex < names.size() ? names.get(currentTurnIndex) : null;
+    }
+    
+    /**
+     * Sprawdza czy wszyscy gracze już wylosowali
+     */
+    public synchronized boolean isFinished() {
+        return currentTurnIndex >= names.size();
+    }
+    
+    // === KLASY WEWNĘTRZNE DO PRZECHOWYWANIA DANYCH ===
+    
+    /**
+     * Klasa reprezentująca ograniczenie - parę osób które nie mogą być razem
+     */
+    static class Restriction {
+        String person1, person2; // Dwie osoby w ograniczeniu
+        
+        Restriction(String person1, String person2) {
+            this.person1 = person1;
+            this.person2 = person2;
+        }
+    }
+    
+    /**
+     * Klasa reprezentująca grupę ograniczeń - nazwę i liczbę członków
+     */
+    static class Group {
+        final String name;    // Nazwa grupy (np. "Rodzina Kowalskich")
+        final int size;       // Liczba członków
+        
+        Group(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+    }
+    
+    /**
+     * Klasa reprezentująca wynik losowania jednego gracza
+     */
+    static class PlayerResult {
+        String name;    // Imię gracza
+        char letter;    // Wylosowana litera (w trybie kodów - pierwsza litera kodu)
+        String code;    // Wylosowany kod wieloznakowy (null poza trybem kodów)
+        
+        PlayerResult(String name, char letter) {
+            this(name, letter, null);
+        }
+        
+        PlayerResult(String name, char letter, String code) {
+            this.name = name;
+            this.letter = letter;
+            this.code = code;
+        }
+        
+        /**
+         * Zwraca wylosowany symbol do wyświetlenia - kod albo literę
+         */
+        String symbol() {
+            return code != null ? code : String.valueOf(letter);
+        }
+    }
+    
+    /**
+     * Klasa reprezentująca finalny przydział - kto kogo wylosował z jaką literą
+     */
+    static class Assignment {
+        String drawer;  // Kto losuje
+        String target;  // Kogo wylosował
+        char letter;    // Z jaką literą
+        String code;    // Z jakim kodem (null poza trybem kodów)
+        
+        Assignment(String drawer, String target, char letter) {
+            this(drawer, target, letter, null);
+        }
+        
+        Assignment(String drawer, String target, char letter, String code) {
+            this.drawer = drawer;
+            this.target = target;
+            this.letter = letter;
+            this.code = code;
+        }
+        
+        /**
+         * Zwraca wylosowany symbol do wyświetlenia - kod albo literę
+         */
+        String symbol() {
+            return code != null ? code : String.valueOf(letter);
+        }
+    }
+}
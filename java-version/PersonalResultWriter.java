@@ -0,0 +1,227 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Osobne pliki z wynikiem dla każdego losującego - każdy widzi tylko swój cel i literę,
+ * zamiast wspólnego raportu ze wszystkimi parami.
+ *
+ * Pliki powstają równolegle na ograniczonej puli wątków: uczestnicy dzieleni są na paczki,
+ * a kolejka zadań ma stałą pojemność (gdy jest pełna, paczkę wykonuje wątek zlecający), więc
+ * pamięć nie rośnie z liczbą uczestników. Pliki zapisywane są przez kanały NIO.
+ * W trybie ZIP paczki przygotowywane są równolegle, a jeden wątek dopisuje je do archiwum
+ * strumieniowo, w kolejności uczestników.
+ */
+public final class PersonalResultWriter {
+    // Liczba uczestników w jednej paczce zadania
+    private static final int BATCH_SIZE = 256;
+    // Maksymalna liczba wątków zapisu
+    private static final int MAX_THREADS = 8;
+    
+    private PersonalResultWriter() {
+    }
+    
+    /**
+     * Zapisuje plik wyniku każdego losującego w podanym katalogu
+     * @throws CancellationException gdy zapis został anulowany
+     */
+    public static void writeFiles(GameSnapshot game, Path directory, Progress progress) throws IOException {
+        Files.createDirectories(directory);
+        int batches = batchCount(game);
+        ThreadPoolExecutor executor = newExecutor();
+        List<Future<Integer>> pending = new ArrayList<>();
+        try {
+            for (int batch = 0; batch < batches; batch++) {
+                checkCancelled(progress);
+                int from = batch * BATCH_SIZE;
+                pending.add(executor.submit(() -> writeBatch(game, directory, from)));
+            }
+            long done = 0;
+            for (Future<Integer> future : pending) {
+                checkCancelled(progress);
+                done += await(future);
+                progress.update(done, game.getAssignedCount());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Zapisuje pliki wyników wszystkich losujących do jednego archiwum ZIP
+     * @throws CancellationException gdy zapis został anulowany
+     */
+    public static void writeZip(GameSnapshot game, Path zipFile, Progress progress) throws IOException {
+        Path temp = zipFile.resolveSibling(zipFile.getFileName() + ".part");
+        int batches = batchCount(game);
+        ThreadPoolExecutor executor = newExecutor();
+        boolean done = false;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024))) {
+            
+            // Paczki przygotowywane z wyprzedzeniem, ale najwyżej kilka naraz
+            ArrayDeque<Future<List<Entry>>> inFlight = new ArrayDeque<>();
+            int nextBatch = 0;
+            long written = 0;
+            while (nextBatch < batches || !inFlight.isEmpty()) {
+                while (nextBatch < batches && inFlight.size() < executor.getMaximumPoolSize() * 2) {
+                    int from = nextBatch++ * BATCH_SIZE;
+                    inFlight.add(executor.submit(() -> renderBatch(game, from)));
+                }
+                checkCancelled(progress);
+                for (Entry entry : await(inFlight.poll())) {
+                    zip.putNextEntry(new ZipEntry(entry.fileName));
+                    zip.write(entry.content);
+                    zip.closeEntry();
+                    written++;
+                }
+                progress.update(written, game.getAssignedCount());
+            }
+            zip.finish();
+            done = true;
+        } finally {
+            executor.shutdownNow();
+            if (!done) Files.deleteIfExists(temp);
+        }
+        Files.move(temp, zipFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    // === PACZKI UCZESTNIKÓW ===
+    
+    /**
+     * Plik wyniku jednego losującego
+     */
+    private static final class Entry {
+        final String fileName;
+        final byte[] content;
+        
+        Entry(String fileName, byte[] content) {
+            this.fileName = fileName;
+            this.content = content;
+        }
+    }
+    
+    /**
+     * Zapisuje pliki paczki uczestników od podanego identyfikatora
+     * @return liczba zapisanych plików
+     */
+    private static int writeBatch(GameSnapshot game, Path directory, int from) throws IOException {
+        int written = 0;
+        for (Entry entry : renderBatch(game, from)) {
+            try (FileChannel channel = FileChannel.open(directory.resolve(entry.fileName), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(entry.content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            written++;
+        }
+        return written;
+    }
+    
+    /**
+     * Przygotowuje treść plików dla paczki uczestników (tylko losujący z przydziałem)
+     */
+    private static List<Entry> renderBatch(GameSnapshot game, int from) {
+        int to = Math.min(from + BATCH_SIZE, game.getPlayerCount());
+        List<Entry> entries = new ArrayList<>(to - from);
+        StringBuilder text = new StringBuilder(256);
+        for (int drawer = from; drawer < to; drawer++) {
+            int target = game.getTargetId(drawer);
+            if (target < 0) continue;
+            
+            text.setLength(0);
+            text.append("🎁 RANDOMIZER - TWÓJ WYNIK\n");
+            text.append("=".repeat(40)).append('\n');
+            text.append("👤 Losujący: ").append(game.getName(drawer)).append('\n');
+            text.append("🎯 Wylosowana osoba: ").append(game.getName(target)).append('\n');
+            text.append("🔤 Twoja litera: ").append(game.getSymbol(drawer)).append('\n');
+            text.append("=".repeat(40)).append('\n');
+            text.append("🤫 Zachowaj wynik dla siebie!\n");
+            entries.add(new Entry(fileName(drawer, game.getName(drawer), game.getPlayerCount()),
+                text.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        return entries;
+    }
+    
+    /**
+     * Nazwa pliku: numer uczestnika (unikalny) i imię zapisane znakami ASCII (bez polskich znaków),
+     * żeby plik dało się otworzyć na każdym systemie plików i w każdym programie do ZIP
+     */
+    static String fileName(int playerId, String name, int playerCount) {
+        int width = String.valueOf(Math.max(1, playerCount)).length();
+        StringBuilder file = new StringBuilder(width + name.length() + 5);
+        String number = String.valueOf(playerId + 1);
+        for (int i = number.length(); i < width; i++) file.append('0');
+        file.append(number).append('-');
+        String plain = Normalizer.normalize(name.replace('ł', 'l').replace('Ł', 'L'), Normalizer.Form.NFD);
+        for (int i = 0, length = 0; i < plain.length() && length < 64; i++) {
+            char c = plain.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-';
+            file.append(safe ? c : '_');
+            length++;
+        }
+        return file.append(".txt").toString();
+    }
+    
+    // === POMOCNICZE ===
+    
+    private static int batchCount(GameSnapshot game) {
+        return (game.getPlayerCount() + BATCH_SIZE - 1) / BATCH_SIZE;
+    }
+    
+    /**
+     * Pula wątków o stałej wielkości z ograniczoną kolejką zadań
+     */
+    private static ThreadPoolExecutor newExecutor() {
+        int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    private static void checkCancelled(Progress progress) {
+        if (progress.isCancelled()) {
+            throw new CancellationException("Zapis wyników został anulowany.");
+        }
+    }
+    
+    /**
+     * Czeka na wynik zadania, przekazując dalej jego błąd wejścia-wyjścia
+     */
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Zapis wyników został przerwany.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * Odbiorca postępu długiej operacji (wyznaczania przydziałów, eksportu, odtwarzania dziennika);
+ * może też zażądać przerwania.
+ *
+ * Wspólny dla silnika, solwerów i zapisu wyników - rdzeń losowania nie zależy od klas eksportu.
+ */
+public interface Progress {
+    /**
+     * Zgłasza postęp: wykonano done z total kroków
+     */
+    void update(long done, long total);
+    
+    /**
+     * Czy zażądano przerwania operacji (sprawdzane co pewną liczbę kroków)
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
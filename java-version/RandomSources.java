@@ -0,0 +1,86 @@
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Źródła losowości dla silnika gry. Wszystkie decyzje losowe jednej gry (litery, kody,
+ * kolejność w solwerze, cele w turach) przechodzą przez jeden RandomGenerator:
+ * - seeded: powtarzalne losowanie - ten sam seed i te same dane dają te same wyniki,
+ * - unseeded: zwykłe losowanie z nieprzewidywalnym seedem,
+ * - secure: losowanie audytowalne z SecureRandom, pobierane paczkami bajtów.
+ * Generatory splittable można rozdzielić na niezależne strumienie dla równoległych
+ * wątków (split), bez współdzielenia stanu seeda.
+ */
+public final class RandomSources {
+    // Rozmiar paczki bajtów pobieranej jednorazowo z SecureRandom
+    private static final int SECURE_BATCH_BYTES = 4096;
+    
+    private RandomSources() {
+    }
+    
+    /**
+     * Generator z podanym seedem (powtarzalny, dający się rozdzielać)
+     */
+    public static RandomGenerator seeded(long seed) {
+        return new SplittableRandom(seed);
+    }
+    
+    /**
+     * Generator z losowym seedem (dający się rozdzielać)
+     */
+    public static RandomGenerator unseeded() {
+        return new SplittableRandom();
+    }
+    
+    /**
+     * Generator kryptograficzny - bajty z SecureRandom pobierane paczkami
+     */
+    public static RandomGenerator secure() {
+        return new BatchedSecureRandom(new SecureRandom());
+    }
+    
+    /**
+     * Zwraca niezależny strumień losowości dla równoległego wątku
+     * Generator splittable jest rozdzielany (wynik zależy tylko od jego stanu, więc przy
+     * seedzie jest powtarzalny), kryptograficzny dostaje własny SecureRandom, a każdy inny
+     * - nowy generator z seedem pobranym z niego samego.
+     */
+    public static RandomGenerator split(RandomGenerator source) {
+        if (source instanceof RandomGenerator.SplittableGenerator splittable) {
+            return splittable.split();
+        }
+        if (source instanceof BatchedSecureRandom) {
+            return secure();
+        }
+        return new SplittableRandom(source.nextLong());
+    }
+    
+    /**
+     * SecureRandom z buforem: zamiast wywołania nextBytes dla każdej liczby, bajty pobierane
+     * są paczkami, a kolejne wartości long odczytywane z bufora. Wszystkie pozostałe metody
+     * (nextInt z zakresem itd.) RandomGenerator wyprowadza bez obciążenia z nextLong.
+     */
+    static final class BatchedSecureRandom implements RandomGenerator {
+        private final SecureRandom secure;
+        private final byte[] buffer = new byte[SECURE_BATCH_BYTES];
+        // Pozycja następnego nieużytego bajtu w buforze
+        private int position = SECURE_BATCH_BYTES;
+        
+        BatchedSecureRandom(SecureRandom secure) {
+            this.secure = secure;
+        }
+        
+        @Override
+        public long nextLong() {
+            if (position + Long.BYTES > buffer.length) {
+                secure.nextBytes(buffer);
+                position = 0;
+            }
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+    }
+}
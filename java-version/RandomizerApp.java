@@ -1,7 +1,5 @@
 import javax.swing.*;
 import java.awt.*;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -22,44 +20,78 @@ public class RandomizerApp extends JFrame {
     private static final Color CARD_COLOR = Color.WHITE;                     // Biały
     private static final Color TEXT_COLOR = Color.BLACK;                     // Wszystkie teksty czarne
     private static final Color BORDER_COLOR = new Color(222, 226, 230);      // Jasny szary
-
+    
     // === KOMPONENTY INTERFEJSU UŻYTKOWNIKA ===
     
     // Pole tekstowe do wpisywania nazw uczestników
     private JTextArea nameListArea;
-    // Panel wyświetlający załadowane nazwy jako kolorowe etykiety
-    private JPanel nameDisplayPanel;
-    // Listy rozwijane do wyboru osób dla ograniczeń
-    private JComboBox<String> person1Select, person2Select;
+    // Model i lista wyświetlająca załadowane nazwy jako kolorowe karty
+    private DefaultListModel<String> namesModel;
+    private JList<String> namesList;
+    // Pola wyboru osób dla ograniczeń (z podpowiedziami podczas pisania) i ich wspólny indeks nazw
+    private NamePicker person1Select, person2Select;
+    private NamePrefixIndex pickerIndex = NamePrefixIndex.EMPTY;
     // Model i lista do wyświetlania ograniczeń par
-    private DefaultListModel<String> restrictionsModel;
+    private RestrictionListModel restrictionsModel;
     private JList<String> restrictionsList;
+    // Model i lista do wyświetlania grup ograniczeń
+    private DefaultListModel<String> groupsModel;
+    private JList<String> groupsList;
     // Etykiety pokazujące status gry
     private JLabel gameStatusLabel, currentTurnLabel;
     // Przyciski głównych funkcji aplikacji
-    private JButton loadNamesBtn, addRestrictionBtn, beginRollingBtn, downloadResultsBtn;
+    private JButton loadNamesBtn, importNamesBtn, addRestrictionBtn, addGroupBtn, beginRollingBtn, downloadResultsBtn, personalResultsBtn;
+    // Przycisk szybkiego losowania (wiele tur naraz, bez okna losowania)
+    private JButton fastRollingBtn;
+    // Przyciski zapisu i wczytania sesji gry
+    private JButton saveSessionBtn, loadSessionBtn;
+    // Przycisk przerwania obliczenia w tle (widoczny tylko w jego trakcie)
+    private JButton cancelTaskBtn;
+    // Okno losowania - jedno dla wszystkich tur (tworzone przy pierwszym losowaniu)
+    private RollingDialog rollingDialog;
     // Panel wyświetlający finalne wyniki losowania
     private JPanel pairResultsPanel;
+    // Lista wyników rysowana rendererem - tylko widoczne wiersze są układane i malowane
+    private AssignmentListModel resultsModel;
+    private JList<Integer> resultsList;
     
     // === NOWE: POLE DO WYKLUCZONYCH LITER ===
     private JTextArea excludedLettersArea;
+    // Wybór alfabetu, z którego losowane są litery
+    private JComboBox<String> alphabetSelect;
+    // Równomierny rozkład liter, gdy graczy jest więcej niż liter
+    private JCheckBox balancedLettersCheck;
+    // Tryb unikalnych kodów wieloznakowych zamiast liter
+    private JCheckBox codeModeCheck;
     
     // === DANE APLIKACJI ===
     
-    // Lista wszystkich uczestników gry
-    private List<String> names = new ArrayList<>();
-    // Lista ograniczeń - pary które nie mogą być ze sobą dopasowane
-    private List<Restriction> restrictions = new ArrayList<>();
-    // Indeks aktualnie losującego gracza
-    private int currentTurnIndex = 0;
-    // Lista wyników każdego gracza (imię + wylosowana litera)
-    private List<PlayerResult> playerResults = new ArrayList<>();
-    // Lista finalnych przydziałów (kto kogo wylosował z jaką literą)
-    private List<Assignment> finalPairs = new ArrayList<>();
-    // === NOWE: ZBIÓR WYKLUCZONYCH LITER ===
-    private Set<Character> excludedLetters = new HashSet<>();
-    // === NOWE: PULA DOSTĘPNYCH CELÓW DO PRZYDZIAŁÓW NA BIEŻĄCO ===
-    private List<String> availableTargetsPool = new ArrayList<>();
+    // Silnik gry - przechowuje uczestników, ograniczenia, wyniki i przydziały
+    private final PairingEngine engine = new PairingEngine();
+    
+    // Katalog dziennika losowań (punkt kontrolny gry i zapis każdego losowania)
+    private static final java.nio.file.Path JOURNAL_DIR =
+        java.nio.file.Paths.get(System.getProperty("user.home"), ".randomizer", "dziennik");
+    // Jak długo zamykanie okna czeka na zaległy punkt kontrolny dziennika
+    private static final long JOURNAL_CLOSE_TIMEOUT_SECONDS = 10;
+    // Blokada katalogu dziennika na wyłączność tego okna (null = katalog zajęty lub jeszcze nie zajęty)
+    private volatile java.nio.channels.FileChannel journalLock;
+    // Dziennik bieżącej gry (null gdy nie działa); otwierany przez wątek punktów kontrolnych
+    private volatile RollJournal journal;
+    // Wątek zapisu punktów kontrolnych dziennika - plik sesji i fsync poza wątkiem Swinga
+    private final java.util.concurrent.ExecutorService journalWriter =
+        java.util.concurrent.Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "journal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    // Czy punkt kontrolny czeka już na zapis (kolejne żądania łączą się z nim w jeden)
+    private final java.util.concurrent.atomic.AtomicBoolean checkpointPending =
+        new java.util.concurrent.atomic.AtomicBoolean();
+    // Czy pokazano już ostrzeżenie o niedziałającym dzienniku
+    private boolean journalWarningShown = false;
+    // Żądanie przerwania bieżącego obliczenia w tle (null gdy żadne nie trwa)
+    private java.util.concurrent.atomic.AtomicBoolean taskCancel;
     
     /**
      * Konstruktor - inicjalizuje główne okno aplikacji
@@ -100,6 +132,16 @@ public class RandomizerApp extends JFrame {
         } catch (Exception e) {
             // Ignoruj błędy z ikoną
         }
+        
+        // === DZIENNIK LOSOWAŃ ===
+        // Przy zamknięciu okna dziennik jest utrwalany, a po starcie przywracana jest przerwana gra
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                closeJournal();
+            }
+        });
+        SwingUtilities.invokeLater(this::recoverInterruptedGame);
     }
     
     /**
@@ -126,7 +168,7 @@ public class RandomizerApp extends JFrame {
         g2d.dispose();
         return icon;
     }
-
+    
     /**
      * Inicjalizuje wszystkie komponenty interfejsu użytkownika z nowoczesnym stylem
      */
@@ -155,26 +197,58 @@ public class RandomizerApp extends JFrame {
             BorderFactory.createEmptyBorder(10, 10, 10, 10)
         ));
         
-        nameDisplayPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
-        nameDisplayPanel.setBackground(CARD_COLOR);
-        nameDisplayPanel.setBorder(BorderFactory.createCompoundBorder(
+        alphabetSelect = new JComboBox<>(new String[] {"Łaciński (A–Z)", "Polski (A–Ż)"});
+        styleComboBox(alphabetSelect);
+        
+        balancedLettersCheck = new JCheckBox("Równomierny rozkład liter (gdy graczy jest więcej niż liter)");
+        balancedLettersCheck.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        balancedLettersCheck.setBackground(CARD_COLOR);
+        balancedLettersCheck.setForeground(TEXT_COLOR);
+        
+        codeModeCheck = new JCheckBox("Unikalne kody (np. AQ, KZB) zamiast liter");
+        codeModeCheck.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        codeModeCheck.setBackground(CARD_COLOR);
+        codeModeCheck.setForeground(TEXT_COLOR);
+        
+        // Karty nazw stemplowane rendererem (stały rozmiar, zawijanie wierszami)
+        namesModel = new DefaultListModel<>();
+        namesList = new JList<>(namesModel);
+        namesList.setCellRenderer(new NameChipRenderer());
+        namesList.setLayoutOrientation(JList.HORIZONTAL_WRAP);
+        namesList.setVisibleRowCount(-1);
+        namesList.setFixedCellWidth(NameChipRenderer.CHIP_WIDTH);
+        namesList.setFixedCellHeight(NameChipRenderer.CHIP_HEIGHT);
+        namesList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        namesList.setBackground(CARD_COLOR);
+        namesList.setBorder(BorderFactory.createCompoundBorder(
             BorderFactory.createLineBorder(BORDER_COLOR, 1),
-            BorderFactory.createEmptyBorder(20, 20, 20, 20)
+            BorderFactory.createEmptyBorder(15, 15, 15, 15)
         ));
         
         loadNamesBtn = createStyledButton("Załaduj Nazwy", PRIMARY_COLOR, Color.WHITE);
+        importNamesBtn = createStyledButton("Importuj z Pliku", PRIMARY_COLOR, Color.WHITE);
         
         // === SEKCJA OGRANICZEŃ ===
-        person1Select = new JComboBox<>();
-        person2Select = new JComboBox<>();
-        styleComboBox(person1Select);
-        styleComboBox(person2Select);
+        person1Select = new NamePicker("Wpisz Osobę 1...");
+        person2Select = new NamePicker("Wpisz Osobę 2...");
+        styleNamePicker(person1Select);
+        styleNamePicker(person2Select);
         
         addRestrictionBtn = createStyledButton("Dodaj Ograniczenie", SECONDARY_COLOR, Color.WHITE);
+        addGroupBtn = createStyledButton("Dodaj Grupę", WARNING_COLOR, Color.BLACK);
         
-        restrictionsModel = new DefaultListModel<>();
+        restrictionsModel = new RestrictionListModel(namesModel);
         restrictionsList = new JList<>(restrictionsModel);
         styleList(restrictionsList);
+        // Stały rozmiar wiersza - zmiana jednego ograniczenia nie mierzy ponownie całej listy
+        restrictionsList.setPrototypeCellValue("Bartłomiej Przykładowy ↔ Bartłomiej Przykładowy");
+        
+        // Widoki nanoszą tylko zmiany zgłaszane przez silnik
+        engine.addRosterListener(new RosterViewUpdater());
+        
+        groupsModel = new DefaultListModel<>();
+        groupsList = new JList<>(groupsModel);
+        styleList(groupsList);
         
         // === SEKCJA STATUS GRY ===
         gameStatusLabel = new JLabel("Załaduj nazwy aby rozpocząć grę");
@@ -186,14 +260,31 @@ public class RandomizerApp extends JFrame {
         beginRollingBtn = createStyledButton("Rozpocznij Losowanie", ACCENT_COLOR, Color.WHITE);
         beginRollingBtn.setEnabled(false);
         
+        fastRollingBtn = createStyledButton("Szybkie Losowanie", PRIMARY_COLOR, Color.WHITE);
+        fastRollingBtn.setEnabled(false);
+        
+        cancelTaskBtn = createStyledButton("Anuluj", WARNING_COLOR, Color.BLACK);
+        cancelTaskBtn.setVisible(false);
+        
         // === SEKCJA WYNIKÓW ===
-        pairResultsPanel = new JPanel();
-        pairResultsPanel.setLayout(new BoxLayout(pairResultsPanel, BoxLayout.Y_AXIS));
+        pairResultsPanel = new JPanel(new BorderLayout());
         pairResultsPanel.setBackground(BACKGROUND_COLOR);
         pairResultsPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         
-        downloadResultsBtn = createStyledButton("Pobierz Wyniki (TXT)", SECONDARY_COLOR, Color.WHITE);
+        resultsModel = new AssignmentListModel();
+        resultsList = new JList<>(resultsModel);
+        resultsList.setCellRenderer(new AssignmentCardRenderer(resultsModel));
+        // Stały rozmiar wiersza - lista nie mierzy wszystkich elementów (szerokość i tak dopasowuje się do okna)
+        resultsList.setFixedCellHeight(AssignmentCardRenderer.CARD_HEIGHT + AssignmentCardRenderer.CARD_GAP);
+        resultsList.setFixedCellWidth(300);
+        resultsList.setBackground(BACKGROUND_COLOR);
+        resultsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        
+        downloadResultsBtn = createStyledButton("Pobierz Wyniki (TXT/CSV/JSONL)", SECONDARY_COLOR, Color.WHITE);
         downloadResultsBtn.setEnabled(false);
+        
+        personalResultsBtn = createStyledButton("Wyniki Osobiste (plik na osobę)", PRIMARY_COLOR, Color.WHITE);
+        personalResultsBtn.setEnabled(false);
     }
     
     /**
@@ -303,6 +394,21 @@ public class RandomizerApp extends JFrame {
         comboBox.setPreferredSize(new Dimension(200, 40));
     }
     
+    /**
+     * Stylizuje pole wyboru osoby (wygląd jak lista rozwijalna)
+     */
+    private void styleNamePicker(NamePicker picker) {
+        picker.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        picker.setBackground(CARD_COLOR);
+        picker.setForeground(TEXT_COLOR);
+        picker.setCaretColor(PRIMARY_COLOR);
+        picker.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(BORDER_COLOR, 1),
+            BorderFactory.createEmptyBorder(8, 12, 8, 12)
+        ));
+        picker.setPreferredSize(new Dimension(200, 40));
+    }
+    
     /**
      * Stylizuje listę
      */
@@ -335,7 +441,7 @@ public class RandomizerApp extends JFrame {
         ));
         return panel;
     }
-
+    
     /**
      * Tworzy układ interfejsu użytkownika z panelem nawigacyjnym po lewej i zawartością po prawej
      */
@@ -402,9 +508,36 @@ public class RandomizerApp extends JFrame {
         // Wypełnienie pozostałego miejsca
         navPanel.add(Box.createVerticalGlue());
         
+        // === SESJA GRY ===
+        saveSessionBtn = createSessionButton("💾 Zapisz Sesję");
+        saveSessionBtn.addActionListener(e -> saveSession());
+        navPanel.add(saveSessionBtn);
+        navPanel.add(Box.createVerticalStrut(5));
+        loadSessionBtn = createSessionButton("📂 Wczytaj Sesję");
+        loadSessionBtn.addActionListener(e -> loadSession());
+        navPanel.add(loadSessionBtn);
+        
         return navPanel;
     }
     
+    /**
+     * Tworzy przycisk sesji w stylu panelu nawigacyjnego
+     */
+    private JButton createSessionButton(String text) {
+        JButton button = new JButton(text);
+        button.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        button.setForeground(Color.WHITE);
+        button.setBackground(new Color(50, 53, 55));
+        button.setBorder(BorderFactory.createEmptyBorder(12, 15, 12, 15));
+        button.setFocusPainted(false);
+        button.setHorizontalAlignment(SwingConstants.LEFT);
+        button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        button.setMaximumSize(new Dimension(170, 45));
+        button.setPreferredSize(new Dimension(170, 45));
+        button.setAlignmentX(Component.LEFT_ALIGNMENT);
+        return button;
+    }
+    
     /**
      * Tworzy przycisk nawigacyjny
      */
@@ -548,19 +681,30 @@ public class RandomizerApp extends JFrame {
         excludedLettersScroll.setBorder(null);
         inputPanel.add(excludedLettersScroll, BorderLayout.CENTER);
         
+        JPanel alphabetPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        alphabetPanel.setBackground(CARD_COLOR);
+        JLabel alphabetLabel = new JLabel("Alfabet losowanych liter:");
+        styleLabel(alphabetLabel, new Font("Segoe UI", Font.BOLD, 13), TEXT_COLOR);
+        alphabetPanel.add(alphabetLabel);
+        alphabetPanel.add(alphabetSelect);
+        alphabetPanel.add(balancedLettersCheck);
+        alphabetPanel.add(codeModeCheck);
+        inputPanel.add(alphabetPanel, BorderLayout.SOUTH);
+        
         topPanel.add(inputPanel, BorderLayout.CENTER);
         
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         buttonPanel.setBackground(CARD_COLOR);
         buttonPanel.add(loadNamesBtn);
+        buttonPanel.add(importNamesBtn);
         topPanel.add(buttonPanel, BorderLayout.SOUTH);
         
         card.add(topPanel, BorderLayout.NORTH);
         
-        JScrollPane nameDisplayScroll = new JScrollPane(nameDisplayPanel);
+        JScrollPane nameDisplayScroll = new JScrollPane(namesList);
         nameDisplayScroll.setBorder(BorderFactory.createTitledBorder(
             BorderFactory.createLineBorder(SECONDARY_COLOR, 2),
-            "Załadowani uczestnicy",
+            "Załadowani uczestnicy (Kliknij dwukrotnie aby zmienić nazwę, prawy przycisk - więcej opcji)",
             0, 0, new Font("Segoe UI", Font.BOLD, 12), SECONDARY_COLOR
         ));
         nameDisplayScroll.setBackground(CARD_COLOR);
@@ -601,6 +745,7 @@ public class RandomizerApp extends JFrame {
         restrictionsControlPanel.add(person2Label);
         restrictionsControlPanel.add(person2Select);
         restrictionsControlPanel.add(addRestrictionBtn);
+        restrictionsControlPanel.add(addGroupBtn);
         
         JScrollPane restrictionsScroll = new JScrollPane(restrictionsList);
         restrictionsScroll.setBorder(BorderFactory.createTitledBorder(
@@ -610,9 +755,22 @@ public class RandomizerApp extends JFrame {
         ));
         restrictionsScroll.setPreferredSize(new Dimension(0, 200));
         
+        JScrollPane groupsScroll = new JScrollPane(groupsList);
+        groupsScroll.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(WARNING_COLOR, 2),
+            "Grupy - członkowie nie losują siebie nawzajem (Kliknij dwukrotnie aby usunąć)",
+            0, 0, new Font("Segoe UI", Font.BOLD, 12), TEXT_COLOR
+        ));
+        groupsScroll.setPreferredSize(new Dimension(0, 200));
+        
+        JPanel listsPanel = new JPanel(new GridLayout(1, 2, 15, 0));
+        listsPanel.setBackground(CARD_COLOR);
+        listsPanel.add(restrictionsScroll);
+        listsPanel.add(groupsScroll);
+        
         card.add(restrictionsTitle, BorderLayout.NORTH);
         card.add(restrictionsControlPanel, BorderLayout.CENTER);
-        card.add(restrictionsScroll, BorderLayout.SOUTH);
+        card.add(listsPanel, BorderLayout.SOUTH);
         
         return card;
     }
@@ -636,6 +794,8 @@ public class RandomizerApp extends JFrame {
         JPanel rollingButtonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         rollingButtonPanel.setBackground(CARD_COLOR);
         rollingButtonPanel.add(beginRollingBtn);
+        rollingButtonPanel.add(fastRollingBtn);
+        rollingButtonPanel.add(cancelTaskBtn);
         statusCard.add(rollingButtonPanel, BorderLayout.SOUTH);
         
         card.add(statusCard, BorderLayout.CENTER);
@@ -649,7 +809,8 @@ public class RandomizerApp extends JFrame {
     private JPanel createResultsCard() {
         JPanel card = createCardPanel();
         
-        JScrollPane resultsScroll = new JScrollPane(pairResultsPanel);
+        JPanel resultsScroll = new JPanel(new BorderLayout());
+        resultsScroll.add(pairResultsPanel, BorderLayout.CENTER);
         resultsScroll.setBorder(BorderFactory.createTitledBorder(
             BorderFactory.createLineBorder(SECONDARY_COLOR, 2),
             "Finalne wyniki",
@@ -660,6 +821,7 @@ public class RandomizerApp extends JFrame {
         downloadPanel.setBackground(CARD_COLOR);
         downloadPanel.setBorder(BorderFactory.createEmptyBorder(25, 0, 0, 0));
         downloadPanel.add(downloadResultsBtn);
+        downloadPanel.add(personalResultsBtn);
         
         card.add(resultsScroll, BorderLayout.CENTER);
         card.add(downloadPanel, BorderLayout.SOUTH);
@@ -674,27 +836,111 @@ public class RandomizerApp extends JFrame {
         // Przycisk załadowania nazw
         loadNamesBtn.addActionListener(e -> loadNames());
         
+        // Przycisk importu nazw z pliku
+        importNamesBtn.addActionListener(e -> importNames());
+        
         // Przycisk dodania ograniczenia
         addRestrictionBtn.addActionListener(e -> addRestriction());
         
+        // Przycisk dodania grupy ograniczeń
+        addGroupBtn.addActionListener(e -> addGroup());
+        
         // Przycisk rozpoczęcia losowania
         beginRollingBtn.addActionListener(e -> startRolling());
         
+        // Przycisk szybkiego losowania - dostępny zawsze wtedy, gdy zwykłe losowanie
+        fastRollingBtn.addActionListener(e -> fastRolling());
+        beginRollingBtn.addPropertyChangeListener("enabled", e -> fastRollingBtn.setEnabled(beginRollingBtn.isEnabled()));
+        
+        // Przycisk przerwania obliczenia w tle - solwer sprawdza żądanie co kilka tysięcy kroków
+        cancelTaskBtn.addActionListener(e -> {
+            if (taskCancel == null) return;
+            taskCancel.set(true);
+            cancelTaskBtn.setEnabled(false);
+            currentTurnLabel.setText("Przerywanie...");
+        });
+        
         // Przycisk pobierania wyników
         downloadResultsBtn.addActionListener(e -> downloadResults());
         
+        // Przycisk zapisu osobnych plików z wynikami
+        personalResultsBtn.addActionListener(e -> downloadPersonalResults());
+        
         // Dwukrotne kliknięcie na liście ograniczeń - usunięcie ograniczenia
         restrictionsList.addMouseListener(new java.awt.event.MouseAdapter() {
             public void mouseClicked(java.awt.event.MouseEvent evt) {
-                if (evt.getClickCount() == 2) {
+                // Zablokowana lista nadal dostaje zdarzenia myszy
+                if (evt.getClickCount() == 2 && restrictionsList.isEnabled()) {
                     int index = restrictionsList.locationToIndex(evt.getPoint());
                     if (index >= 0) {
-                        restrictions.remove(index);
-                        updateRestrictionsDisplay();
+                        engine.removeRestriction(index);
+                        checkpointJournal();
                     }
                 }
             }
         });
+        
+        // Dwukrotne kliknięcie na liście grup - usunięcie grupy
+        groupsList.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseClicked(java.awt.event.MouseEvent evt) {
+                if (evt.getClickCount() == 2 && groupsList.isEnabled()) {
+                    int index = groupsList.locationToIndex(evt.getPoint());
+                    if (index >= 0) {
+                        engine.removeGroup(engine.getGroups().get(index).name);
+                        checkpointJournal();
+                    }
+                }
+            }
+        });
+        
+        // Edycja pojedynczych uczestników na liście kart
+        JPopupMenu namesMenu = new JPopupMenu();
+        JMenuItem addNameItem = new JMenuItem("Dodaj osobę...");
+        JMenuItem renameItem = new JMenuItem("Zmień nazwę...");
+        JMenuItem removeNameItem = new JMenuItem("Usuń z listy");
+        addNameItem.addActionListener(e -> addName());
+        renameItem.addActionListener(e -> renameName(namesList.getSelectedIndex()));
+        removeNameItem.addActionListener(e -> removeName(namesList.getSelectedIndex()));
+        namesMenu.add(addNameItem);
+        namesMenu.add(renameItem);
+        namesMenu.add(removeNameItem);
+        
+        namesList.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseClicked(java.awt.event.MouseEvent evt) {
+                if (evt.getClickCount() == 2 && SwingUtilities.isLeftMouseButton(evt) && namesList.isEnabled()) {
+                    renameName(namesList.locationToIndex(evt.getPoint()));
+                }
+            }
+            
+            public void mousePressed(java.awt.event.MouseEvent evt) {
+                showNamesMenu(evt);
+            }
+            
+            public void mouseReleased(java.awt.event.MouseEvent evt) {
+                showNamesMenu(evt);
+            }
+            
+            private void showNamesMenu(java.awt.event.MouseEvent evt) {
+                if (!evt.isPopupTrigger() || !namesList.isEnabled()) return;
+                int index = namesList.locationToIndex(evt.getPoint());
+                boolean onName = index >= 0 && namesList.getCellBounds(index, index).contains(evt.getPoint());
+                if (onName) {
+                    namesList.setSelectedIndex(index);
+                } else {
+                    namesList.clearSelection();
+                }
+                renameItem.setEnabled(onName);
+                removeNameItem.setEnabled(onName);
+                namesMenu.show(namesList, evt.getX(), evt.getY());
+            }
+        });
+        namesList.getInputMap().put(KeyStroke.getKeyStroke("DELETE"), "removeName");
+        namesList.getActionMap().put("removeName", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                removeName(namesList.getSelectedIndex());
+            }
+        });
     }
     
     /**
@@ -707,172 +953,308 @@ public class RandomizerApp extends JFrame {
             return;
         }
         
-        // Czyszczenie poprzednich danych
-        names.clear();
+        // Podział tekstu na nazwy (przecinki lub nowe linie) z pominięciem powtórzeń
+        loadRoster("Wczytywanie uczestników...", () -> {
+            List<String> parsed = PairingEngine.parseNames(text);
+            List<String> unique = new ArrayList<>(new LinkedHashSet<>(parsed));
+            return new RosterImporter.Result(unique, parsed.size() - unique.size());
+        });
+    }
+    
+    /**
+     * Importuje nazwy uczestników z pliku (w tle) i przekazuje je bezpośrednio do silnika
+     */
+    private void importNames() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Importuj listę uczestników");
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
         
-        // Podział tekstu na nazwy (przecinki lub nowe linie)
-        String[] splitNames = text.split("[,\\n]");
-        for (String name : splitNames) {
-            String trimmed = name.trim();
-            if (!trimmed.isEmpty()) {
-                names.add(trimmed);
+        java.nio.file.Path path = fileChooser.getSelectedFile().toPath();
+        loadRoster("Importowanie uczestników z pliku...", () -> {
+            try {
+                return RosterImporter.importFile(path);
+            } catch (java.io.IOException e) {
+                throw new java.io.IOException("Błąd podczas importu pliku: " + e.getMessage(), e);
             }
-        }
+        });
+    }
+    
+    /**
+     * Źródło listy uczestników odczytywane w tle (pole tekstowe albo plik)
+     */
+    private interface RosterSource {
+        RosterImporter.Result read() throws Exception;
+    }
+    
+    /**
+     * Wczytuje listę uczestników w tle, ładuje ją do silnika z opcjami liter i rozpoczyna grę
+     * Listy uczestników i ograniczeń odświeża zdarzenie silnika.
+     */
+    private void loadRoster(String status, RosterSource source) {
+        // Opcje liter odczytane z pól przed przejściem do tła
+        Set<Character> excludedLetters = PairingEngine.parseExcludedLetters(excludedLettersArea.getText());
+        String alphabet = alphabetSelect.getSelectedIndex() == 1 ? LetterAllocator.POLISH : LetterAllocator.LATIN;
+        boolean balanced = balancedLettersCheck.isSelected();
+        boolean codes = codeModeCheck.isSelected();
+        
+        runEngineTask(status, progress -> {
+            RosterImporter.Result roster = source.read();
+            if (progress.isCancelled()) {
+                throw new java.util.concurrent.CancellationException("Wczytywanie uczestników zostało anulowane.");
+            }
+            engine.loadNames(roster.names);
+            
+            // === NOWE: PRZETWARZANIE WYKLUCZONYCH LITER ===
+            engine.setExcludedLetters(excludedLetters);
+            engine.setAlphabet(alphabet);
+            engine.setBalancedLetters(balanced);
+            engine.setCodeMode(codes);
+            return roster;
+        }, true, roster -> {
+            if (roster.duplicates > 0) {
+                JOptionPane.showMessageDialog(this, 
+                    "Pominięto powtórzone nazwy: " + roster.duplicates + 
+                    "\nKażdy uczestnik może wystąpić na liście tylko raz.");
+            }
+            
+            // Informacja o wykluczonych literach
+            if (!excludedLetters.isEmpty()) {
+                JOptionPane.showMessageDialog(this, 
+                    "Wykluczone litery: " + excludedLetters.toString() + 
+                    "\nTe litery nie będą losowane.");
+            }
+            gameStarted();
+        }, null);
+    }
+    
+    /**
+     * Dodaje jednego uczestnika na koniec listy (przed rozpoczęciem losowania)
+     */
+    private void addName() {
+        String name = JOptionPane.showInputDialog(this, "Nazwa nowego uczestnika:", "Dodaj osobę", 
+            JOptionPane.PLAIN_MESSAGE);
+        if (name == null) return;
         
-        // Walidacja minimalnej liczby uczestników
-        if (names.size() < 2) {
-            JOptionPane.showMessageDialog(this, "Proszę wprowadzić przynajmniej 2 nazwy.");
+        try {
+            engine.addName(name);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage());
             return;
         }
+        rosterChanged();
+    }
+    
+    /**
+     * Zmienia nazwę uczestnika - jego ograniczenia i grupa pozostają bez zmian
+     */
+    private void renameName(int playerId) {
+        if (playerId < 0) return;
         
-        // === NOWE: PRZETWARZANIE WYKLUCZONYCH LITER ===
-        excludedLetters.clear();
-        String excludedText = excludedLettersArea.getText().trim().toUpperCase();
-        if (!excludedText.isEmpty()) {
-            // Usuń przecinki i spacje, zostaw tylko litery
-            excludedText = excludedText.replaceAll("[^A-ZĄĆĘŁŃÓŚŹŻ]", "");
-            for (char c : excludedText.toCharArray()) {
-                if (Character.isLetter(c)) {
-                    excludedLetters.add(c);
-                }
-            }
-        }
+        Object name = JOptionPane.showInputDialog(this, "Nowa nazwa uczestnika:", "Zmień nazwę", 
+            JOptionPane.PLAIN_MESSAGE, null, null, namesModel.get(playerId));
+        if (name == null) return;
         
-        // Informacja o wykluczonych literach
-        if (!excludedLetters.isEmpty()) {
-            JOptionPane.showMessageDialog(this, 
-                "Wykluczone litery: " + excludedLetters.toString() + 
-                "\nTe litery nie będą losowane.");
+        try {
+            engine.renameName(playerId, name.toString());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage());
+            return;
         }
-        
-        // Reset i aktualizacja interfejsu
-        restrictions.clear();
-        updateNameDisplay();
-        updateSelectOptions();
-        updateRestrictionsDisplay();
-        startGame();
+        checkpointJournal();
     }
     
     /**
-     * Aktualizuje wyświetlanie nazw jako nowoczesne kolorowe karty
+     * Usuwa uczestnika z listy razem z jego ograniczeniami
      */
-    private void updateNameDisplay() {
-        nameDisplayPanel.removeAll();
-        
-        Color[] colors = {
-            SECONDARY_COLOR, PRIMARY_COLOR, ACCENT_COLOR, WARNING_COLOR,
-            new Color(156, 39, 176), new Color(255, 152, 0), new Color(76, 175, 80)
-        };
+    private void removeName(int playerId) {
+        if (playerId < 0) return;
         
-        for (int i = 0; i < names.size(); i++) {
-            String name = names.get(i);
-            JLabel nameLabel = new JLabel(name);
-            
-            Color bgColor = colors[i % colors.length];
-            nameLabel.setOpaque(true);
-            nameLabel.setBackground(bgColor);
-            nameLabel.setForeground(Color.WHITE);
-            nameLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
-            
-            // Nowoczesne obramowanie z zaokrąglonymi rogami (symulacja)
-            nameLabel.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(bgColor.darker(), 1),
-                BorderFactory.createEmptyBorder(10, 15, 10, 15)
-            ));
-            
-            nameDisplayPanel.add(nameLabel);
+        try {
+            engine.removeName(playerId);
+        } catch (IllegalStateException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage());
+            return;
         }
-        
-        nameDisplayPanel.revalidate();
-        nameDisplayPanel.repaint();
+        rosterChanged();
     }
     
     /**
-     * Aktualizuje opcje w listach rozwijanych dla ograniczeń
+     * Po dodaniu lub usunięciu uczestnika - silnik sam rozpoczął już grę od nowa, więc zostaje
+     * tylko zlecenie punktu kontrolnego (zapis w tle) i odświeżenie przycisków
      */
-    private void updateSelectOptions() {
-        // Czyszczenie poprzednich opcji
-        person1Select.removeAllItems();
-        person2Select.removeAllItems();
-        
-        // Dodanie opcji domyślnych
-        person1Select.addItem("Wybierz Osobę 1");
-        person2Select.addItem("Wybierz Osobę 2");
-        
-        // Dodanie wszystkich nazw do list rozwijanych
-        for (String name : names) {
-            person1Select.addItem(name);
-            person2Select.addItem(name);
-        }
+    private void rosterChanged() {
+        checkpointJournal();
+        if (engine.getPlayerCount() >= 2) gameStarted();
     }
     
     /**
      * Dodaje nowe ograniczenie pary (dwie osoby które nie mogą być razem)
      */
     private void addRestriction() {
-        String person1 = (String) person1Select.getSelectedItem();
-        String person2 = (String) person2Select.getSelectedItem();
+        String person1 = person1Select.getSelectedName();
+        String person2 = person2Select.getSelectedName();
         
-        // Walidacja wyboru osób
-        if (person1 == null || person2 == null ||
-            person1.startsWith("Wybierz") || person2.startsWith("Wybierz")) {
+        // Walidacja wyboru osób (tekst musi być nazwą uczestnika)
+        if (person1 == null || person2 == null) {
             JOptionPane.showMessageDialog(this, "Proszę wybrać obie osoby dla ograniczenia.");
             return;
         }
         
-        // Sprawdzenie czy osoba nie jest ograniczona sama ze sobą
-        if (person1.equals(person2)) {
-            JOptionPane.showMessageDialog(this, "Osoba nie może być ograniczona sama ze sobą.");
+        // Dodanie nowego ograniczenia (silnik sprawdza parę z samym sobą i duplikaty w obie strony)
+        try {
+            engine.addRestriction(person1, person2);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage());
             return;
         }
+        checkpointJournal();
         
-        // Sprawdzenie czy ograniczenie już istnieje (w obie strony)
-        boolean exists = restrictions.stream().anyMatch(r ->
-            (r.person1.equals(person1) && r.person2.equals(person2)) ||
-            (r.person1.equals(person2) && r.person2.equals(person1))
-        );
+        // Wyczyszczenie pól wyboru
+        person1Select.clear();
+        person2Select.clear();
+    }
+    
+    /**
+     * Dodaje grupę ograniczeń (np. rodzina, dział) - jej członkowie nie mogą wylosować siebie nawzajem
+     * Zamiast ograniczenia dla każdej pary członków silnik zapisuje tylko numer grupy każdej osoby.
+     */
+    private void addGroup() {
+        JTextField groupNameField = new JTextField(20);
+        JTextArea membersArea = new JTextArea(8, 20);
+        styleTextArea(membersArea);
+        
+        JPanel groupPanel = new JPanel(new BorderLayout(0, 8));
+        JPanel namePanel = new JPanel(new BorderLayout(8, 0));
+        namePanel.add(new JLabel("Nazwa grupy:"), BorderLayout.WEST);
+        namePanel.add(groupNameField, BorderLayout.CENTER);
+        groupPanel.add(namePanel, BorderLayout.NORTH);
+        groupPanel.add(new JLabel("Członkowie (oddzieleni przecinkami lub nowymi liniami):"), BorderLayout.CENTER);
+        groupPanel.add(new JScrollPane(membersArea), BorderLayout.SOUTH);
+        
+        int choice = JOptionPane.showConfirmDialog(this, groupPanel, "Dodaj grupę", 
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) return;
         
-        if (exists) {
-            JOptionPane.showMessageDialog(this, "To ograniczenie już istnieje.");
+        try {
+            engine.addGroup(groupNameField.getText(), PairingEngine.parseNames(membersArea.getText()));
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage());
             return;
         }
+        checkpointJournal();
+    }
+    
+    // === WIDOKI LISTY UCZESTNIKÓW ===
+    
+    /**
+     * Nanosi zmiany uczestników, ograniczeń i grup zgłaszane przez silnik na listy okna
+     * i indeks podpowiedzi - każde zdarzenie zmienia tylko jeden element widoku.
+     * Zdarzenia z innych wątków (np. wczytywanie sesji w tle) przekazywane są do wątku Swinga
+     * w kolejności zgłoszenia; niosą własne dane, więc nie czytają później zmienionego silnika.
+     */
+    private class RosterViewUpdater implements PairingEngine.RosterListener {
+        @Override
+        public void rosterReplaced(List<String> names, long[] restrictions, List<PairingEngine.Group> groups) {
+            // Indeks podpowiedzi budowany w wątku zmiany (przy wczytywaniu - w tle)
+            NamePrefixIndex index = NamePrefixIndex.build(names);
+            onEdt(() -> {
+                restrictionsModel.setPairs(new long[0]);
+                namesModel.clear();
+                namesModel.addAll(names);
+                restrictionsModel.setPairs(restrictions);
+                showGroups(groups);
+                setPickerIndex(index);
+                person1Select.clear();
+                person2Select.clear();
+            });
+        }
         
-        // Dodanie nowego ograniczenia
-        restrictions.add(new Restriction(person1, person2));
-        updateRestrictionsDisplay();
+        @Override
+        public void nameAdded(int playerId, String name) {
+            onEdt(() -> {
+                namesModel.add(playerId, name);
+                setPickerIndex(pickerIndex.withName(name));
+            });
+        }
+        
+        @Override
+        public void nameRemoved(int playerId, String name) {
+            onEdt(() -> {
+                restrictionsModel.nameRemoved(playerId);
+                namesModel.remove(playerId);
+                setPickerIndex(pickerIndex.withoutName(name));
+            });
+        }
+        
+        @Override
+        public void nameChanged(int playerId, String oldName, String newName) {
+            onEdt(() -> {
+                namesModel.set(playerId, newName);
+                restrictionsModel.nameChanged(playerId);
+                setPickerIndex(pickerIndex.withoutName(oldName).withName(newName));
+            });
+        }
+        
+        @Override
+        public void restrictionAdded(int index, long pair) {
+            onEdt(() -> restrictionsModel.add(index, pair));
+        }
         
-        // Reset list rozwijanych
-        person1Select.setSelectedIndex(0);
-        person2Select.setSelectedIndex(0);
+        @Override
+        public void restrictionRemoved(int index) {
+            onEdt(() -> restrictionsModel.remove(index));
+        }
+        
+        @Override
+        public void groupsChanged(List<PairingEngine.Group> groups) {
+            onEdt(() -> showGroups(groups));
+        }
+        
+        private void onEdt(Runnable update) {
+            if (SwingUtilities.isEventDispatchThread()) {
+                update.run();
+            } else {
+                SwingUtilities.invokeLater(update);
+            }
+        }
     }
     
     /**
-     * Aktualizuje wyświetlanie listy ograniczeń
+     * Wyświetla grupy ograniczeń (grup jest niewiele, więc lista jest podmieniana w całości)
      */
-    private void updateRestrictionsDisplay() {
-        restrictionsModel.clear();
-        for (Restriction r : restrictions) {
-            restrictionsModel.addElement(r.person1 + " ↔ " + r.person2);
+    private void showGroups(List<PairingEngine.Group> groups) {
+        groupsModel.clear();
+        for (PairingEngine.Group group : groups) {
+            groupsModel.addElement("🏠 " + group.name + " (" + group.size + " osób)");
         }
     }
     
+    private void setPickerIndex(NamePrefixIndex index) {
+        pickerIndex = index;
+        person1Select.setIndex(index);
+        person2Select.setIndex(index);
+    }
+    
     /**
      * Rozpoczyna nową grę - resetuje wszystkie dane
      */
     private void startGame() {
-        if (names.size() < 2) return;
-        
-        // Reset stanu gry
-        currentTurnIndex = 0;
-        playerResults.clear();
-        finalPairs.clear();
-        // Reset puli dostępnych celów
-        availableTargetsPool.clear();
-        availableTargetsPool.addAll(names);
+        if (engine.getPlayerCount() < 2) return;
         
+        // Reset stanu gry (wyniki, przydziały i pula celów)
+        engine.startGame();
+        checkpointJournal();
+        gameStarted();
+    }
+    
+    /**
+     * Przygotowuje interfejs do losowania nowej gry
+     */
+    private void gameStarted() {
         // Aktywacja przycisku losowania
         beginRollingBtn.setEnabled(true);
         downloadResultsBtn.setEnabled(false);
+        personalResultsBtn.setEnabled(false);
         
         updateGameStatus();
     }
@@ -881,17 +1263,18 @@ public class RandomizerApp extends JFrame {
      * Aktualizuje wyświetlanie statusu gry
      */
     private void updateGameStatus() {
-        if (currentTurnIndex < names.size()) {
+        if (!engine.isFinished()) {
             // Jeszcze nie wszyscy wylosowali
-            gameStatusLabel.setText("Gotowy do rozpoczęcia losowania - " + names.size() + " graczy łącznie");
+            gameStatusLabel.setText("Gotowy do rozpoczęcia losowania - " + engine.getPlayerCount() + " graczy łącznie");
             currentTurnLabel.setText("Kliknij 'Rozpocznij Losowanie' aby rozpocząć losowanie kolejnych tur");
         } else {
             // Wszyscy wylosowali - jeśli pary już przypisane podczas losowania, tylko je pokaż
             gameStatusLabel.setText("Wszyscy gracze wylosowali!");
             currentTurnLabel.setText("");
-            if (finalPairs.size() == names.size()) {
+            if (engine.getAssignedCount() == engine.getPlayerCount()) {
                 displayAssignments();
                 downloadResultsBtn.setEnabled(true);
+                personalResultsBtn.setEnabled(true);
             } else {
                 generatePairsAutomatically();
             }
@@ -902,414 +1285,641 @@ public class RandomizerApp extends JFrame {
      * Rozpoczyna proces losowania - wyłącza przycisk i pokazuje okno modalne
      */
     private void startRolling() {
-        beginRollingBtn.setEnabled(false);
-        showRollingModal();
+        // Przydział pozostałych graczy wyznaczany w tle - losowania w oknie są potem natychmiastowe
+        runEngineTask("Przygotowywanie losowania...", progress -> {
+            engine.prepareRolling(progress);
+            return null;
+        }, false, ignored -> {
+            beginRollingBtn.setEnabled(false);
+            showRollingModal();
+        }, null);
+    }
+    
+    /**
+     * Szybkie losowanie dla dużych wydarzeń: wykonuje tury wszystkich pozostałych graczy
+     * (albo podanej liczby kolejnych) jednym wywołaniem silnika, bez okna losowania.
+     * Obowiązują te same reguły liter i przydziałów, a wyniki od razu trafiają na listę wyników.
+     */
+    private void fastRolling() {
+        int remaining = engine.getPlayerCount() - engine.getCurrentTurnIndex();
+        if (remaining <= 0) {
+            updateGameStatus();
+            return;
+        }
+        
+        JSpinner countSpinner = new JSpinner(new SpinnerNumberModel(remaining, 1, remaining, 1));
+        int option = JOptionPane.showConfirmDialog(this, new Object[] {
+            "Liczba graczy do wylosowania (pozostało " + remaining + ", następny: " + engine.getCurrentPlayer() + "):",
+            countSpinner
+        }, "Szybkie Losowanie", JOptionPane.OK_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (option != JOptionPane.OK_OPTION) return;
+        int count = (Integer) countSpinner.getValue();
+        
+        // Przerwanie zatrzymuje losowanie po ostatniej pełnej turze - wykonane tury zostają
+        runEngineTask("Szybkie losowanie " + count + " graczy...", progress -> engine.rollBatch(count, progress), false, rolled -> {
+            if (journal != null && journal.getFailure() != null) {
+                journalFailed(journal.getFailure());
+            }
+            if (engine.isFinished()) {
+                updateGameStatus();
+                return;
+            }
+            
+            // Część graczy jeszcze nie losowała - tablica wyników z dotychczasowymi przydziałami
+            displayAssignments();
+            beginRollingBtn.setEnabled(true);
+            gameStatusLabel.setText("Szybkie losowanie: " + rolled + " tur - wylosowało " + engine.getCurrentTurnIndex() + 
+                " z " + engine.getPlayerCount() + " graczy");
+            currentTurnLabel.setText("Następny losuje: " + engine.getCurrentPlayer() + 
+                ". Kliknij 'Rozpocznij Losowanie' lub 'Szybkie Losowanie' aby kontynuować");
+        }, null);
     }
     
     /**
      * Pokazuje okno modalne dla aktualnego gracza do losowania litery
      */
     private void showRollingModal() {
-        if (currentTurnIndex >= names.size()) {
+        if (engine.isFinished()) {
             updateGameStatus();
             return;
         }
         
         // Pobranie aktualnego gracza
-        String currentPlayer = names.get(currentTurnIndex);
+        String currentPlayer = engine.getCurrentPlayer();
         
-        // Utworzenie i wyświetlenie okna modalnego
-        RollingDialog dialog = new RollingDialog(this, currentPlayer, currentTurnIndex + 1, names.size());
-        dialog.setVisible(true);
+        // Okno tworzone jest raz i pokazywane ponownie w każdej turze
+        if (rollingDialog == null) {
+            rollingDialog = new RollingDialog(this);
+        }
+        PairingEngine.PlayerResult result = rollingDialog.showTurn(currentPlayer, engine.getCurrentTurnIndex() + 1, engine.getPlayerCount());
         
         // Przetworzenie wyniku losowania
-        if (dialog.getResult() != null) {
-            playerResults.add(dialog.getResult());
-            currentTurnIndex++;
+        if (result != null) {
+            engine.recordPlayerResult(result);
             
             // Przejście do następnego gracza lub zakończenie
             SwingUtilities.invokeLater(() -> {
-                if (currentTurnIndex < names.size()) {
+                if (!engine.isFinished()) {
                     showRollingModal(); // Następny gracz
                 } else {
+                    rollingDialog.dispose();
                     updateGameStatus(); // Wszyscy skończyli
                 }
             });
+        } else {
+            // Okno zamknięte bez losowania - zwolnienie zasobów do następnego otwarcia
+            rollingDialog.dispose();
         }
     }
     
     /**
-     * Generuje losową literę, unikając już użytych liter i wykluczonych liter
-     * @return losowa litera z alfabetu
+     * Generuje finalne przydziały par w silniku i wyświetla je
+     * Jeśli nie wszyscy dostali przydział (zbyt dużo ograniczeń), pokazuje ostrzeżenie
      */
-    private char getRandomLetter() {
-        String allLetters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
-        Set<Character> usedLetters = new HashSet<>();
-        
-        // Zbieranie już użytych liter
-        for (PlayerResult result : playerResults) {
-            usedLetters.add(result.letter);
-        }
-        
-        // === NOWE: DODANIE WYKLUCZONYCH LITER DO UŻYTYCH ===
-        usedLetters.addAll(excludedLetters);
+    private void generatePairsAutomatically() {
+        if (!engine.isFinished()) return;
         
-        // Tworzenie listy dostępnych liter
-        List<Character> availableLetters = new ArrayList<>();
-        for (char c : allLetters.toCharArray()) {
-            if (!usedLetters.contains(c)) {
-                availableLetters.add(c);
+        runEngineTask("Wyznaczanie przydziałów...", engine::generatePairsAutomatically, true, complete -> {
+            gameStatusLabel.setText("Wszyscy gracze wylosowali!");
+            currentTurnLabel.setText("");
+            if (!complete) {
+                JOptionPane.showMessageDialog(this, 
+                    "Uwaga: Nie udało się przydzielić wszystkich par z powodu zbyt wielu ograniczeń. " +
+                    "Niektóre osoby mogą nie mieć przydziału.");
             }
-        }
+            
+            displayAssignments();
+            downloadResultsBtn.setEnabled(true);
+            personalResultsBtn.setEnabled(true);
+        }, () -> {
+            // Przerwane wyznaczanie można powtórzyć przyciskiem losowania
+            gameStatusLabel.setText("Wyznaczanie przydziałów przerwane");
+            currentTurnLabel.setText("Kliknij 'Rozpocznij Losowanie' aby wyznaczyć przydziały ponownie");
+            beginRollingBtn.setEnabled(true);
+        });
+    }
+    
+    /**
+     * Wyświetla finalne przydziały z nowoczesnym stylem kart
+     */
+    private void displayAssignments() {
+        pairResultsPanel.removeAll();
         
-        // Zwracanie losowej dostępnej litery lub dowolnej jeśli wszystkie użyte
-        if (availableLetters.isEmpty()) {
-            // Jeśli wszystkie litery są wykluczone/użyte, wybierz z niewykluczonych
-            List<Character> nonExcludedLetters = new ArrayList<>();
-            for (char c : allLetters.toCharArray()) {
-                if (!excludedLetters.contains(c)) {
-                    nonExcludedLetters.add(c);
-                }
-            }
-            if (!nonExcludedLetters.isEmpty()) {
-                return nonExcludedLetters.get(new Random().nextInt(nonExcludedLetters.size()));
-            }
-            return allLetters.charAt(new Random().nextInt(allLetters.length()));
+        JLabel titleLabel = new JLabel("Wylosowane pary (każda osoba losuje kogoś):");
+        styleLabel(titleLabel, new Font("Segoe UI", Font.BOLD, 18), TEXT_COLOR);
+        titleLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 25, 0));
+        pairResultsPanel.add(titleLabel, BorderLayout.NORTH);
+        
+        if (engine.getAssignedCount() == 0) {
+            resultsModel.clear();
+            JLabel errorLabel = new JLabel("Nie udało się wygenerować przydziałów z obecnymi ograniczeniami.");
+            styleLabel(errorLabel, new Font("Segoe UI", Font.BOLD, 14), ACCENT_COLOR);
+            errorLabel.setVerticalAlignment(SwingConstants.TOP);
+            pairResultsPanel.add(errorLabel, BorderLayout.CENTER);
+        } else {
+            // Karty przydziałów rysowane z migawki tylko dla widocznych wierszy
+            resultsModel.setGame(engine.snapshot());
+            JScrollPane listScroll = new JScrollPane(resultsList);
+            listScroll.setBorder(null);
+            listScroll.getVerticalScrollBar().setUnitIncrement(AssignmentCardRenderer.CARD_HEIGHT / 2);
+            pairResultsPanel.add(listScroll, BorderLayout.CENTER);
         }
         
-        return availableLetters.get(new Random().nextInt(availableLetters.size()));
+        pairResultsPanel.revalidate();
+        pairResultsPanel.repaint();
     }
     
     /**
-     * Sprawdza czy dana para jest ograniczona (nie może być razem)
-     * @param name1 pierwsza osoba
-     * @param name2 druga osoba
-     * @return true jeśli para jest ograniczona
+     * Eksportuje wyniki do pliku w tle (TXT, CSV lub JSON Lines) z paskiem postępu i anulowaniem
      */
-    private boolean isRestrictedPair(String name1, String name2) {
-        return restrictions.stream().anyMatch(r ->
-            (r.person1.equals(name1) && r.person2.equals(name2)) ||
-            (r.person1.equals(name2) && r.person2.equals(name1))
-        );
+    private void downloadResults() {
+        if (engine.getAssignedCount() == 0) return;
+        
+        // Okno dialogowe wyboru pliku z filtrami formatów
+        JFileChooser fileChooser = new JFileChooser();
+        javax.swing.filechooser.FileNameExtensionFilter txtFilter =
+            new javax.swing.filechooser.FileNameExtensionFilter("Raport tekstowy (*.txt)", "txt");
+        fileChooser.addChoosableFileFilter(txtFilter);
+        fileChooser.addChoosableFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV (*.csv)", "csv"));
+        fileChooser.addChoosableFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("JSON Lines (*.jsonl)", "jsonl"));
+        fileChooser.setFileFilter(txtFilter);
+        fileChooser.setSelectedFile(new java.io.File("randomizer-wyniki-" +
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm")) + ".txt"));
+        
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        
+        // Format z rozszerzenia pliku, a gdy go brak - z wybranego filtra
+        java.io.File file = fileChooser.getSelectedFile();
+        if (!file.getName().contains(".")
+                && fileChooser.getFileFilter() instanceof javax.swing.filechooser.FileNameExtensionFilter filter) {
+            file = new java.io.File(file.getPath() + "." + filter.getExtensions()[0]);
+        }
+        java.nio.file.Path path = file.toPath();
+        ResultExporter.Format format = ResultExporter.Format.fromFileName(file.getName());
+        GameSnapshot snapshot = engine.snapshot();
+        
+        runExportTask("Eksport wyników", 
+            progress -> ResultExporter.export(snapshot, format, path, progress),
+            "Wyniki zostały zapisane do pliku!\nLokalizacja: " + path.toAbsolutePath());
     }
-
+    
     /**
-     * Metoda publiczna do sprawdzania ograniczeń par (używana przez okno modalne)
+     * Zapisuje osobny plik z wynikiem dla każdego losującego (do folderu albo archiwum ZIP)
      */
-    public boolean isRestrictedPairPublic(String name1, String name2) {
-        return isRestrictedPair(name1, name2);
+    private void downloadPersonalResults() {
+        if (engine.getAssignedCount() == 0) return;
+        
+        String[] options = {"Folder z plikami", "Archiwum ZIP", "Anuluj"};
+        int choice = JOptionPane.showOptionDialog(this, 
+            "Każdy losujący dostanie osobny plik tylko ze swoim wynikiem.\nGdzie zapisać pliki?", 
+            "Wyniki osobiste", 
+            JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        if (choice != 0 && choice != 1) return;
+        boolean zip = choice == 1;
+        
+        JFileChooser fileChooser = new JFileChooser();
+        String baseName = "randomizer-wyniki-osobiste-" +
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm"));
+        if (zip) {
+            fileChooser.setSelectedFile(new java.io.File(baseName + ".zip"));
+        } else {
+            fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+            fileChooser.setDialogTitle("Wybierz folder na pliki wyników");
+        }
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        
+        java.nio.file.Path path = zip
+            ? fileChooser.getSelectedFile().toPath()
+            : fileChooser.getSelectedFile().toPath().resolve(baseName);
+        GameSnapshot snapshot = engine.snapshot();
+        
+        runExportTask("Wyniki osobiste", 
+            progress -> {
+                if (zip) {
+                    PersonalResultWriter.writeZip(snapshot, path, progress);
+                } else {
+                    PersonalResultWriter.writeFiles(snapshot, path, progress);
+                }
+            },
+            "Zapisano " + snapshot.getAssignedCount() + " plików z wynikami!\nLokalizacja: " + path.toAbsolutePath());
     }
     
     /**
-     * Automatycznie generuje finalne przydziały par na podstawie wylosowanych liter
-     * Każda osoba musi kogoś wylosować i zostać wylosowana
-     * POPRAWKA: Osoba nie może wylosować samej siebie
+     * Zapisuje całą sesję gry (uczestnicy, ograniczenia, ustawienia i wyniki tur) do pliku,
+     * żeby można było ją później wznowić
      */
-    private void generatePairsAutomatically() {
-        if (playerResults.size() != names.size()) return;
-        
-        // Jeśli pary już zostały przydzielone podczas losowania, nie nadpisuj
-        if (finalPairs.size() == names.size()) {
-            displayAssignments();
-            downloadResultsBtn.setEnabled(true);
+    private void saveSession() {
+        if (engine.getPlayerCount() < 2) {
+            JOptionPane.showMessageDialog(this, "Brak gry do zapisania - najpierw załaduj uczestników.");
             return;
         }
         
-        List<Assignment> assignments = new ArrayList<>();
-        List<String> availableTargets = new ArrayList<>(names); // Kto może zostać wylosowany
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Sesja Randomizera (*.rnds)", "rnds"));
+        fileChooser.setSelectedFile(new java.io.File("randomizer-sesja-" +
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm")) + ".rnds"));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        
+        java.io.File file = fileChooser.getSelectedFile();
+        if (!file.getName().contains(".")) {
+            file = new java.io.File(file.getPath() + ".rnds");
+        }
+        java.nio.file.Path path = file.toPath();
+        GameSnapshot snapshot = engine.snapshot();
         
-        // Przydzielanie każdej osobie celu
-        for (String drawer : names) {
-            boolean assigned = false;
-            List<String> possibleTargets = new ArrayList<>(availableTargets);
-            
-            // === POPRAWKA: USUŃ SIEBIE Z MOŻLIWYCH CELÓW ===
-            possibleTargets.remove(drawer);
-            
-            // Mieszaj możliwe cele dla losowości
-            Collections.shuffle(possibleTargets);
-            
-            // Szukanie prawidłowego celu (nie siebie + nie ograniczonego)
-            for (String target : possibleTargets) {
-                if (!isRestrictedPair(drawer, target)) {
-                    // Znalezienie wyniku losowania dla tej osoby
-                    PlayerResult drawerResult = playerResults.stream()
-                        .filter(r -> r.name.equals(drawer))
-                        .findFirst().orElse(null);
-                    
-                    if (drawerResult != null) {
-                        // Utworzenie przydziału
-                        assignments.add(new Assignment(drawer, target, drawerResult.letter));
-                        availableTargets.remove(target);
-                        assigned = true;
-                        break;
-                    }
-                }
+        runExportTask("Zapis sesji", 
+            progress -> SessionStore.save(snapshot, path),
+            "Sesja została zapisana!\nLokalizacja: " + path.toAbsolutePath());
+    }
+    
+    /**
+     * Wczytuje zapisaną sesję gry (w tle) i wznawia grę od następnej tury
+     */
+    private void loadSession() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Wczytaj sesję gry");
+        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Sesja Randomizera (*.rnds)", "rnds"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        
+        java.nio.file.Path path = fileChooser.getSelectedFile().toPath();
+        String previousStatus = gameStatusLabel.getText();
+        loadSessionBtn.setEnabled(false);
+        gameStatusLabel.setText("Wczytywanie sesji...");
+        
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                engine.restore(SessionStore.load(path));
+                return null;
             }
             
-            // Jeśli nie znaleziono prawidłowego, przydziel pierwszy dostępny (ale nie siebie!)
-            if (!assigned && !possibleTargets.isEmpty()) {
-                String target = possibleTargets.get(0);
-                
-                PlayerResult drawerResult = playerResults.stream()
-                    .filter(r -> r.name.equals(drawer))
-                    .findFirst().orElse(null);
-                
-                if (drawerResult != null) {
-                    assignments.add(new Assignment(drawer, target, drawerResult.letter));
-                    availableTargets.remove(target);
+            @Override
+            protected void done() {
+                loadSessionBtn.setEnabled(true);
+                try {
+                    get();
+                } catch (Exception e) {
+                    // Nieudany odczyt nie zmienia bieżącej gry
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    gameStatusLabel.setText(previousStatus);
+                    JOptionPane.showMessageDialog(RandomizerApp.this, 
+                        "Błąd podczas wczytywania sesji: " + cause.getMessage(), 
+                        "Błąd", 
+                        JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
+                applyRestoredSession();
             }
-        }
-        
-        // Jeśli ktoś nie został przydzielony (zbyt dużo ograniczeń), pokaż komunikat
-        if (assignments.size() < names.size()) {
-            JOptionPane.showMessageDialog(this, 
-                "Uwaga: Nie udało się przydzielić wszystkich par z powodu zbyt wielu ograniczeń. " +
-                "Niektóre osoby mogą nie mieć przydziału.");
-        }
-        
-        // Zapisanie wyników i wyświetlenie
-        finalPairs = assignments;
-        displayAssignments();
-        downloadResultsBtn.setEnabled(true);
+        }.execute();
     }
     
     /**
-     * Wyświetla finalne przydziały z nowoczesnym stylem kart
+     * Odświeża cały interfejs po wczytaniu sesji - listy, ustawienia liter i status gry
      */
-    private void displayAssignments() {
-        pairResultsPanel.removeAll();
-        
-        JLabel titleLabel = new JLabel("Wylosowane pary (każda osoba losuje kogoś):");
-        styleLabel(titleLabel, new Font("Segoe UI", Font.BOLD, 18), TEXT_COLOR);
-        titleLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 25, 0));
-        pairResultsPanel.add(titleLabel);
-        
-        if (finalPairs.isEmpty()) {
-            JLabel errorLabel = new JLabel("Nie udało się wygenerować przydziałów z obecnymi ograniczeniami.");
-            styleLabel(errorLabel, new Font("Segoe UI", Font.BOLD, 14), ACCENT_COLOR);
-            pairResultsPanel.add(errorLabel);
-        } else {
-            for (Assignment assignment : finalPairs) {
-                JPanel assignmentCard = new JPanel(new BorderLayout(20, 0));
-                assignmentCard.setBackground(CARD_COLOR);
-                assignmentCard.setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createLineBorder(BORDER_COLOR, 1),
-                    BorderFactory.createEmptyBorder(20, 25, 20, 25)
-                ));
-                assignmentCard.setMaximumSize(new Dimension(Integer.MAX_VALUE, 70));
-                
-                // Dodanie subtelnego cienia
-                assignmentCard.setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createCompoundBorder(
-                        BorderFactory.createLineBorder(new Color(0,0,0,20), 1),
-                        BorderFactory.createLineBorder(CARD_COLOR, 2)
-                    ),
-                    BorderFactory.createEmptyBorder(20, 25, 20, 25)
-                ));
-                
-                JLabel namesLabel = new JLabel(assignment.drawer + " → " + assignment.target);
-                styleLabel(namesLabel, new Font("Segoe UI", Font.BOLD, 16), TEXT_COLOR);
-                
-                // === NOWA ELEGANCKA STYLIZACJA LITERY ===
-                JPanel letterPanel = new JPanel();
-                letterPanel.setLayout(new BorderLayout());
-                letterPanel.setPreferredSize(new Dimension(60, 60));
-                
-                // Gradient-like effect z jasnoszarym tłem i niebieskim akcentem
-                letterPanel.setBackground(new Color(240, 248, 255)); // Bardzo jasnoniebieski
-                letterPanel.setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createLineBorder(PRIMARY_COLOR, 2), // Niebieskie obramowanie
-                    BorderFactory.createCompoundBorder(
-                        BorderFactory.createLineBorder(new Color(220, 235, 255), 1), // Jasnoniebieski inner border
-                        BorderFactory.createEmptyBorder(8, 8, 8, 8)
-                    )
-                ));
-                
-                JLabel letterLabel = new JLabel(String.valueOf(assignment.letter));
-                letterLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
-                letterLabel.setForeground(PRIMARY_COLOR); // Niebieska litera zamiast białej
-                letterLabel.setHorizontalAlignment(SwingConstants.CENTER);
-                letterLabel.setVerticalAlignment(SwingConstants.CENTER);
-                letterPanel.add(letterLabel, BorderLayout.CENTER);
-                
-                assignmentCard.add(namesLabel, BorderLayout.CENTER);
-                assignmentCard.add(letterPanel, BorderLayout.EAST);
-                
-                pairResultsPanel.add(assignmentCard);
-                pairResultsPanel.add(Box.createVerticalStrut(15));
-            }
+    private void applyRestoredSession() {
+        checkpointJournal();
+        alphabetSelect.setSelectedIndex(LetterAllocator.POLISH.equals(engine.getAlphabet()) ? 1 : 0);
+        balancedLettersCheck.setSelected(engine.isBalancedLetters());
+        codeModeCheck.setSelected(engine.isCodeMode());
+        StringBuilder excluded = new StringBuilder();
+        for (char c : new TreeSet<>(engine.getExcludedLetters())) {
+            if (excluded.length() > 0) excluded.append(',');
+            excluded.append(c);
         }
+        excludedLettersArea.setText(excluded.toString());
         
+        pairResultsPanel.removeAll();
+        resultsModel.clear();
         pairResultsPanel.revalidate();
         pairResultsPanel.repaint();
+        downloadResultsBtn.setEnabled(false);
+        personalResultsBtn.setEnabled(false);
+        
+        if (engine.isFinished()) {
+            beginRollingBtn.setEnabled(false);
+            updateGameStatus();
+        } else {
+            beginRollingBtn.setEnabled(true);
+            gameStatusLabel.setText("Wczytano sesję - wylosowało " + engine.getCurrentTurnIndex() + 
+                " z " + engine.getPlayerCount() + " graczy");
+            currentTurnLabel.setText("Następny losuje: " + engine.getCurrentPlayer() + 
+                ". Kliknij 'Rozpocznij Losowanie' aby kontynuować");
+        }
     }
     
     /**
-     * Zapisuje wyniki do pliku tekstowego
-     * POPRAWKA: Lepsze formatowanie pliku TXT
+     * Zadanie zapisu wykonywane w tle, zgłaszające postęp
      */
-    private void downloadResults() {
-        if (finalPairs.isEmpty()) return;
-        
-        // Okno dialogowe wyboru pliku
-        JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setSelectedFile(new java.io.File("randomizer-wyniki-" +
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm")) + ".txt"));
-        
-        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try (FileWriter writer = new FileWriter(fileChooser.getSelectedFile(), 
-                 java.nio.charset.StandardCharsets.UTF_8)) {
-                
-                // === NAGŁÓWEK PLIKU ===
-                writer.write("╔═══════════════════════════════════════════════════════════╗\n");
-                writer.write("║                    RANDOMIZER - WYNIKI                   ║\n");
-                writer.write("╚═══════════════════════════════════════════════════════════╝\n\n");
-                
-                writer.write("📅 Data wygenerowania: " + 
-                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "\n");
-                writer.write("👥 Liczba uczestników: " + names.size() + "\n");
-                writer.write("🎯 Liczba przydziałów: " + finalPairs.size() + "\n");
-                
-                // === SEKCJA WYKLUCZONYCH LITER ===
-                if (!excludedLetters.isEmpty()) {
-                    writer.write("❌ Wykluczone litery: " + excludedLetters.toString() + "\n");
-                }
-                
-                // === SEKCJA OGRANICZEŃ ===
-                if (!restrictions.isEmpty()) {
-                    writer.write("🚫 Ograniczenia par: " + restrictions.size() + "\n");
-                    for (Restriction r : restrictions) {
-                        writer.write("   • " + r.person1 + " ↔ " + r.person2 + "\n");
+    private interface ExportTask {
+        void run(Progress progress) throws Exception;
+    }
+    
+    /**
+     * Uruchamia zapis w tle z paskiem postępu; przycisk "Anuluj" przerywa zapis
+     * (częściowe pliki są usuwane przez zadanie)
+     */
+    private void runExportTask(String title, ExportTask task, String successMessage) {
+        ProgressMonitor monitor = new ProgressMonitor(this, title, "Zapisywanie...", 0, 100);
+        monitor.setMillisToDecideToPopup(200);
+        boolean resultsEnabled = downloadResultsBtn.isEnabled();
+        downloadResultsBtn.setEnabled(false);
+        personalResultsBtn.setEnabled(false);
+        saveSessionBtn.setEnabled(false);
+        
+        SwingWorker<Void, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                SwingWorker<Void, Void> self = this;
+                task.run(new Progress() {
+                    @Override
+                    public void update(long done, long total) {
+                        setProgress(total == 0 ? 100 : (int) (done * 100 / total));
                     }
+                    
+                    @Override
+                    public boolean isCancelled() {
+                        return self.isCancelled();
+                    }
+                });
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                monitor.close();
+                downloadResultsBtn.setEnabled(resultsEnabled);
+                personalResultsBtn.setEnabled(resultsEnabled);
+                saveSessionBtn.setEnabled(true);
+                if (isCancelled()) return;
+                try {
+                    get();
+                    JOptionPane.showMessageDialog(RandomizerApp.this, successMessage);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof java.util.concurrent.CancellationException) return;
+                    JOptionPane.showMessageDialog(RandomizerApp.this, 
+                        "Błąd podczas zapisywania pliku: " + cause.getMessage(), 
+                        "Błąd", 
+                        JOptionPane.ERROR_MESSAGE);
                 }
+            }
+        };
+        // Postęp na pasku; anulowanie sprawdzane przy każdej zmianie postępu
+        worker.addPropertyChangeListener(event -> {
+            if (!"progress".equals(event.getPropertyName())) return;
+            if (monitor.isCanceled()) {
+                worker.cancel(false);
+            } else {
+                monitor.setProgress((Integer) event.getNewValue());
+            }
+        });
+        worker.execute();
+    }
+    
+    // === OBLICZENIA W TLE ===
+    
+    /**
+     * Obliczenie na silniku wykonywane w tle, zgłaszające postęp
+     */
+    private interface EngineTask<T> {
+        T run(Progress progress) throws Exception;
+    }
+    
+    /**
+     * Uruchamia obliczenie na silniku w tle (wczytanie uczestników, wyznaczanie przydziałów)
+     * Okno pozostaje responsywne: zmiany gry są zablokowane, postęp trafia do etykiet statusu,
+     * a przycisk "Anuluj" przerywa obliczenie. Po przerwaniu lub błędzie przywracany jest
+     * poprzedni status i stan przycisków.
+     * @param checkpoint czy zlecić punkt kontrolny dziennika po obliczeniu
+     * @param onSuccess wywoływane w wątku Swinga z wynikiem obliczenia
+     * @param onCancel wywoływane w wątku Swinga po przerwaniu (null = brak dodatkowej akcji)
+     */
+    private <T> void runEngineTask(String status, EngineTask<T> task, boolean checkpoint,
+                                   java.util.function.Consumer<T> onSuccess, Runnable onCancel) {
+        if (taskCancel != null) return;
+        java.util.concurrent.atomic.AtomicBoolean cancel = new java.util.concurrent.atomic.AtomicBoolean();
+        taskCancel = cancel;
+        
+        String previousStatus = gameStatusLabel.getText();
+        String previousTurn = currentTurnLabel.getText();
+        boolean rollingEnabled = beginRollingBtn.isEnabled();
+        boolean resultsEnabled = downloadResultsBtn.isEnabled();
+        setGameEditingEnabled(false);
+        beginRollingBtn.setEnabled(false);
+        downloadResultsBtn.setEnabled(false);
+        personalResultsBtn.setEnabled(false);
+        gameStatusLabel.setText(status);
+        currentTurnLabel.setText("Kliknij 'Anuluj' aby przerwać");
+        cancelTaskBtn.setEnabled(true);
+        cancelTaskBtn.setVisible(true);
+        
+        new SwingWorker<T, long[]>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return task.run(new Progress() {
+                    @Override
+                    public void update(long done, long total) {
+                        publish(new long[] {done, total});
+                    }
+                    
+                    @Override
+                    public boolean isCancelled() {
+                        return cancel.get();
+                    }
+                });
+            }
+            
+            @Override
+            protected void process(List<long[]> chunks) {
+                // Tylko najnowszy postęp - etykieta odświeża się najwyżej raz na klatkę
+                long[] last = chunks.get(chunks.size() - 1);
+                if (cancel.get() || last[1] <= 0) return;
+                currentTurnLabel.setText("Postęp: " + last[0] + " z " + last[1] + " (" + 
+                    (last[0] * 100 / last[1]) + "%) - kliknij 'Anuluj' aby przerwać");
+            }
+            
+            @Override
+            protected void done() {
+                taskCancel = null;
+                cancelTaskBtn.setVisible(false);
+                setGameEditingEnabled(true);
                 
-                writer.write("\n" + "=".repeat(60) + "\n");
-                writer.write("                       FINALNE PRZYDZIAŁY\n");
-                writer.write("=".repeat(60) + "\n\n");
-                
-                // === WYNIKI LOSOWANIA POSZCZEGÓLNYCH GRACZY ===
-                writer.write("🎲 WYNIKI LOSOWANIA LITER:\n");
-                writer.write("-".repeat(30) + "\n");
-                for (PlayerResult result : playerResults) {
-                    writer.write(String.format("%-20s → %c\n", result.name, result.letter));
-                }
-                
-                writer.write("\n🎯 FINALNE PRZYDZIAŁY (kto kogo wylosował):\n");
-                writer.write("-".repeat(50) + "\n");
-                
-                // === ZAPISANIE KAŻDEGO PRZYDZIAŁU W CZYTELNYM FORMACIE ===
-                for (int i = 0; i < finalPairs.size(); i++) {
-                    Assignment assignment = finalPairs.get(i);
-                    writer.write(String.format("%d. %-15s → %-15s [Litera: %c]\n", 
-                        i + 1, 
-                        assignment.drawer, 
-                        assignment.target, 
-                        assignment.letter));
-                }
-                
-                // === PODSUMOWANIE ===
-                writer.write("\n" + "=".repeat(60) + "\n");
-                writer.write("                        PODSUMOWANIE\n");
-                writer.write("=".repeat(60) + "\n");
-                writer.write("✅ Wszyscy uczestnicy mają swoje przydziały\n");
-                writer.write("✅ Nikt nie wylosował samego siebie\n");
-                if (!restrictions.isEmpty()) {
-                    writer.write("✅ Wszystkie ograniczenia zostały uwzględnione\n");
-                }
-                if (!excludedLetters.isEmpty()) {
-                    writer.write("✅ Wykluczone litery nie zostały wylosowane\n");
-                }
-                
-                writer.write("\n📝 Plik wygenerowany przez Randomizer v2.0\n");
-                writer.write("🕒 " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "\n");
-                
-                JOptionPane.showMessageDialog(this, 
-                    "Wyniki zostały zapisane do pliku!\n" +
-                    "Lokalizacja: " + fileChooser.getSelectedFile().getAbsolutePath());
+                T result;
+                try {
+                    result = get();
+                } catch (Exception e) {
+                    // Przerwanie lub błąd - stan gry bez zmian
+                    gameStatusLabel.setText(previousStatus);
+                    currentTurnLabel.setText(previousTurn);
+                    beginRollingBtn.setEnabled(rollingEnabled);
+                    downloadResultsBtn.setEnabled(resultsEnabled);
+                    personalResultsBtn.setEnabled(resultsEnabled);
                     
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Błąd podczas zapisywania pliku: " + e.getMessage(), 
-                    "Błąd", 
-                    JOptionPane.ERROR_MESSAGE);
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof java.util.concurrent.CancellationException) {
+                        if (onCancel != null) onCancel.run();
+                    } else if (cause instanceof IllegalArgumentException || cause instanceof IllegalStateException) {
+                        JOptionPane.showMessageDialog(RandomizerApp.this, cause.getMessage());
+                    } else {
+                        JOptionPane.showMessageDialog(RandomizerApp.this, 
+                            cause.getMessage(), 
+                            "Błąd", 
+                            JOptionPane.ERROR_MESSAGE);
+                    }
+                    return;
+                }
+                if (checkpoint) checkpointJournal();
+                onSuccess.accept(result);
             }
+        }.execute();
+    }
+    
+    /**
+     * Włącza lub blokuje zmiany gry (uczestnicy, ograniczenia, sesje) na czas obliczenia w tle
+     */
+    private void setGameEditingEnabled(boolean enabled) {
+        for (JComponent component : new JComponent[] {loadNamesBtn, importNamesBtn, addRestrictionBtn, addGroupBtn,
+                saveSessionBtn, loadSessionBtn, namesList, restrictionsList, groupsList, person1Select, person2Select}) {
+            component.setEnabled(enabled);
         }
     }
     
     /**
-     * Metoda publiczna do uzyskania losowej litery (używana przez okno modalne)
+     * Metoda publiczna do wylosowania litery (lub kodu) i osoby dla gracza (używana przez okno modalne)
+     * Przydział jest zapisywany w silniku; target jest null, gdy gracz nie ma dopuszczalnego celu.
      */
-    public char getRandomLetterForModal() {
-        return getRandomLetter();
+    public PairingEngine.Assignment rollForPlayer(String drawer) {
+        PairingEngine.Assignment rolled = engine.rollFor(drawer);
+        if (journal != null && journal.getFailure() != null) {
+            journalFailed(journal.getFailure());
+        }
+        return rolled;
     }
     
+    // === DZIENNIK LOSOWAŃ ===
+    
     /**
-     * Metoda publiczna do uzyskania listy nazw (używana przez okno modalne)
+     * Zleca zapis bieżącego stanu gry jako punktu kontrolnego dziennika (otwiera dziennik przy pierwszym użyciu)
+     * Wątek Swinga tylko oznacza dziennik jako nieaktualny - zapis pliku sesji i fsync wykonuje wątek
+     * punktów kontrolnych, a żądania zgłoszone przed rozpoczęciem zapisu łączą się w jeden punkt kontrolny.
      */
-    public List<String> getNames() {
-        return new ArrayList<>(names);
+    private void checkpointJournal() {
+        // Bez wyłącznego dostępu do katalogu dziennik nie jest używany
+        if (journalLock == null) return;
+        RollJournal current = journal;
+        if (current != null) current.markChanged();
+        if (!checkpointPending.compareAndSet(false, true)) return;
+        
+        journalWriter.execute(() -> {
+            checkpointPending.set(false);
+            RollJournal target = journal;
+            try {
+                if (target == null) {
+                    journal = RollJournal.open(engine, JOURNAL_DIR);
+                } else {
+                    target.checkpoint();
+                }
+            } catch (java.io.IOException | RuntimeException e) {
+                SwingUtilities.invokeLater(() -> journalFailed(e));
+            }
+        });
     }
-
+    
     /**
-     * NOWE: Przydziela cel dla gracza podczas losowania i zapisuje parę (z literą)
-     * Zwraca nazwę wylosowanej osoby do wyświetlenia w oknie modalnym.
+     * Wyłącza niedziałający dziennik - gra toczy się dalej bez zabezpieczenia przed awarią
      */
-    public synchronized String assignTargetForOnRoll(String drawer, char letter) {
-        // Upewnij się, że pula jest zainicjalizowana i spójna z dotychczasowymi przydziałami
-        if (availableTargetsPool.isEmpty()) {
-            availableTargetsPool.addAll(names);
-            for (Assignment a : finalPairs) {
-                availableTargetsPool.remove(a.target);
+    private void journalFailed(Exception e) {
+        RollJournal failed = journal;
+        journal = null;
+        if (failed != null) {
+            try {
+                failed.close();
+            } catch (java.io.IOException ignored) {
+                // Błąd zapisu został już zgłoszony
             }
         }
-        
-        // Zbuduj listę możliwych celów (bez siebie i bez ograniczeń)
-        List<String> possibleTargets = new ArrayList<>();
-        for (String t : new ArrayList<>(availableTargetsPool)) {
-            if (!t.equals(drawer) && !isRestrictedPair(drawer, t)) {
-                possibleTargets.add(t);
-            }
+        if (!journalWarningShown) {
+            journalWarningShown = true;
+            JOptionPane.showMessageDialog(this, 
+                "Nie można zapisywać dziennika losowań: " + e.getMessage() + 
+                "\nGra działa dalej, ale wyniki nie przetrwają awarii programu.", 
+                "Dziennik losowań", 
+                JOptionPane.WARNING_MESSAGE);
         }
-        Collections.shuffle(possibleTargets);
-        String assignedTarget = possibleTargets.isEmpty() ? null : possibleTargets.get(0);
-        
-        // Obsługa trudnego przypadku: ostatni gracz i jedynym celem jest on sam – spróbuj zamiany
-        if (assignedTarget == null && availableTargetsPool.size() == 1 && availableTargetsPool.get(0).equals(drawer)) {
-            for (Assignment prev : finalPairs) {
-                String candidate = prev.target;
-                String prevDrawer = prev.drawer;
-                if (candidate.equals(drawer)) continue;
-                if (!isRestrictedPair(drawer, candidate) && !isRestrictedPair(prevDrawer, drawer) && !prevDrawer.equals(drawer)) {
-                    // Zamiana celów
-                    prev.target = drawer; // poprzedni bierze obecnego gracza
-                    assignedTarget = candidate; // obecny bierze cel poprzedniego
-                    // Usuń z puli 'drawer', ponieważ został użyty jako cel po zamianie
-                    availableTargetsPool.remove(drawer);
-                    // Zapisz nowy przydział
-                    finalPairs.add(new Assignment(drawer, assignedTarget, letter));
-                    return assignedTarget;
-                }
-            }
+    }
+    
+    /**
+     * Utrwala dziennik przy zamykaniu aplikacji
+     */
+    private void closeJournal() {
+        // Zaległy punkt kontrolny jest jeszcze zapisywany
+        journalWriter.shutdown();
+        try {
+            journalWriter.awaitTermination(JOURNAL_CLOSE_TIMEOUT_SECONDS, java.util.concurrent.TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        
-        // Fallback – jeśli nadal brak, spróbuj wybrać kogokolwiek z puli (nie siebie), nawet gdy ograniczenie istnieje
-        if (assignedTarget == null) {
-            for (String t : availableTargetsPool) {
-                if (!t.equals(drawer)) { assignedTarget = t; break; }
+        if (journal == null) return;
+        try {
+            journal.close();
+            if (journalLock != null) journalLock.close();
+        } catch (java.io.IOException ignored) {
+            // Zamykanie aplikacji - nie ma już gdzie zgłosić błędu
+        }
+        journal = null;
+    }
+    
+    /**
+     * Przywraca grę przerwaną awarią lub zamknięciem okna (punkt kontrolny i losowania z dziennika)
+     */
+    private void recoverInterruptedGame() {
+        // Odczyt punktu kontrolnego i powtórzenie dziennika w tle - okno od razu reaguje
+        String previousStatus = gameStatusLabel.getText();
+        String previousTurn = currentTurnLabel.getText();
+        runEngineTask("Przywracanie przerwanej gry...", progress -> {
+            try {
+                journalLock = RollJournal.lockDirectory(JOURNAL_DIR);
+            } catch (java.io.IOException e) {
+                journalWarningShown = true;
+                throw new IllegalStateException("Nie można używać dziennika losowań: " + e.getMessage() + 
+                    "\nGra działa dalej, ale wyniki nie przetrwają awarii programu.");
             }
-            // Ostateczna rezerwa – jeśli nic innego, przypisz siebie (unikamy, ale wolimy zakończyć proces)
-            if (assignedTarget == null) {
-                assignedTarget = drawer;
+            if (journalLock == null) {
+                journalWarningShown = true;
+                throw new IllegalStateException("Dziennik losowań jest używany przez inne okno programu.\n" + 
+                    "Gra w tym oknie działa dalej, ale jej wyniki nie przetrwają awarii programu.");
             }
-        }
-        
-        // Zdejmij wybranego z puli dostępnych celów
-        availableTargetsPool.remove(assignedTarget);
-        // Zapisz przydział
-        finalPairs.add(new Assignment(drawer, assignedTarget, letter));
-        return assignedTarget;
+            
+            PairingEngine recovered = new PairingEngine();
+            try {
+                if (!RollJournal.recover(recovered, JOURNAL_DIR, progress)) return false;
+            } catch (java.io.IOException | IllegalArgumentException e) {
+                throw new IllegalStateException("Nie udało się przywrócić przerwanej gry: " + e.getMessage());
+            }
+            
+            // Zakończone gry nie są przywracane - ich wyniki były już widoczne
+            if (recovered.getPlayerCount() < 2 || recovered.isFinished()) return false;
+            engine.restore(recovered.snapshot());
+            return true;
+        }, false, restored -> {
+            if (!restored) {
+                // Nie było przerwanej gry - okno wraca do stanu startowego
+                gameStatusLabel.setText(previousStatus);
+                currentTurnLabel.setText(previousTurn);
+                return;
+            }
+            applyRestoredSession();
+            JOptionPane.showMessageDialog(this, 
+                "Przywrócono przerwaną grę: wylosowało " + engine.getCurrentTurnIndex() + 
+                " z " + engine.getPlayerCount() + " graczy.");
+        }, null);
+    }
+    
+    /**
+     * Metoda publiczna do uzyskania listy nazw (używana przez okno modalne)
+     */
+    public List<String> getNames() {
+        return engine.getNames();
     }
     
     /**
@@ -1328,46 +1938,4 @@ public class RandomizerApp extends JFrame {
             new RandomizerApp().setVisible(true);
         });
     }
-    
-    // === KLASY WEWNĘTRZNE DO PRZECHOWYWANIA DANYCH ===
-    
-    /**
-     * Klasa reprezentująca ograniczenie - parę osób które nie mogą być razem
-     */
-    static class Restriction {
-        String person1, person2; // Dwie osoby w ograniczeniu
-        
-        Restriction(String person1, String person2) {
-            this.person1 = person1;
-            this.person2 = person2;
-        }
-    }
-    
-    /**
-     * Klasa reprezentująca wynik losowania jednego gracza
-     */
-    static class PlayerResult {
-        String name;    // Imię gracza
-        char letter;    // Wylosowana litera
-        // Usunięto target
-        PlayerResult(String name, char letter) {
-            this.name = name;
-            this.letter = letter;
-        }
-    }
-    
-    /**
-     * Klasa reprezentująca finalny przydział - kto kogo wylosował z jaką literą
-     */
-    static class Assignment {
-        String drawer;  // Kto losuje
-        String target;  // Kogo wylosował
-        char letter;    // Z jaką literą
-        
-        Assignment(String drawer, String target, char letter) {
-            this.drawer = drawer;
-            this.target = target;
-            this.letter = letter;
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * Wsadowy punkt wejścia bez interfejsu graficznego - wczytuje listę uczestników
+ * i ograniczenia z plików, przeprowadza całe losowanie w silniku i zapisuje przydziały.
+ *
+ * Użycie:
+ *   java RandomizerCli --names uczestnicy.txt [--restrictions ograniczenia.txt]
+ *                      [--groups grupy.txt]
+ *                      [--excluded "QVX"] [--alphabet latin|polish|LITERY]
+ *                      [--letters random|balanced|codes]
+ *                      [--mode matching|turns] [--seed LICZBA|secure]
+ *                      [--format csv|jsonl|txt] [--out wyniki.csv]
+ *                      [--personal KATALOG|wyniki.zip]
+ *
+ * Tryb "matching" (domyślny) losuje wszystkie litery, a przydziały wyznacza naraz solwerem
+ * skojarzeń - pełny przydział jest gwarantowany, jeśli tylko istnieje. Tryb "turns" losuje
+ * tura po turze, tak jak okno aplikacji.
+ * Rozkład "codes" zamiast liter daje każdemu graczowi unikalny kod wieloznakowy (np. "KZB").
+ * Podanie --seed z liczbą daje powtarzalne losowanie (te same dane i seed = te same wyniki),
+ * a "--seed secure" losuje z kryptograficznego SecureRandom.
+ * Plik ograniczeń zawiera jedną parę na linię w postaci "Osoba1;Osoba2" (lub "Osoba1,Osoba2").
+ * Plik grup zawiera jedną grupę na linię w postaci "Nazwa grupy: Osoba1, Osoba2, ..." -
+ * członkowie grupy nie wylosują siebie nawzajem.
+ * Wyniki zapisywane są jako CSV (losujący,cel,litera), JSON Lines albo raport TXT do pliku
+ * lub na standardowe wyjście. Opcja --personal zapisuje dodatkowo osobny plik z wynikiem
+ * każdego losującego - do katalogu albo (gdy ścieżka kończy się na .zip) do archiwum ZIP.
+ */
+public class RandomizerCli {
+    
+    public static void main(String[] args) {
+        Map<String, String> options;
+        try {
+            options = parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        
+        try {
+            run(options);
+        } catch (IOException e) {
+            System.err.println("Błąd wejścia/wyjścia: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Przeprowadza całe losowanie na podstawie opcji z linii poleceń
+     */
+    private static void run(Map<String, String> options) throws IOException {
+        PairingEngine engine = new PairingEngine(createRandom(options.get("--seed")));
+        
+        // === UCZESTNICY ===
+        RosterImporter.Result roster = RosterImporter.importFile(Path.of(options.get("--names")));
+        if (roster.duplicates > 0) {
+            System.err.println("Uwaga: pominięto powtórzone nazwy: " + roster.duplicates);
+        }
+        engine.loadNames(roster.names);
+        
+        // === ALFABET ===
+        if (options.containsKey("--alphabet")) {
+            String alphabet = options.get("--alphabet");
+            switch (alphabet.toLowerCase()) {
+                case "latin" -> engine.setAlphabet(LetterAllocator.LATIN);
+                case "polish" -> engine.setAlphabet(LetterAllocator.POLISH);
+                default -> engine.setAlphabet(alphabet.toUpperCase());
+            }
+        }
+        
+        // === ROZKŁAD LITER ===
+        engine.setBalancedLetters("balanced".equals(options.get("--letters")));
+        engine.setCodeMode("codes".equals(options.get("--letters")));
+        
+        // === WYKLUCZONE LITERY ===
+        if (options.containsKey("--excluded")) {
+            engine.setExcludedLetters(PairingEngine.parseExcludedLetters(options.get("--excluded")));
+        }
+        
+        // === OGRANICZENIA ===
+        if (options.containsKey("--restrictions")) {
+            List<String> lines = Files.readAllLines(Path.of(options.get("--restrictions")), StandardCharsets.UTF_8);
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i).trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                
+                String[] pair = line.split("[;,]", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Nieprawidłowe ograniczenie w linii " + (i + 1) + ": " + line);
+                }
+                engine.addRestriction(pair[0].trim(), pair[1].trim());
+            }
+        }
+        if (options.containsKey("--groups")) {
+            List<String> lines = Files.readAllLines(Path.of(options.get("--groups")), StandardCharsets.UTF_8);
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i).trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                
+                int colon = line.indexOf(':');
+                if (colon < 0) {
+                    throw new IllegalArgumentException("Nieprawidłowa grupa w linii " + (i + 1) + ": " + line);
+                }
+                engine.addGroup(line.substring(0, colon).trim(), PairingEngine.parseNames(line.substring(colon + 1)));
+            }
+        }
+        
+        // === LOSOWANIE WSZYSTKICH TUR ===
+        engine.startGame();
+        if ("turns".equals(options.getOrDefault("--mode", "matching"))) {
+            // Pełne tury kolejnych graczy jednym wywołaniem silnika
+            engine.rollBatch(engine.getPlayerCount(), (done, total) -> { });
+        } else if (!engine.drawAllAtOnce()) {
+            System.err.println("Uwaga: przy obecnych ograniczeniach nie istnieje pełny przydział - "
+                + "zapisano tylko " + engine.getAssignedCount() + " z " + engine.getPlayerCount() + " par.");
+        }
+        
+        // === ZAPIS WYNIKÓW ===
+        String outPath = options.get("--out");
+        GameSnapshot snapshot = engine.snapshot();
+        ResultExporter.Format format = ResultExporter.Format.valueOf(options.getOrDefault("--format", "csv").toUpperCase());
+        Progress silent = (done, total) -> { };
+        if (outPath != null) {
+            ResultExporter.export(snapshot, format, Path.of(outPath), silent);
+            System.err.println("Zapisano " + snapshot.getAssignedCount() + " przydziałów do pliku " + outPath);
+        } else {
+            ResultExporter.export(snapshot, format, Channels.newChannel(System.out), silent);
+            System.out.flush();
+        }
+        
+        // === PLIKI OSOBISTE ===
+        String personalPath = options.get("--personal");
+        if (personalPath != null) {
+            if (personalPath.toLowerCase().endsWith(".zip")) {
+                PersonalResultWriter.writeZip(snapshot, Path.of(personalPath), silent);
+            } else {
+                PersonalResultWriter.writeFiles(snapshot, Path.of(personalPath), silent);
+            }
+            System.err.println("Zapisano " + snapshot.getAssignedCount() + " plików osobistych do " + personalPath);
+        }
+    }
+    
+    /**
+     * Tworzy źródło losowości z wartości opcji --seed (brak = losowy seed)
+     */
+    static RandomGenerator createRandom(String seed) {
+        if (seed == null) return RandomSources.unseeded();
+        if (seed.equalsIgnoreCase("secure")) return RandomSources.secure();
+        return RandomSources.seeded(Long.parseLong(seed));
+    }
+    
+    /**
+     * Parsuje argumenty w postaci par "--opcja wartość"
+     */
+    private static Map<String, String> parseArguments(String[] args) {
+        Set<String> known = Set.of("--names", "--restrictions", "--groups", "--excluded", "--alphabet", "--letters", "--mode", "--seed", "--format", "--out", "--personal");
+        Map<String, String> options = new HashMap<>();
+        
+        for (int i = 0; i < args.length; i++) {
+            if (!known.contains(args[i])) {
+                throw new IllegalArgumentException("Nieznana opcja: " + args[i]);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Brak wartości dla opcji " + args[i]);
+            }
+            options.put(args[i], args[++i]);
+        }
+        
+        if (!options.containsKey("--names")) {
+            throw new IllegalArgumentException("Opcja --names jest wymagana.");
+        }
+        String letters = options.getOrDefault("--letters", "random");
+        if (!letters.equals("random") && !letters.equals("balanced") && !letters.equals("codes")) {
+            throw new IllegalArgumentException("Nieznany rozkład liter: " + letters);
+        }
+        String mode = options.getOrDefault("--mode", "matching");
+        if (!mode.equals("matching") && !mode.equals("turns")) {
+            throw new IllegalArgumentException("Nieznany tryb: " + mode);
+        }
+        String format = options.getOrDefault("--format", "csv");
+        if (!format.equals("csv") && !format.equals("jsonl") && !format.equals("txt")) {
+            throw new IllegalArgumentException("Nieznany format: " + format);
+        }
+        String seed = options.get("--seed");
+        if (seed != null && !seed.equalsIgnoreCase("secure") && !seed.matches("-?\\d+")) {
+            throw new IllegalArgumentException("Seed musi być liczbą albo \"secure\": " + seed);
+        }
+        return options;
+    }
+    
+    private static void printUsage() {
+        System.err.println("Użycie: java RandomizerCli --names uczestnicy.txt [--restrictions ograniczenia.txt]");
+        System.err.println("                           [--groups grupy.txt]");
+        System.err.println("                           [--excluded \"QVX\"] [--alphabet latin|polish|LITERY]");
+        System.err.println("                           [--letters random|balanced|codes]");
+        System.err.println("                           [--mode matching|turns] [--seed LICZBA|secure]");
+        System.err.println("                           [--format csv|jsonl|txt] [--out wyniki.csv]");
+        System.err.println("                           [--personal KATALOG|wyniki.zip]");
+    }
+}
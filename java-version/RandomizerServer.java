@@ -0,0 +1,625 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Lokalny serwer HTTP udostępniający silnik losowania w sieci - uczestnicy losują ze swoich
+ * urządzeń (przeglądarka, telefon), a jedna instancja silnika pilnuje wszystkich reguł gry.
+ *
+ * Serwer działa na wbudowanym com.sun.net.httpserver, a każde żądanie obsługuje osobny
+ * wątek wirtualny - wolne połączenia nie blokują puli wątków, a operacje silnika trwają
+ * mikrosekundy pod jego blokadą. Wątki wirtualne są dostępne od Java 21; na starszym JDK
+ * (kod kompiluje się od Java 17) żądania obsługuje zwykła pula wątków.
+ *
+ * Użycie:
+ *   java RandomizerServer [--port 8080] [--host 0.0.0.0] [--seed LICZBA|secure]
+ *                         [--max-rooms 1000] [--max-players 10000]
+ * Z --seed pokój domyślny losuje z podanym seedem, a każdy nowy pokój z własnego strumienia
+ * wydzielonego z tego seeda (split) - pokoje nie powtarzają nawzajem swoich losowań, a przy tej
+ * samej kolejności tworzenia pokoi wyniki są powtarzalne.
+ *
+ * Serwer obsługuje wiele niezależnych losowań naraz (pokoje, RoomRegistry):
+ *   POST   /rooms                 tworzy pokój - odpowiedź {"pokoj": "identyfikator"}
+ *   GET    /rooms                 liczba pokoi
+ *   GET    /rooms/{id}            stan gry w pokoju (jak /state)
+ *   DELETE /rooms/{id}            usuwa pokój
+ *   /rooms/{id}/roster, /rooms/{id}/roll, ...   punkty końcowe gry w pokoju
+ * Zakończone i długo nieużywane pokoje są usuwane automatycznie. Punkty końcowe bez
+ * prefiksu /rooms/{id} działają na pokoju domyślnym.
+ *
+ * Punkty końcowe gry (dane wejściowe jako tekst w treści żądania, odpowiedzi w JSON):
+ *   POST /roster          nazwy uczestników (przecinki lub nowe linie) - nowa gra
+ *   POST /restrictions    ograniczenia, jedna para na linię: "Osoba1;Osoba2"
+ *   POST /groups          grupy, jedna na linię: "Nazwa grupy: Osoba1, Osoba2, ..."
+ *   POST /start           rozpoczyna grę od nowa z tą samą listą i ograniczeniami
+ *   POST /roll?name=X     tura gracza X (tylko gdy jest jego kolej; w sesji samoobsługowej - w dowolnej kolejności)
+ *   POST /concurrent      otwiera losowanie samoobsługowe - pozostali gracze losują w dowolnej
+ *                         kolejności, z wielu urządzeń naraz, bez blokady silnika
+ *   GET  /state           liczba graczy, liczba wykonanych tur, czyja jest kolej
+ *   GET  /result?name=X   wynik gracza X (litera i wylosowana osoba)
+ *   GET  /results?format=jsonl|csv|txt   wszystkie przydziały (domyślnie JSON Lines; w sesji
+ *                         samoobsługowej dopiero, gdy wszyscy odsłonili losowanie)
+ * Błędy: 400 (nieprawidłowe dane), 404 (także nieznany pokój), 405, 409 (niedozwolone w obecnym stanie gry),
+ * zawsze z treścią {"blad": "komunikat"}.
+ */
+public final class RandomizerServer implements AutoCloseable {
+    // Maksymalny rozmiar treści żądania (lista uczestników dużego wydarzenia)
+    private static final int MAX_BODY_BYTES = 16 * 1024 * 1024;
+    
+    // Identyfikator pokoju domyślnego (punkty końcowe bez prefiksu /rooms/{id})
+    public static final String DEFAULT_ROOM = "domyslny";
+    // Domyślne limity i czasy życia pokoi
+    private static final int DEFAULT_MAX_ROOMS = 1000;
+    private static final int DEFAULT_MAX_PLAYERS = 10_000;
+    private static final long FINISHED_TTL_MILLIS = 15 * 60 * 1000L;
+    private static final long IDLE_TTL_MILLIS = 2 * 60 * 60 * 1000L;
+    private static final long EVICTION_PERIOD_MILLIS = 60 * 1000L;
+    
+    private final RoomRegistry rooms;
+    // Pokój domyślny (null = tylko pokoje tworzone przez /rooms)
+    private final GameRoom defaultRoom;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // Punkty końcowe gry w pokoju: ścieżka (np. "/roll") → metoda i obsługa
+    private final Map<String, Route> routes = new HashMap<>();
+    
+    /**
+     * Zadanie obsługujące żądanie w pokoju; zwraca treść odpowiedzi JSON (null = odpowiedź już wysłana)
+     */
+    private interface Endpoint {
+        String handle(HttpExchange exchange, GameRoom room) throws IOException;
+    }
+    
+    private static final class Route {
+        final String method;
+        final Endpoint endpoint;
+        
+        Route(String method, Endpoint endpoint) {
+            this.method = method;
+            this.endpoint = endpoint;
+        }
+    }
+    
+    /**
+     * Tworzy serwer z jednym silnikiem jako pokojem domyślnym (uruchamia go start())
+     * Nowe pokoje dostają silnik z losowym seedem.
+     * @param address adres i port nasłuchiwania (port 0 = dowolny wolny)
+     */
+    public RandomizerServer(PairingEngine engine, InetSocketAddress address) throws IOException {
+        this(new RoomRegistry(PairingEngine::new, DEFAULT_MAX_ROOMS, DEFAULT_MAX_PLAYERS,
+            FINISHED_TTL_MILLIS, IDLE_TTL_MILLIS), engine, address);
+    }
+    
+    /**
+     * Tworzy serwer dla rejestru pokoi (uruchamia go start(), który włącza też sprzątanie pokoi)
+     * @param defaultEngine silnik pokoju domyślnego (null = bez pokoju domyślnego)
+     */
+    public RandomizerServer(RoomRegistry rooms, PairingEngine defaultEngine, InetSocketAddress address) throws IOException {
+        this.rooms = rooms;
+        this.defaultRoom = defaultEngine != null ? rooms.addPinned(DEFAULT_ROOM, defaultEngine) : null;
+        this.server = HttpServer.create(address, 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        
+        routes.put("/roster", new Route("POST", this::loadRoster));
+        routes.put("/restrictions", new Route("POST", this::addRestrictions));
+        routes.put("/groups", new Route("POST", this::addGroups));
+        routes.put("/start", new Route("POST", this::startGame));
+        routes.put("/roll", new Route("POST", this::roll));
+        routes.put("/concurrent", new Route("POST", (exchange, room) -> openConcurrentRolling(room)));
+        routes.put("/state", new Route("GET", (exchange, room) -> state(room)));
+        routes.put("/result", new Route("GET", this::result));
+        routes.put("/results", new Route("GET", this::results));
+        
+        server.createContext("/", this::dispatch);
+    }
+    
+    public void start() {
+        rooms.startEviction(EVICTION_PERIOD_MILLIS);
+        server.start();
+    }
+    
+    /**
+     * Zwraca port, na którym serwer nasłuchuje
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    /**
+     * Zatrzymuje serwer (trwające żądania mają sekundę na zakończenie)
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        rooms.close();
+    }
+    
+    /**
+     * Pula obsługi żądań: wątek wirtualny na żądanie (Java 21+), a na starszym JDK pula wątków
+     * tworzonych w miarę potrzeby - metoda wywoływana przez refleksję, żeby kod kompilował się na Java 17
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "randomizer-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    // === PUNKTY KOŃCOWE ===
+    
+    private String loadRoster(HttpExchange exchange, GameRoom room) throws IOException {
+        List<String> names = PairingEngine.parseNames(readBody(exchange));
+        if (names.size() > rooms.getMaxPlayersPerRoom()) {
+            throw new IllegalArgumentException("Za dużo uczestników: " + names.size() + " (limit " + rooms.getMaxPlayersPerRoom() + ").");
+        }
+        PairingEngine engine = room.getEngine();
+        synchronized (engine) {
+            engine.loadNames(names);
+            room.setConcurrentSession(null);
+        }
+        return "{\"uczestnicy\":" + names.size() + "}";
+    }
+    
+    /**
+     * Dodaje ograniczenia z treści żądania - cała treść jest najpierw sprawdzana, a potem dodawana
+     * pod blokadą silnika w całości albo wcale
+     */
+    private String addRestrictions(HttpExchange exchange, GameRoom room) throws IOException {
+        String[] lines = readBody(exchange).split("\n");
+        List<String[]> pairs = new ArrayList<>();
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            
+            String[] pair = line.split("[;,]", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Nieprawidłowe ograniczenie w linii " + (i + 1) + ": " + line);
+            }
+            pairs.add(new String[] {pair[0].trim(), pair[1].trim()});
+        }
+        
+        PairingEngine engine = room.getEngine();
+        int total;
+        synchronized (engine) {
+            checkNoConcurrentSession(room);
+            engine.addRestrictions(pairs);
+            total = engine.getRestrictionCount();
+        }
+        return "{\"dodano\":" + pairs.size() + ",\"ograniczenia\":" + total + "}";
+    }
+    
+    /**
+     * Dodaje grupy z treści żądania (linie "grupa: osoba, osoba") - w całości albo wcale;
+     * kilka linii tej samej grupy łączy się w jedną
+     */
+    private String addGroups(HttpExchange exchange, GameRoom room) throws IOException {
+        String[] lines = readBody(exchange).split("\n");
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Nieprawidłowa grupa w linii " + (i + 1) + ": " + line);
+            }
+            groups.computeIfAbsent(line.substring(0, colon).trim(), group -> new ArrayList<>())
+                .addAll(PairingEngine.parseNames(line.substring(colon + 1)));
+        }
+        
+        PairingEngine engine = room.getEngine();
+        synchronized (engine) {
+            checkNoConcurrentSession(room);
+            engine.addGroups(groups);
+        }
+        return "{\"dodano\":" + groups.size() + "}";
+    }
+    
+    /**
+     * Ograniczeń nie można zmieniać w otwartej sesji samoobsługowej - przydziały wszystkich graczy
+     * są już wyznaczone (nowa lista lub /start zamyka sesję); wywoływane pod blokadą silnika
+     */
+    private static void checkNoConcurrentSession(GameRoom room) {
+        if (room.getConcurrentSession() != null) {
+            throw new IllegalStateException("Losowanie samoobsługowe jest otwarte - ograniczenia można zmienić po rozpoczęciu nowej gry.");
+        }
+    }
+    
+    private String startGame(HttpExchange exchange, GameRoom room) {
+        PairingEngine engine = room.getEngine();
+        synchronized (engine) {
+            if (engine.getPlayerCount() < 2) {
+                throw new IllegalStateException("Najpierw wczytaj listę uczestników.");
+            }
+            engine.startGame();
+            room.setConcurrentSession(null);
+        }
+        return state(room);
+    }
+    
+    private String roll(HttpExchange exchange, GameRoom room) {
+        String name = requireParameter(exchange, "name");
+        PairingEngine engine = room.getEngine();
+        ConcurrentRollSession session;
+        synchronized (engine) {
+            // Wybór trybu pod blokadą, pod którą nowa gra zamyka sesję; samo odsłonięcie - już bez blokady
+            session = room.getConcurrentSession();
+            if (session == null) return assignmentJson(engine.rollTurnOf(name));
+        }
+        return assignmentJson(session.roll(name));
+    }
+    
+    /**
+     * Otwiera losowanie samoobsługowe dla graczy, którzy jeszcze nie losowali
+     */
+    private String openConcurrentRolling(GameRoom room) {
+        PairingEngine engine = room.getEngine();
+        synchronized (engine) {
+            if (room.getConcurrentSession() != null) {
+                throw new IllegalStateException("Losowanie samoobsługowe jest już otwarte.");
+            }
+            if (engine.getPlayerCount() < 2) {
+                throw new IllegalStateException("Najpierw wczytaj listę uczestników.");
+            }
+            room.setConcurrentSession(engine.openConcurrentRolling((done, total) -> { }));
+        }
+        return state(room);
+    }
+    
+    private static String assignmentJson(PairingEngine.Assignment rolled) {
+        StringBuilder json = new StringBuilder("{\"losujacy\":");
+        appendJson(json, rolled.drawer).append(",\"cel\":");
+        if (rolled.target == null) {
+            json.append("null");
+        } else {
+            appendJson(json, rolled.target);
+        }
+        json.append(",\"litera\":");
+        return appendJson(json, rolled.symbol()).append('}').toString();
+    }
+    
+    private String state(GameRoom room) {
+        PairingEngine engine = room.getEngine();
+        int players, turns;
+        String current;
+        ConcurrentRollSession session;
+        synchronized (engine) {
+            players = engine.getPlayerCount();
+            turns = engine.getCurrentTurnIndex();
+            current = engine.getCurrentPlayer();
+            session = room.getConcurrentSession();
+        }
+        if (session != null) {
+            // Tury są już wykonane - liczą się odsłonięte losowania
+            turns = (int) (players - session.getPlayerCount() + session.getRevealedCount());
+            return "{\"uczestnicy\":" + players + ",\"wylosowalo\":" + turns + ",\"zakonczone\":" + session.isFinished()
+                + ",\"teraz\":null,\"samoobslugowe\":true}";
+        }
+        StringBuilder json = new StringBuilder("{\"uczestnicy\":").append(players)
+            .append(",\"wylosowalo\":").append(turns)
+            .append(",\"zakonczone\":").append(players > 0 && current == null)
+            .append(",\"teraz\":");
+        if (current == null) {
+            json.append("null");
+        } else {
+            appendJson(json, current);
+        }
+        return json.append('}').toString();
+    }
+    
+    /**
+     * Wynik jednego gracza - tylko jego własny przydział, bez reszty wyników
+     */
+    private String result(HttpExchange exchange, GameRoom room) {
+        String name = requireParameter(exchange, "name");
+        PairingEngine engine = room.getEngine();
+        ConcurrentRollSession session;
+        synchronized (engine) {
+            session = room.getConcurrentSession();
+        }
+        if (session != null) {
+            PairingEngine.Assignment rolled = session.getResult(name);
+            if (rolled == null) {
+                throw new IllegalStateException("Uczestnik " + name + " jeszcze nie losował.");
+            }
+            return assignmentJson(rolled);
+        }
+        String target, symbol;
+        synchronized (engine) {
+            int id = engine.getPlayerId(name);
+            if (id < 0) {
+                throw new IllegalArgumentException("Nieznany uczestnik: " + name);
+            }
+            if (id >= engine.getCurrentTurnIndex()) {
+                throw new IllegalStateException("Uczestnik " + name + " jeszcze nie losował.");
+            }
+            int targetId = engine.getTargetId(id);
+            target = targetId < 0 ? null : engine.getName(targetId);
+            symbol = engine.getSymbol(id);
+            name = engine.getName(id);
+        }
+        StringBuilder json = new StringBuilder("{\"losujacy\":");
+        appendJson(json, name).append(",\"cel\":");
+        if (target == null) {
+            json.append("null");
+        } else {
+            appendJson(json, target);
+        }
+        json.append(",\"litera\":");
+        return appendJson(json, symbol).append('}').toString();
+    }
+    
+    /**
+     * Wszystkie przydziały strumieniowo z migawki gry - silnik nie jest blokowany podczas wysyłania
+     * W losowaniu samoobsługowym przydziały wszystkich graczy są wyznaczone od razu, więc wyniki
+     * są dostępne dopiero, gdy każdy gracz odsłonił swoje losowanie.
+     */
+    private String results(HttpExchange exchange, GameRoom room) throws IOException {
+        String format = queryParameters(exchange).getOrDefault("format", "jsonl");
+        ResultExporter.Format exportFormat;
+        String contentType;
+        switch (format) {
+            case "jsonl" -> {
+                exportFormat = ResultExporter.Format.JSONL;
+                contentType = "application/x-ndjson; charset=utf-8";
+            }
+            case "csv" -> {
+                exportFormat = ResultExporter.Format.CSV;
+                contentType = "text/csv; charset=utf-8";
+            }
+            case "txt" -> {
+                exportFormat = ResultExporter.Format.TXT;
+                contentType = "text/plain; charset=utf-8";
+            }
+            default -> throw new IllegalArgumentException("Nieznany format: " + format);
+        }
+        
+        // Sesja i migawka pod jedną blokadą - migawka należy do gry, której sesję sprawdzono
+        PairingEngine engine = room.getEngine();
+        GameSnapshot snapshot;
+        synchronized (engine) {
+            ConcurrentRollSession session = room.getConcurrentSession();
+            if (session != null && !session.isFinished()) {
+                throw new IllegalStateException("Losowanie samoobsługowe trwa - wyniki będą dostępne, gdy wszyscy gracze odsłonią losowanie.");
+            }
+            snapshot = engine.snapshot();
+        }
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            ResultExporter.export(snapshot, exportFormat, Channels.newChannel(body), (done, total) -> { });
+        }
+        return null;
+    }
+    
+    // === OBSŁUGA ŻĄDAŃ ===
+    
+    /**
+     * Kieruje żądanie do pokoju i punktu końcowego; wyjątki zamienia na kody błędów
+     * (IllegalArgumentException = 400, NoSuchElementException = 404, IllegalStateException = 409)
+     */
+    private void dispatch(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // Przeglądarka może wysyłać żądania z innego źródła (np. strona otwarta z pliku)
+            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+            String path = exchange.getRequestURI().getPath();
+            
+            String json;
+            try {
+                json = handle(exchange, path);
+            } catch (IllegalArgumentException e) {
+                sendJson(exchange, 400, error(e.getMessage()));
+                return;
+            } catch (NoSuchElementException e) {
+                sendJson(exchange, 404, error(e.getMessage()));
+                return;
+            } catch (IllegalStateException e) {
+                sendJson(exchange, 409, error(e.getMessage()));
+                return;
+            } catch (RuntimeException e) {
+                sendJson(exchange, 500, error("Błąd serwera: " + e));
+                return;
+            }
+            if (json != null) sendJson(exchange, 200, json);
+        }
+    }
+    
+    /**
+     * Obsługuje żądanie: zarządzanie pokojami (/rooms), gra w pokoju (/rooms/{id}/...)
+     * albo gra w pokoju domyślnym
+     * @return treść odpowiedzi JSON (null = odpowiedź już wysłana)
+     */
+    private String handle(HttpExchange exchange, String path) throws IOException {
+        if (path.equals("/rooms")) {
+            if (!allowMethod(exchange, "GET", "POST")) return null;
+            if (exchange.getRequestMethod().equals("GET")) {
+                return "{\"pokoje\":" + rooms.size() + "}";
+            }
+            return appendJson(new StringBuilder("{\"pokoj\":"), rooms.create().getId()).append('}').toString();
+        }
+        
+        GameRoom room;
+        String action;
+        if (path.startsWith("/rooms/")) {
+            int slash = path.indexOf('/', "/rooms/".length());
+            String id = slash < 0 ? path.substring("/rooms/".length()) : path.substring("/rooms/".length(), slash);
+            action = slash < 0 ? "" : path.substring(slash);
+            if (action.isEmpty()) {
+                // Sam pokój: stan gry albo usunięcie
+                if (!allowMethod(exchange, "GET", "DELETE")) return null;
+                if (exchange.getRequestMethod().equals("DELETE")) {
+                    rooms.remove(id);
+                    return "{\"usunieto\":true}";
+                }
+                return state(rooms.get(id));
+            }
+            room = rooms.get(id);
+        } else {
+            if (defaultRoom == null) throw new NoSuchElementException("Nieznany adres: " + path);
+            room = defaultRoom;
+            room.touch(System.currentTimeMillis());
+            action = path;
+        }
+        
+        Route route = routes.get(action);
+        if (route == null) {
+            throw new NoSuchElementException("Nieznany adres: " + path);
+        }
+        if (!allowMethod(exchange, route.method)) return null;
+        return route.endpoint.handle(exchange, room);
+    }
+    
+    /**
+     * Sprawdza metodę żądania; odpowiada na zapytanie wstępne przeglądarki (OPTIONS) i błędem 405
+     * @return true gdy metoda jest dozwolona i żądanie należy obsłużyć
+     */
+    private static boolean allowMethod(HttpExchange exchange, String... methods) throws IOException {
+        String allowed = String.join(", ", methods);
+        String method = exchange.getRequestMethod();
+        if (method.equals("OPTIONS")) {
+            exchange.getResponseHeaders().set("Access-Control-Allow-Methods", allowed + ", OPTIONS");
+            exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type");
+            exchange.sendResponseHeaders(204, -1);
+            return false;
+        }
+        for (String allowedMethod : methods) {
+            if (allowedMethod.equals(method)) return true;
+        }
+        exchange.getResponseHeaders().set("Allow", allowed);
+        sendJson(exchange, 405, error("Dozwolona metoda: " + allowed));
+        return false;
+    }
+    
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+    
+    private static String error(String message) {
+        return appendJson(new StringBuilder("{\"blad\":"), message).append('}').toString();
+    }
+    
+    /**
+     * Czyta treść żądania jako tekst UTF-8
+     * @throws IllegalArgumentException gdy treść przekracza MAX_BODY_BYTES
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Treść żądania jest za duża (limit " + MAX_BODY_BYTES + " bajtów).");
+            }
+            return new String(bytes, StandardCharsets.UTF_8).replace("\r", "");
+        }
+    }
+    
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return parameters;
+        
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals <= 0) continue;
+            parameters.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+    
+    private static String requireParameter(HttpExchange exchange, String name) {
+        String value = queryParameters(exchange).get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Brak parametru: " + name);
+        }
+        return value.trim();
+    }
+    
+    /**
+     * Dopisuje tekst jako napis JSON (w cudzysłowach, ze znakami specjalnymi jako sekwencje ucieczki)
+     */
+    private static StringBuilder appendJson(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"');
+    }
+    
+    // === URUCHOMIENIE ===
+    
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!Set.of("--port", "--host", "--seed", "--max-rooms", "--max-players").contains(args[i]) || i + 1 >= args.length) {
+                System.err.println("Użycie: java RandomizerServer [--port 8080] [--host 0.0.0.0] [--seed LICZBA|secure]");
+                System.err.println("                              [--max-rooms 1000] [--max-players 10000]");
+                System.exit(2);
+                return;
+            }
+            options.put(args[i], args[++i]);
+        }
+        
+        try {
+            int port = Integer.parseInt(options.getOrDefault("--port", "8080"));
+            String host = options.getOrDefault("--host", "0.0.0.0");
+            String seed = options.get("--seed");
+            // Źródło, z którego każdy nowy pokój dostaje własny, niezależny strumień
+            RandomGenerator roomRandom = RandomizerCli.createRandom(seed);
+            Supplier<PairingEngine> roomEngines = () -> {
+                synchronized (roomRandom) {
+                    return new PairingEngine(RandomSources.split(roomRandom));
+                }
+            };
+            RoomRegistry rooms = new RoomRegistry(roomEngines,
+                Integer.parseInt(options.getOrDefault("--max-rooms", String.valueOf(DEFAULT_MAX_ROOMS))),
+                Integer.parseInt(options.getOrDefault("--max-players", String.valueOf(DEFAULT_MAX_PLAYERS))),
+                FINISHED_TTL_MILLIS, IDLE_TTL_MILLIS);
+            PairingEngine engine = new PairingEngine(RandomizerCli.createRandom(seed));
+            RandomizerServer server = new RandomizerServer(rooms, engine, new InetSocketAddress(host, port));
+            server.start();
+            System.err.println("Serwer losowania działa na http://" + host + ":" + server.getPort() + "/");
+        } catch (IOException e) {
+            System.err.println("Nie udało się uruchomić serwera: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+}
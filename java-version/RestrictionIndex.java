@@ -0,0 +1,198 @@
+import java.util.Arrays;
+
+/**
+ * Indeks ograniczeń par oparty na identyfikatorach uczestników (int).
+ *
+ * Każde ograniczenie jest symetryczne, więc para (a, b) i (b, a) pakowana jest do jednej
+ * wartości long: mniejszy identyfikator w starszych 32 bitach, większy w młodszych.
+ * Klucze trzymane są w tablicy z adresowaniem otwartym (sondowanie liniowe), bez obiektów
+ * opakowujących - sprawdzenie pary to O(1), a pamięć to dwie tablice long niezależnie
+ * od liczby ograniczeń. Dodatkowo zapamiętywana jest kolejność dodawania (do wyświetlania).
+ */
+public class RestrictionIndex {
+    // Znacznik pustego miejsca w tablicy (spakowane pary są zawsze nieujemne)
+    private static final long EMPTY = -1L;
+    // Początkowa pojemność tablicy mieszającej (potęga dwójki)
+    private static final int INITIAL_CAPACITY = 16;
+    
+    // Tablica mieszająca ze spakowanymi parami
+    private long[] table;
+    // Maska do wyliczania indeksu (pojemność - 1)
+    private int mask;
+    // Liczba ograniczeń w indeksie
+    private int size;
+    
+    // Ograniczenia w kolejności dodawania
+    private long[] order;
+    
+    public RestrictionIndex() {
+        clear();
+    }
+    
+    /**
+     * Pakuje symetryczną parę identyfikatorów do jednej wartości long
+     */
+    static long pack(int a, int b) {
+        int lo = Math.min(a, b);
+        int hi = Math.max(a, b);
+        return ((long) lo << 32) | (hi & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Zwraca pierwszy (mniejszy) identyfikator ze spakowanej pary
+     */
+    static int first(long pair) {
+        return (int) (pair >>> 32);
+    }
+    
+    /**
+     * Zwraca drugi (większy) identyfikator ze spakowanej pary
+     */
+    static int second(long pair) {
+        return (int) pair;
+    }
+    
+    /**
+     * Dodaje ograniczenie pary
+     * @return false jeśli para była już w indeksie
+     */
+    public boolean add(int a, int b) {
+        long key = pack(a, b);
+        int slot = findSlot(key);
+        if (table[slot] == key) return false;
+        
+        table[slot] = key;
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size * 2);
+        }
+        order[size++] = key;
+        
+        // Utrzymanie współczynnika wypełnienia poniżej 1/2
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+    
+    /**
+     * Sprawdza czy para (w dowolnej kolejności) jest ograniczona - O(1)
+     */
+    public boolean contains(int a, int b) {
+        long key = pack(a, b);
+        return table[findSlot(key)] == key;
+    }
+    
+    /**
+     * Usuwa ograniczenie o podanym indeksie (w kolejności dodawania)
+     */
+    public void removeAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Indeks: " + index + ", rozmiar: " + size);
+        }
+        long key = order[index];
+        System.arraycopy(order, index + 1, order, index, size - index - 1);
+        size--;
+        deleteKey(key);
+    }
+    
+    /**
+     * Przenumerowuje pary po usunięciu uczestnika - większe identyfikatory zmniejszają się o 1
+     * (ograniczenia z udziałem usuniętego uczestnika trzeba wcześniej usunąć)
+     */
+    public void removeParticipant(int id) {
+        for (int i = 0; i < size; i++) {
+            int a = first(order[i]), b = second(order[i]);
+            order[i] = pack(a > id ? a - 1 : a, b > id ? b - 1 : b);
+        }
+        Arrays.fill(table, EMPTY);
+        for (int i = 0; i < size; i++) {
+            table[findSlot(order[i])] = order[i];
+        }
+    }
+    
+    /**
+     * Zwraca spakowaną parę o podanym indeksie (w kolejności dodawania)
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Indeks: " + index + ", rozmiar: " + size);
+        }
+        return order[index];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Usuwa wszystkie ograniczenia
+     */
+    public void clear() {
+        table = new long[INITIAL_CAPACITY];
+        Arrays.fill(table, EMPTY);
+        mask = INITIAL_CAPACITY - 1;
+        order = new long[INITIAL_CAPACITY / 2];
+        size = 0;
+    }
+    
+    // === OPERACJE NA TABLICY MIESZAJĄCEJ ===
+    
+    /**
+     * Mieszanie klucza (stała złotego podziału), aby sąsiednie identyfikatory nie zbijały się w klastry
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    /**
+     * Zwraca miejsce z kluczem albo pierwsze puste miejsce na jego ścieżce sondowania
+     */
+    private int findSlot(long key) {
+        int slot = hash(key) & mask;
+        while (table[slot] != EMPTY && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    /**
+     * Usuwa klucz z przesunięciem wstecz kolejnych elementów klastra (bez znaczników usunięcia)
+     */
+    private void deleteKey(long key) {
+        int slot = findSlot(key);
+        if (table[slot] != key) return;
+        
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (table[next] != EMPTY) {
+            int home = hash(table[next]) & mask;
+            // Element można przesunąć do luki, jeśli jego miejsce docelowe nie leży między luką a nim
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap] = EMPTY;
+    }
+    
+    /**
+     * Przebudowuje tablicę mieszającą do nowej pojemności
+     */
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        mask = capacity - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                table[findSlot(key)] = key;
+            }
+        }
+    }
+}
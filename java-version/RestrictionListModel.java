@@ -0,0 +1,82 @@
+import javax.swing.AbstractListModel;
+import javax.swing.ListModel;
+import java.util.Arrays;
+
+/**
+ * Model listy ograniczeń: pary identyfikatorów uczestników w kolejności dodawania.
+ *
+ * Tekst wiersza ("Osoba1 ↔ Osoba2") składany jest dopiero przy rysowaniu, z nazw w modelu
+ * listy uczestników - zmiana nazwy odświeża tylko wiersze z tą osobą, a dodanie lub usunięcie
+ * ograniczenia zmienia jeden wiersz zamiast przebudowy całej listy.
+ */
+public class RestrictionListModel extends AbstractListModel<String> {
+    // Nazwy uczestników (indeks = identyfikator)
+    private final ListModel<String> names;
+    // Ograniczenia jako pary identyfikatorów (RestrictionIndex.first/second)
+    private long[] pairs = new long[16];
+    private int size;
+    
+    public RestrictionListModel(ListModel<String> names) {
+        this.names = names;
+    }
+    
+    /**
+     * Podmienia wszystkie ograniczenia
+     */
+    public void setPairs(long[] restrictions) {
+        int oldSize = size;
+        pairs = Arrays.copyOf(restrictions, Math.max(16, restrictions.length));
+        size = restrictions.length;
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+        if (size > 0) fireIntervalAdded(this, 0, size - 1);
+    }
+    
+    public void add(int index, long pair) {
+        if (size == pairs.length) {
+            pairs = Arrays.copyOf(pairs, size * 2);
+        }
+        System.arraycopy(pairs, index, pairs, index + 1, size - index);
+        pairs[index] = pair;
+        size++;
+        fireIntervalAdded(this, index, index);
+    }
+    
+    public void remove(int index) {
+        System.arraycopy(pairs, index + 1, pairs, index, size - index - 1);
+        size--;
+        fireIntervalRemoved(this, index, index);
+    }
+    
+    /**
+     * Odświeża wiersze z udziałem uczestnika (po zmianie jego nazwy)
+     */
+    public void nameChanged(int playerId) {
+        for (int i = 0; i < size; i++) {
+            if (RestrictionIndex.first(pairs[i]) == playerId || RestrictionIndex.second(pairs[i]) == playerId) {
+                fireContentsChanged(this, i, i);
+            }
+        }
+    }
+    
+    /**
+     * Przenumerowuje pary po usunięciu uczestnika - większe identyfikatory zmniejszają się o 1
+     * Teksty wierszy się nie zmieniają, więc lista nie jest odświeżana.
+     */
+    public void nameRemoved(int playerId) {
+        for (int i = 0; i < size; i++) {
+            int a = RestrictionIndex.first(pairs[i]), b = RestrictionIndex.second(pairs[i]);
+            pairs[i] = RestrictionIndex.pack(a > playerId ? a - 1 : a, b > playerId ? b - 1 : b);
+        }
+    }
+    
+    @Override
+    public int getSize() {
+        return size;
+    }
+    
+    @Override
+    public String getElementAt(int index) {
+        long pair = pairs[index];
+        return names.getElementAt(RestrictionIndex.first(pair)) + " ↔ " + names.getElementAt(RestrictionIndex.second(pair));
+    }
+}
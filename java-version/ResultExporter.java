@@ -0,0 +1,385 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Strumieniowy eksport wyników gry do pliku w jednym z formatów: ozdobny raport TXT,
+ * CSV albo JSON Lines.
+ *
+ * Eksport czyta z migawki gry, więc może działać w tle, a silnik pozostaje dostępny.
+ * Wiersze składane są bez formatowania przez String.format - znaki trafiają wprost do
+ * jednego bufora znaków, kodowane są do jednego bufora bajtów i zapisywane do kanału NIO.
+ * Bufory są używane ponownie dla każdego wiersza, więc pamięć jest stała niezależnie od
+ * liczby przydziałów. Zapis idzie do pliku tymczasowego, który po sukcesie zastępuje plik
+ * docelowy - anulowany lub przerwany eksport nie zostawia połowy pliku.
+ */
+public final class ResultExporter {
+    // Co ile rekordów zgłaszany jest postęp i sprawdzane anulowanie
+    private static final int PROGRESS_STEP = 4096;
+    
+    /**
+     * Format pliku z wynikami
+     */
+    public enum Format {
+        TXT("txt"), CSV("csv"), JSONL("jsonl");
+        
+        public final String extension;
+        
+        Format(String extension) {
+            this.extension = extension;
+        }
+        
+        /**
+         * Dobiera format do rozszerzenia pliku (domyślnie TXT)
+         */
+        public static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase();
+            for (Format format : values()) {
+                if (lower.endsWith("." + format.extension)) return format;
+            }
+            return TXT;
+        }
+    }
+    
+    private ResultExporter() {
+    }
+    
+    /**
+     * Zapisuje wyniki do pliku (przez plik tymczasowy podmieniany po zakończeniu)
+     * @throws CancellationException gdy eksport został anulowany
+     */
+    public static void export(GameSnapshot game, Format format, Path file, Progress progress) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".part");
+        boolean done = false;
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                export(game, format, channel, progress);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            done = true;
+        } finally {
+            if (!done) Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * Zapisuje wyniki do dowolnego kanału (np. standardowego wyjścia)
+     * @throws CancellationException gdy eksport został anulowany
+     */
+    public static void export(GameSnapshot game, Format format, WritableByteChannel channel, Progress progress) throws IOException {
+        ChannelTextWriter out = new ChannelTextWriter(channel);
+        switch (format) {
+            case CSV -> writeCsv(game, out, progress);
+            case JSONL -> writeJsonLines(game, out, progress);
+            default -> writeReport(game, out, progress);
+        }
+        out.flush();
+    }
+    
+    // === FORMATY ===
+    
+    /**
+     * CSV: losujacy,cel,litera (pola z przecinkiem, cudzysłowem lub nową linią w cudzysłowach)
+     */
+    private static void writeCsv(GameSnapshot game, ChannelTextWriter out, Progress progress) throws IOException {
+        out.write("losujacy,cel,litera\n");
+        long done = 0;
+        for (int drawer = 0; drawer < game.getPlayerCount(); drawer++) {
+            int target = game.getTargetId(drawer);
+            if (target < 0) continue;
+            
+            out.writeCsvField(game.getName(drawer));
+            out.write(',');
+            out.writeCsvField(game.getName(target));
+            out.write(',');
+            out.writeCsvField(game.getSymbol(drawer));
+            out.write('\n');
+            report(++done, game.getAssignedCount(), progress);
+        }
+        progress.update(done, game.getAssignedCount());
+    }
+    
+    /**
+     * JSON Lines: jeden obiekt {"losujacy":..,"cel":..,"litera":..} na linię
+     */
+    private static void writeJsonLines(GameSnapshot game, ChannelTextWriter out, Progress progress) throws IOException {
+        long done = 0;
+        for (int drawer = 0; drawer < game.getPlayerCount(); drawer++) {
+            int target = game.getTargetId(drawer);
+            if (target < 0) continue;
+            
+            out.write("{\"losujacy\":");
+            out.writeJsonString(game.getName(drawer));
+            out.write(",\"cel\":");
+            out.writeJsonString(game.getName(target));
+            out.write(",\"litera\":");
+            out.writeJsonString(game.getSymbol(drawer));
+            out.write("}\n");
+            report(++done, game.getAssignedCount(), progress);
+        }
+        progress.update(done, game.getAssignedCount());
+    }
+    
+    /**
+     * Ozdobny raport TXT (nagłówek, ograniczenia, litery graczy, przydziały, podsumowanie)
+     */
+    private static void writeReport(GameSnapshot game, ChannelTextWriter out, Progress progress) throws IOException {
+        String now = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        long total = (long) game.getTurnCount() + game.getAssignedCount();
+        long done = 0;
+        
+        // === NAGŁÓWEK PLIKU ===
+        out.write("╔═══════════════════════════════════════════════════════════╗\n");
+        out.write("║                    RANDOMIZER - WYNIKI                   ║\n");
+        out.write("╚═══════════════════════════════════════════════════════════╝\n\n");
+        
+        out.write("📅 Data wygenerowania: ").write(now).write('\n');
+        out.write("👥 Liczba uczestników: ").writeInt(game.getPlayerCount()).write('\n');
+        out.write("🎯 Liczba przydziałów: ").writeInt(game.getAssignedCount()).write('\n');
+        
+        // === SEKCJA WYKLUCZONYCH LITER ===
+        if (!game.getExcludedLetters().isEmpty()) {
+            out.write("❌ Wykluczone litery: ").write(game.getExcludedLetters().toString()).write('\n');
+        }
+        
+        // === SEKCJA OGRANICZEŃ ===
+        if (game.getRestrictionCount() > 0) {
+            out.write("🚫 Ograniczenia par: ").writeInt(game.getRestrictionCount()).write('\n');
+            for (int i = 0; i < game.getRestrictionCount(); i++) {
+                out.write("   • ").write(game.getRestriction(i).get(0))
+                    .write(" ↔ ").write(game.getRestriction(i).get(1)).write('\n');
+            }
+        }
+        
+        // === SEKCJA GRUP OGRANICZEŃ ===
+        if (game.getGroupCount() > 0) {
+            int[] sizes = new int[game.getGroupCount()];
+            for (int player = 0; player < game.getPlayerCount(); player++) {
+                if (game.getGroupOf(player) >= 0) sizes[game.getGroupOf(player)]++;
+            }
+            out.write("🏠 Grupy (członkowie nie losują siebie nawzajem): ").writeInt(game.getGroupCount()).write('\n');
+            for (int group = 0; group < sizes.length; group++) {
+                out.write("   • ").write(game.getGroupName(group)).write(" (")
+                    .writeInt(sizes[group]).write(" osób)\n");
+            }
+        }
+        
+        out.write('\n').write("=".repeat(60)).write('\n');
+        out.write("                       FINALNE PRZYDZIAŁY\n");
+        out.write("=".repeat(60)).write("\n\n");
+        
+        // === WYNIKI LOSOWANIA POSZCZEGÓLNYCH GRACZY ===
+        out.write("🎲 WYNIKI LOSOWANIA LITER:\n");
+        out.write("-".repeat(30)).write('\n');
+        for (int player = 0; player < game.getTurnCount(); player++) {
+            out.writePadded(game.getName(player), 20).write(" → ").write(game.getSymbol(player)).write('\n');
+            report(++done, total, progress);
+        }
+        
+        out.write("\n🎯 FINALNE PRZYDZIAŁY (kto kogo wylosował):\n");
+        out.write("-".repeat(50)).write('\n');
+        
+        // === ZAPISANIE KAŻDEGO PRZYDZIAŁU W CZYTELNYM FORMACIE ===
+        int number = 0;
+        for (int drawer = 0; drawer < game.getPlayerCount(); drawer++) {
+            int target = game.getTargetId(drawer);
+            if (target < 0) continue;
+            
+            out.writeInt(++number).write(". ");
+            out.writePadded(game.getName(drawer), 15).write(" → ");
+            out.writePadded(game.getName(target), 15).write(" [Litera: ");
+            out.write(game.getSymbol(drawer)).write("]\n");
+            report(++done, total, progress);
+        }
+        
+        // === PODSUMOWANIE ===
+        out.write('\n').write("=".repeat(60)).write('\n');
+        out.write("                        PODSUMOWANIE\n");
+        out.write("=".repeat(60)).write('\n');
+        int unassigned = game.getPlayerCount() - game.getAssignedCount();
+        if (unassigned > 0) {
+            // Gra w trakcie (np. eksport z serwera) albo bez pełnego przydziału - bez potwierdzeń reguł
+            out.write("⚠️ Bez przydziału: ").writeInt(unassigned)
+                .write(" z ").writeInt(game.getPlayerCount()).write(" uczestników");
+            out.write(game.getTurnCount() < game.getPlayerCount() ? " (gra nie jest zakończona)\n" : "\n");
+        } else {
+            out.write("✅ Wszyscy uczestnicy mają swoje przydziały\n");
+            out.write("✅ Nikt nie wylosował samego siebie\n");
+            if (game.getRestrictionCount() > 0) {
+                out.write("✅ Wszystkie ograniczenia zostały uwzględnione\n");
+            }
+            if (game.getGroupCount() > 0) {
+                out.write("✅ Członkowie grup nie wylosowali siebie nawzajem\n");
+            }
+            if (!game.getExcludedLetters().isEmpty()) {
+                out.write("✅ Wykluczone litery nie zostały wylosowane\n");
+            }
+        }
+        
+        out.write("\n📝 Plik wygenerowany przez Randomizer v2.0\n");
+        out.write("🕒 ").write(now).write('\n');
+        progress.update(done, total);
+    }
+    
+    /**
+     * Co PROGRESS_STEP rekordów zgłasza postęp i sprawdza anulowanie
+     */
+    private static void report(long done, long total, Progress progress) {
+        if (done % PROGRESS_STEP != 0) return;
+        
+        if (progress.isCancelled()) {
+            throw new CancellationException("Eksport został anulowany.");
+        }
+        progress.update(done, total);
+    }
+    
+    // === ZAPIS TEKSTU DO KANAŁU ===
+    
+    /**
+     * Zapis tekstu UTF-8 do kanału NIO przez stałe, wielokrotnie używane bufory
+     */
+    static final class ChannelTextWriter {
+        private final WritableByteChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final CharBuffer chars = CharBuffer.allocate(8 * 1024);
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(64 * 1024);
+        // Bufor cyfr liczby całkowitej
+        private final char[] digits = new char[11];
+        
+        ChannelTextWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+        
+        ChannelTextWriter write(char c) throws IOException {
+            if (!chars.hasRemaining()) encodeChars(false);
+            chars.put(c);
+            return this;
+        }
+        
+        ChannelTextWriter write(CharSequence text) throws IOException {
+            for (int i = 0; i < text.length(); i++) {
+                write(text.charAt(i));
+            }
+            return this;
+        }
+        
+        /**
+         * Zapisuje tekst wyrównany spacjami do podanej szerokości (odpowiednik %-Ns)
+         */
+        ChannelTextWriter writePadded(CharSequence text, int width) throws IOException {
+            write(text);
+            for (int i = text.length(); i < width; i++) write(' ');
+            return this;
+        }
+        
+        ChannelTextWriter writeInt(int value) throws IOException {
+            if (value < 0) {
+                write('-');
+                value = -value;
+            }
+            int length = 0;
+            do {
+                digits[length++] = (char) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            while (length > 0) write(digits[--length]);
+            return this;
+        }
+        
+        /**
+         * Pole CSV - w cudzysłowach tylko wtedy, gdy zawiera przecinek, cudzysłów lub nową linię
+         */
+        void writeCsvField(String text) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < text.length() && !quote; i++) {
+                char c = text.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                write(text);
+                return;
+            }
+            write('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') write('"');
+                write(c);
+            }
+            write('"');
+        }
+        
+        /**
+         * Tekst JSON w cudzysłowach, ze znakami specjalnymi zapisanymi jako sekwencje ucieczki
+         */
+        void writeJsonString(String text) throws IOException {
+            write('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '"' -> write("\\\"");
+                    case '\\' -> write("\\\\");
+                    case '\n' -> write("\\n");
+                    case '\r' -> write("\\r");
+                    case '\t' -> write("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            write("\\u00");
+                            write(Character.forDigit(c >> 4, 16));
+                            write(Character.forDigit(c & 0xF, 16));
+                        } else {
+                            write(c);
+                        }
+                    }
+                }
+            }
+            write('"');
+        }
+        
+        /**
+         * Koduje zgromadzone znaki i zapisuje wszystko do kanału
+         */
+        void flush() throws IOException {
+            encodeChars(true);
+            encoder.flush(bytes);
+            drainBytes();
+            encoder.reset();
+        }
+        
+        private void encodeChars(boolean endOfInput) throws IOException {
+            chars.flip();
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, endOfInput);
+                if (result.isOverflow()) {
+                    drainBytes();
+                } else if (result.isUnderflow()) {
+                    break;
+                } else {
+                    result.throwException();
+                }
+            }
+            // Niedokończona para surogatów zostaje w buforze do następnego kodowania
+            chars.compact();
+        }
+        
+        private void drainBytes() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            bytes.clear();
+        }
+    }
+}
@@ -0,0 +1,440 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Dziennik losowań (write-ahead log), dzięki któremu awaria lub przypadkowe zamknięcie okna
+ * w trakcie gry nie kasuje wylosowanych wyników.
+ *
+ * Stan gry zapisywany jest okresowo jako punkt kontrolny (plik sesji z SessionStore), a każde
+ * losowanie od tego momentu dopisywane jest do dziennika jako rekord stałej wielkości:
+ * <pre>
+ * gracz (int) | cel (int, -1 = brak) | numer kodu (int, -1 = brak) | litera (char) | 0 (short) | CRC32 (int)
+ * </pre>
+ * Nagłówek dziennika wskazuje punkt kontrolny (jego sumę kontrolną i liczbę tur) oraz,
+ * po pierwszym kodzie w grze, stan generatora kodów. Dopisanie rekordu to jeden zapis do
+ * pamięci podręcznej systemu plików; fsync wykonuje osobny wątek zbiorczo dla wszystkich
+ * rekordów, które napłynęły w krótkim oknie (group commit), więc losowanie na nie nie czeka.
+ * Punkt kontrolny trzyma blokadę silnika tylko na czas migawki stanu - zapis pliku sesji
+ * i fsync wykonywane są już bez niej, więc nie wstrzymują odczytów ani zmian gry.
+ *
+ * Po awarii recover() wczytuje punkt kontrolny i powtarza w silniku poprawne rekordy
+ * dziennika - odczyt kończy się na pierwszym niepełnym lub uszkodzonym rekordzie.
+ */
+public final class RollJournal implements PairingEngine.RollListener, AutoCloseable {
+    // "RNDJ"
+    private static final int MAGIC = 0x52_4E_44_4A;
+    private static final short VERSION = 1;
+    private static final short FLAG_CODES = 1;
+    // Rozmiar nagłówka i rekordu w bajtach
+    private static final int HEADER_SIZE = 256;
+    private static final int RECORD_SIZE = 20;
+    // Co ile powtórzonych rekordów odtwarzanie zgłasza postęp i sprawdza anulowanie
+    private static final int RECOVER_PROGRESS_STEP = 4096;
+    // Okno zbierania rekordów przed wspólnym fsync
+    private static final long COMMIT_WINDOW_MS = 5;
+    // Liczba prób punktu kontrolnego bez blokady silnika (gdy w tym czasie ktoś losuje)
+    private static final int CHECKPOINT_ATTEMPTS = 3;
+    // Nazwy plików w katalogu dziennika
+    private static final String SESSION_FILE = "gra.rnds";
+    private static final String JOURNAL_FILE = "gra.rlog";
+    private static final String LOCK_FILE = "gra.lock";
+    // Pliki blokady katalogów zajętych przez ten proces
+    private static final Set<Path> LOCKED_DIRECTORIES = new HashSet<>();
+    
+    private final PairingEngine engine;
+    private final Path sessionFile;
+    private final FileChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+    private final Thread committer;
+    
+    // Punkt kontrolny, do którego należy dziennik (suma kontrolna pliku sesji i liczba tur)
+    private int baseChecksum;
+    private int baseTurns;
+    private int basePlayers;
+    // Zmiany gry poza losowaniami (markChanged) i ich liczba objęta punktem kontrolnym - gdy się
+    // różnią, dziennik należy do starszego stanu i losowania czekają na następny punkt kontrolny
+    private final AtomicLong changes = new AtomicLong();
+    private long baseChanges = -1;
+    // Liczba wszystkich losowań zgłoszonych przez silnik (także niezapisanych do dziennika)
+    private long rolls;
+    // Pozycja następnego rekordu i czy nagłówek zawiera już generator kodów
+    private long position;
+    private boolean codesInHeader;
+    // Liczba rekordów zapisanych i utrwalonych przez fsync
+    private long written;
+    private long synced;
+    private boolean closed;
+    // Pierwszy błąd zapisu (dziennik przestaje wtedy przyjmować rekordy)
+    private volatile IOException failure;
+    
+    private RollJournal(PairingEngine engine, Path directory) throws IOException {
+        this.engine = engine;
+        this.sessionFile = directory.resolve(SESSION_FILE);
+        this.channel = FileChannel.open(directory.resolve(JOURNAL_FILE), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.committer = new Thread(this::commitLoop, "roll-journal");
+        committer.setDaemon(true);
+    }
+    
+    /**
+     * Otwiera dziennik w katalogu, zapisuje bieżący stan gry jako punkt kontrolny
+     * i zaczyna zapisywać losowania silnika
+     * @throws IOException gdy katalogu lub plików nie da się zapisać
+     */
+    public static RollJournal open(PairingEngine engine, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        RollJournal journal = new RollJournal(engine, directory);
+        // Odbiorca ustawiany przed punktem kontrolnym, żeby policzył losowania wykonane w jego trakcie
+        engine.setRollListener(journal);
+        try {
+            journal.checkpoint();
+        } catch (IOException | RuntimeException e) {
+            engine.setRollListener(null);
+            journal.channel.close();
+            throw e;
+        }
+        journal.committer.start();
+        return journal;
+    }
+    
+    /**
+     * Zapisuje bieżący stan gry jako nowy punkt kontrolny i czyści dziennik
+     * (po zmianach stanu, które nie są pojedynczymi losowaniami: nowa gra, ograniczenia,
+     * przydział wszystkich par naraz, wczytanie sesji)
+     * Pod blokadą silnika wykonywana jest tylko migawka; jeśli zanim dziennik zostanie wyczyszczony
+     * ktoś losował, migawka jest powtarzana, a po kilku próbach zapis odbywa się pod blokadą silnika.
+     */
+    public void checkpoint() throws IOException {
+        for (int attempt = 0; attempt < CHECKPOINT_ATTEMPTS; attempt++) {
+            long changesMark = changes.get();
+            GameSnapshot game;
+            long rollsMark;
+            // Licznik losowań zmieniany jest tylko pod blokadą silnika
+            synchronized (engine) {
+                rollsMark = rolls;
+                game = engine.snapshot();
+            }
+            synchronized (this) {
+                checkOpen();
+                if (rolls == rollsMark) {
+                    writeCheckpoint(game, changesMark);
+                    return;
+                }
+            }
+        }
+        
+        // Losowania napływają bez przerwy (np. szybkie losowanie w tle)
+        // Kolejność blokad jak przy losowaniu: silnik, potem dziennik
+        long changesMark = changes.get();
+        synchronized (engine) {
+            synchronized (this) {
+                checkOpen();
+                writeCheckpoint(engine.snapshot(), changesMark);
+            }
+        }
+    }
+    
+    /**
+     * Zapisuje migawkę jako punkt kontrolny, czyści dziennik i utrwala oba pliki (pod blokadą dziennika)
+     */
+    private void writeCheckpoint(GameSnapshot game, long changesMark) throws IOException {
+        try {
+            SessionStore.save(game, sessionFile);
+            channel.truncate(0);
+            baseChecksum = SessionStore.checksum(sessionFile);
+            baseTurns = game.getTurnCount();
+            basePlayers = game.getPlayerCount();
+            baseChanges = changesMark;
+            position = HEADER_SIZE;
+            writeHeader(game.codeGenerator);
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        synced = written;
+        notifyAll();
+    }
+    
+    /**
+     * Zgłasza zmianę gry, która nie jest losowaniem (nowa gra, edycja listy, ograniczenia) - bez blokad,
+     * więc można ją wywołać z wątku Swinga. Do następnego punktu kontrolnego losowania nie są
+     * dopisywane do dziennika, bo należy on do poprzedniego stanu; obejmie je migawka punktu kontrolnego.
+     */
+    public void markChanged() {
+        changes.incrementAndGet();
+    }
+    
+    // === ZAPIS LOSOWAŃ ===
+    
+    /**
+     * Dopisuje losowanie do dziennika; utrwalenie (fsync) następuje zbiorczo w tle
+     */
+    @Override
+    public synchronized void rolled(int playerId, char letter, int codeNumber, int targetId) {
+        rolls++;
+        if (closed || failure != null || baseChanges != changes.get()) return;
+        try {
+            // Pierwszy kod w grze - generator trafia do nagłówka przed rekordem
+            if (codeNumber >= 0 && !codesInHeader) {
+                writeHeader(engine.getCodeGenerator());
+            }
+            
+            record.clear();
+            record.putInt(playerId).putInt(targetId).putInt(codeNumber).putChar(letter).putShort((short) 0);
+            crc.reset();
+            crc.update(record.array(), 0, RECORD_SIZE - Integer.BYTES);
+            record.putInt((int) crc.getValue());
+            record.flip();
+            writeFully(record, position);
+            position += RECORD_SIZE;
+            written++;
+            notifyAll();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+    
+    /**
+     * Nagłówek: magic | wersja | flagi | liczba graczy | suma kontrolna punktu kontrolnego
+     * | liczba tur w punkcie kontrolnym | [długość kodu | klucze rund | liczba liter | litery] | CRC32
+     */
+    private void writeHeader(CodeGenerator codes) throws IOException {
+        Arrays.fill(header.array(), (byte) 0);
+        header.clear();
+        header.putInt(MAGIC).putShort(VERSION).putShort(codes != null ? FLAG_CODES : 0);
+        header.putInt(basePlayers).putInt(baseChecksum).putInt(baseTurns);
+        if (codes != null) {
+            header.putInt(codes.getLength());
+            for (long key : codes.getRoundKeys()) header.putLong(key);
+            String letters = codes.getLetters();
+            header.putInt(letters.length());
+            for (int i = 0; i < letters.length(); i++) header.putChar(letters.charAt(i));
+        }
+        crc.reset();
+        crc.update(header.array(), 0, HEADER_SIZE - Integer.BYTES);
+        header.putInt(HEADER_SIZE - Integer.BYTES, (int) crc.getValue());
+        header.position(0).limit(HEADER_SIZE);
+        writeFully(header, 0);
+        codesInHeader = codes != null;
+    }
+    
+    private void writeFully(ByteBuffer buffer, long at) throws IOException {
+        while (buffer.hasRemaining()) {
+            at += channel.write(buffer, at);
+        }
+    }
+    
+    /**
+     * Wątek utrwalający: czeka na nowe rekordy, zbiera je przez krótkie okno
+     * i wykonuje jeden fsync dla całej grupy
+     */
+    private void commitLoop() {
+        while (true) {
+            long target;
+            synchronized (this) {
+                while (synced == written && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (synced == written) return;
+            }
+            try {
+                Thread.sleep(COMMIT_WINDOW_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                target = written;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    synced = written;
+                    notifyAll();
+                }
+                return;
+            }
+            synchronized (this) {
+                synced = Math.max(synced, target);
+                notifyAll();
+            }
+        }
+    }
+    
+    /**
+     * Czeka, aż wszystkie dopisane losowania zostaną utrwalone
+     */
+    public synchronized void sync() throws IOException {
+        while (synced < written && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+    
+    /**
+     * Zwraca błąd zapisu dziennika (null gdy dziennik działa)
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+    
+    /**
+     * Utrwala dziennik, odłącza go od silnika i zamyka plik
+     */
+    @Override
+    public void close() throws IOException {
+        engine.setRollListener(null);
+        try {
+            sync();
+        } finally {
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+            try {
+                committer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+    
+    private void checkOpen() throws IOException {
+        if (closed) throw new IOException("Dziennik losowań jest zamknięty.");
+        if (failure != null) throw failure;
+    }
+    
+    // === WYŁĄCZNOŚĆ KATALOGU ===
+    
+    /**
+     * Zajmuje katalog dziennika na wyłączność (blokada pliku w systemie operacyjnym) - drugie okno
+     * programu nie nadpisze ani nie odtworzy dziennika pierwszego. Katalog trzeba zająć przed
+     * recover() i open(); blokada trwa do zamknięcia zwróconego kanału (przy zamykaniu programu)
+     * albo końca procesu, a katalogu raz zajętego w procesie nie zajmuje się ponownie.
+     * @return kanał trzymający blokadę albo null, gdy katalog zajmuje już inny proces
+     * @throws IOException gdy nie da się utworzyć pliku blokady
+     */
+    public static FileChannel lockDirectory(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path lockFile = directory.resolve(LOCK_FILE).toAbsolutePath().normalize();
+        synchronized (LOCKED_DIRECTORIES) {
+            // Zamknięcie drugiego kanału tego samego pliku zwolniłoby blokadę całego procesu,
+            // więc katalog zajęty już w tym procesie nie jest otwierany ponownie
+            if (LOCKED_DIRECTORIES.contains(lockFile)) return null;
+            FileChannel lock = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                if (lock.tryLock() != null) {
+                    LOCKED_DIRECTORIES.add(lockFile);
+                    return lock;
+                }
+            } catch (OverlappingFileLockException e) {
+                // Katalog zajęty w tym procesie z pominięciem lockDirectory
+            }
+            lock.close();
+            return null;
+        }
+    }
+    
+    // === ODTWARZANIE PO AWARII ===
+    
+    /**
+     * Odtwarza grę z katalogu dziennika: wczytuje punkt kontrolny i powtarza zapisane losowania
+     * @param progress postęp powtarzania rekordów dziennika i możliwość przerwania
+     * @return true gdy w katalogu był stan gry i został przywrócony w silniku
+     * @throws IOException gdy plików nie da się odczytać
+     * @throws IllegalArgumentException gdy punkt kontrolny jest uszkodzony
+     * @throws CancellationException gdy przerwano odtwarzanie (silnik jest wtedy w stanie pośrednim)
+     */
+    public static boolean recover(PairingEngine engine, Path directory, Progress progress) throws IOException {
+        Path session = directory.resolve(SESSION_FILE);
+        if (!Files.exists(session)) return false;
+        GameSnapshot base = SessionStore.load(session);
+        engine.restore(base);
+        
+        Path journalFile = directory.resolve(JOURNAL_FILE);
+        if (!Files.exists(journalFile)) return true;
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (!readFully(channel, header, 0) || !validCrc(header, HEADER_SIZE)) return true;
+            
+            // Dziennik musi należeć do tego punktu kontrolnego
+            if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION
+                    || header.getInt(8) != base.getPlayerCount()
+                    || header.getInt(12) != SessionStore.checksum(session)
+                    || header.getInt(16) != base.getTurnCount()) {
+                return true;
+            }
+            CodeGenerator codes = null;
+            if ((header.getShort(6) & FLAG_CODES) != 0) {
+                header.position(20);
+                int length = header.getInt();
+                long[] keys = new long[6];
+                for (int i = 0; i < keys.length; i++) keys[i] = header.getLong();
+                char[] letters = new char[Math.min(Math.max(header.getInt(), 0), LetterAllocator.MAX_LETTERS)];
+                for (int i = 0; i < letters.length; i++) letters[i] = header.getChar();
+                codes = new CodeGenerator(new String(letters), length, keys, 0);
+            }
+            
+            // Powtórzenie rekordów do pierwszego niepełnego, uszkodzonego albo niepasującego
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            long total = Math.max(0, (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+            long done = 0;
+            for (long at = HEADER_SIZE; readFully(channel, record, at); at += RECORD_SIZE) {
+                if (!validCrc(record, RECORD_SIZE)) break;
+                if (++done % RECOVER_PROGRESS_STEP == 0) {
+                    if (progress.isCancelled()) {
+                        throw new CancellationException("Odtwarzanie gry zostało anulowane.");
+                    }
+                    progress.update(done, total);
+                }
+                try {
+                    engine.replayRoll(record.getInt(0), record.getChar(12), record.getInt(8), record.getInt(4), codes);
+                } catch (IllegalArgumentException e) {
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+    
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long at) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, at + buffer.position());
+            if (read < 0) return false;
+        }
+        return true;
+    }
+    
+    private static boolean validCrc(ByteBuffer buffer, int size) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, size - Integer.BYTES);
+        return buffer.getInt(size - Integer.BYTES) == (int) crc.getValue();
+    }
+}
@@ -1,11 +1,16 @@
 import javax.swing.*;
+import javax.swing.border.Border;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 
 /**
  * Klasa RollingDialog - okno modalne do losowania liter przez poszczególnych graczy
- * Wyświetla się dla każdego gracza w jego turze i pozwala na wylosowanie litery
+ * Jedno okno obsługuje wszystkie tury: komponenty, czcionki i obramowania tworzone są raz,
+ * a w każdej turze zmieniają się tylko teksty (showTurn).
+ *
+ * Animacja wyniku (pojawienie się, podskoki karty z literą, świecenie ramki) napędzana jest
+ * jednym zegarem; wszystkie klatki (kolory, obramowania, rozmiary) są przygotowane z góry,
+ * więc podczas animacji nie powstają nowe obiekty. Zegar zatrzymuje się po ostatniej klatce,
+ * przy przejściu do następnego gracza i przy zamknięciu okna.
  */
 public class RollingDialog extends JDialog {
     // === PALETA KOLORÓW (zgodna z głównym oknem) ===
@@ -16,21 +21,57 @@ public class RollingDialog extends JDialog {
     private static final Color CARD_COLOR = Color.WHITE;                     // Biały
     private static final Color TEXT_COLOR = Color.BLACK;                     // Wszystkie teksty czarne
     private static final Color BORDER_COLOR = new Color(222, 226, 230);      // Jasny szary
-
+    
+    // === CZCIONKI ===
+    private static final Font PLAYER_FONT = new Font("Segoe UI", Font.BOLD, 32);
+    private static final Font INFO_FONT = new Font("Segoe UI", Font.PLAIN, 18);
+    private static final Font LETTER_FONT = new Font("Segoe UI", Font.BOLD, 52);
+    
+    // === OBRAMOWANIA PRZYCISKÓW (zwykłe, po najechaniu, wciśnięte) ===
+    private static final Border BUTTON_BORDER = buttonBorder(BorderFactory.createRaisedBevelBorder(), Color.BLACK, 3);
+    private static final Border BUTTON_HOVER_BORDER = buttonBorder(BorderFactory.createRaisedBevelBorder(), Color.BLUE, 4);
+    private static final Border BUTTON_PRESSED_BORDER = buttonBorder(BorderFactory.createLoweredBevelBorder(), Color.RED, 3);
+    
+    // === KLATKI ANIMACJI ===
+    
+    // Odstęp między klatkami zegara animacji (50 klatek na sekundę)
+    private static final int FRAME_MS = 20;
+    // Pojawienie się wyniku: przezroczystość tła panelu od 1/FADE_FRAMES do pełnej
+    private static final int FADE_FRAMES = 30;
+    // Podskoki karty z literą: BOUNCES razy powiększenie i powrót, każda faza BOUNCE_STEP klatek
+    private static final int BOUNCES = 3;
+    private static final int BOUNCE_STEP = 6;
+    private static final int BOUNCE_FRAMES = BOUNCES * 2 * BOUNCE_STEP;
+    // Świecenie ramki karty: poziom jasności zmienia się co GLOW_STEP klatek przez GLOW_FRAMES klatek (3 s)
+    private static final int GLOW_LEVELS = 10;
+    private static final int GLOW_STEP = 5;
+    private static final int GLOW_FRAMES = 3000 / FRAME_MS;
+    private static final int LAST_FRAME = FADE_FRAMES + BOUNCE_FRAMES + GLOW_FRAMES;
+    
+    private static final Color[] FADE_COLORS = new Color[FADE_FRAMES];
+    private static final Border LETTER_CARD_BORDER = letterCardBorder(ACCENT_COLOR.darker());
+    private static final Border[] GLOW_BORDERS = new Border[GLOW_LEVELS + 1];
+    static {
+        for (int i = 0; i < FADE_FRAMES; i++) {
+            int alpha = Math.min(255, (i + 1) * 255 / FADE_FRAMES);
+            FADE_COLORS[i] = new Color(CARD_COLOR.getRed(), CARD_COLOR.getGreen(), CARD_COLOR.getBlue(), alpha);
+        }
+        for (int level = 0; level <= GLOW_LEVELS; level++) {
+            int intensity = (100 + level * 15) / 10;
+            GLOW_BORDERS[level] = letterCardBorder(new Color(
+                Math.min(255, ACCENT_COLOR.getRed() + intensity),
+                Math.min(255, ACCENT_COLOR.getGreen() + intensity),
+                Math.min(255, ACCENT_COLOR.getBlue() + intensity)
+            ));
+        }
+    }
+    
     // === DANE GRACZA I TURY ===
     
     // Imię aktualnie losującego gracza
     private String playerName;
-    // Numer aktualnej tury (1, 2, 3...)
-    private int turnNumber;
-    // Całkowita liczba graczy w grze
-    private int totalPlayers;
     // Wynik losowania tego gracza (imię + litera)
-    private RandomizerApp.PlayerResult result;
-    
-    // === STATYCZNE ZMIENNE DO ZAPAMIĘTYWANIA ROZMIARU OKNA ===
-    private static Dimension savedSize = null;
-    private static Point savedLocation = null;
+    private PairingEngine.PlayerResult result;
     
     // === KOMPONENTY INTERFEJSU ===
     
@@ -44,27 +85,36 @@ public class RollingDialog extends JDialog {
     private JButton rollButton;
     // Panel wyświetlający wynik losowania
     private JPanel resultPanel;
+    // Karta z literą, litera, jej opis i wylosowana osoba
+    private JPanel letterCard;
+    private JLabel letterLabel;
+    private JLabel letterDesc;
+    private JLabel targetValue;
     // Przycisk przechodzący do następnego gracza
     private JButton nextButton;
     
+    // === ANIMACJA ===
+    
+    // Jedyny zegar animacji i numer bieżącej klatki
+    private final Timer animationClock;
+    private int frame;
+    // Rozmiar karty z literą (zwykły i powiększony) - liczony raz na turę
+    private final Dimension letterCardSize = new Dimension();
+    private final Dimension letterCardGrownSize = new Dimension();
+    // Ostatnio ustawione klatki (zmiana komponentu tylko przy zmianie klatki)
+    private boolean letterCardGrown;
+    private int glowLevel;
+    
     // === REFERENCJA DO GŁÓWNEJ APLIKACJI ===
     private RandomizerApp randomizer; // Referencja do głównej aplikacji
     
     /**
-     * Konstruktor okna modalnego dla losowania litery
+     * Konstruktor okna modalnego dla losowania litery (okno pokazuje showTurn)
      * @param parent główne okno aplikacji
-     * @param playerName imię aktualnie losującego gracza
-     * @param turnNumber numer tury (1-based)
-     * @param totalPlayers całkowita liczba graczy
      */
-    public RollingDialog(RandomizerApp parent, String playerName, int turnNumber, int totalPlayers) {
+    public RollingDialog(RandomizerApp parent) {
         // Utworzenie okna modalnego (blokuje główne okno)
-        super(parent, "Losowanie Litery - " + playerName, true);
-        
-        // Zapisanie parametrów
-        this.playerName = playerName;
-        this.turnNumber = turnNumber;
-        this.totalPlayers = totalPlayers;
+        super(parent, "Losowanie Litery", true);
         this.randomizer = parent; // Zapisanie referencji do głównej aplikacji
         
         // Ustawienie tła okna
@@ -74,26 +124,16 @@ public class RollingDialog extends JDialog {
         initializeComponents();
         setupLayout();
         setupEventListeners();
+        animationClock = new Timer(FRAME_MS, e -> nextFrame());
+        animationClock.setCoalesce(true);
         
         // === TRYB PEŁNOEKRANOWY DLA OKNA MODALNEGO ===
-        // Pobranie rozmiaru ekranu
+        // Pierwsze otwarcie - większy rozmiar (90% ekranu); później okno zachowuje rozmiar i pozycję
         Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
-        
-        // Przywrócenie zapisanego rozmiaru i pozycji lub ustawienie większego rozmiaru
-        if (savedSize != null) {
-            setSize(savedSize);
-        } else {
-            // Pierwsze otwarcie - ustaw na większy rozmiar (90% ekranu)
-            int width = (int)(screenSize.width * 0.9);
-            int height = (int)(screenSize.height * 0.9);
-            setSize(width, height);
-        }
-        
-        if (savedLocation != null) {
-            setLocation(savedLocation);
-        } else {
-            setLocationRelativeTo(null); // Wycentrowanie na ekranie
-        }
+        int width = (int)(screenSize.width * 0.9);
+        int height = (int)(screenSize.height * 0.9);
+        setSize(width, height);
+        setLocationRelativeTo(null); // Wycentrowanie na ekranie
         
         // Zwiększenie minimalnego rozmiaru
         setMinimumSize(new Dimension(1200, 900));
@@ -104,35 +144,47 @@ public class RollingDialog extends JDialog {
         // setUndecorated(true); // Usuwa ramkę okna
         // GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().setFullScreenWindow(this);
         
-        // Dodanie listenera do zapisywania rozmiaru przy zmianie
-        addComponentListener(new java.awt.event.ComponentAdapter() {
-            @Override
-            public void componentResized(java.awt.event.ComponentEvent e) {
-                // Zapisanie aktualnego rozmiaru
-                savedSize = getSize();
-            }
-            
-            @Override
-            public void componentMoved(java.awt.event.ComponentEvent e) {
-                // Zapisanie aktualnej pozycji
-                savedLocation = getLocation();
-            }
-        });
-        
         // Dodanie skrótu klawiszowego ESC do zamknięcia okna
         addKeyListener(new java.awt.event.KeyAdapter() {
             @Override
             public void keyPressed(java.awt.event.KeyEvent e) {
                 if (e.getKeyCode() == java.awt.event.KeyEvent.VK_ESCAPE) {
-                    setVisible(false);
-                    dispose();
+                    endTurn();
                 }
             }
         });
         
         // Upewnienie się, że okno może otrzymywać zdarzenia klawiatury
         setFocusable(true);
+    }
+    
+    /**
+     * Pokazuje okno dla tury gracza i czeka, aż gracz przejdzie dalej (okno modalne)
+     * @param playerName imię aktualnie losującego gracza
+     * @param turnNumber numer tury (1-based)
+     * @param totalPlayers całkowita liczba graczy
+     * @return wynik losowania albo null, gdy okno zamknięto bez losowania
+     */
+    public PairingEngine.PlayerResult showTurn(String playerName, int turnNumber, int totalPlayers) {
+        this.playerName = playerName;
+        this.result = null;
+        setTitle("Losowanie Litery - " + playerName);
+        
+        // Reset stanu z poprzedniej tury
+        stopAnimation();
+        playerLabel.setText(playerName + " - Twoja Kolej!");
+        turnInfoLabel.setText("Tura " + turnNumber + " z " + totalPlayers);
+        instructionsLabel.setText("<html><center>" + playerName + ", kliknij przycisk poniżej<br>aby wylosować swoją literę i osobę!</center></html>");
+        rollButton.setText("Losuj!");
+        rollButton.setBorder(BUTTON_BORDER);
+        rollButton.setEnabled(true);
+        nextButton.setBorder(BUTTON_BORDER);
+        nextButton.setEnabled(false);
+        resultPanel.setVisible(false);
+        
         requestFocus();
+        setVisible(true);
+        return result;
     }
     
     /**
@@ -140,20 +192,20 @@ public class RollingDialog extends JDialog {
      */
     private void initializeComponents() {
         // === NAGŁÓWEK Z IMIENIEM GRACZA ===
-        playerLabel = new JLabel(playerName + " - Twoja Kolej!");
-        playerLabel.setFont(new Font("Segoe UI", Font.BOLD, 32)); // Zwiększona czcionka
+        playerLabel = new JLabel();
+        playerLabel.setFont(PLAYER_FONT); // Zwiększona czcionka
         playerLabel.setHorizontalAlignment(SwingConstants.CENTER);
         playerLabel.setForeground(TEXT_COLOR);
         
         // === INFORMACJA O POSTĘPIE TURY ===
-        turnInfoLabel = new JLabel("Tura " + turnNumber + " z " + totalPlayers);
-        turnInfoLabel.setFont(new Font("Segoe UI", Font.PLAIN, 18)); // Zwiększona czcionka
+        turnInfoLabel = new JLabel();
+        turnInfoLabel.setFont(INFO_FONT); // Zwiększona czcionka
         turnInfoLabel.setHorizontalAlignment(SwingConstants.CENTER);
         turnInfoLabel.setForeground(TEXT_COLOR);
         
         // === INSTRUKCJE DLA GRACZA ===
-        instructionsLabel = new JLabel("<html><center>" + playerName + ", kliknij przycisk poniżej<br>aby wylosować swoją literę i osobę!</center></html>");
-        instructionsLabel.setFont(new Font("Segoe UI", Font.PLAIN, 18)); // Zwiększona czcionka
+        instructionsLabel = new JLabel();
+        instructionsLabel.setFont(INFO_FONT); // Zwiększona czcionka
         instructionsLabel.setHorizontalAlignment(SwingConstants.CENTER);
         instructionsLabel.setBorder(BorderFactory.createCompoundBorder(
             BorderFactory.createLineBorder(PRIMARY_COLOR, 2),
@@ -177,6 +229,7 @@ public class RollingDialog extends JDialog {
         ));
         resultPanel.setBackground(CARD_COLOR);
         resultPanel.setVisible(false);
+        buildResultPanel();
         
         // === PRZYCISK NASTĘPNEGO GRACZA ===
         nextButton = createStyledButton("Następny Gracz", SECONDARY_COLOR, Color.WHITE, new Dimension(250, 60)); // Zwiększony rozmiar
@@ -184,6 +237,61 @@ public class RollingDialog extends JDialog {
         nextButton.setEnabled(false);
     }
     
+    /**
+     * Buduje zawartość panelu wyników (raz) - w turze zmieniają się tylko teksty
+     */
+    private void buildResultPanel() {
+        // === TYTUŁ WYNIKU ===
+        JLabel titleLabel = new JLabel("Wynik losowania:");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
+        titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        titleLabel.setForeground(TEXT_COLOR);
+        
+        // === KARTA Z LITERĄ (główny element) ===
+        letterCard = new JPanel(new BorderLayout());
+        letterCard.setBackground(ACCENT_COLOR);
+        letterCard.setBorder(LETTER_CARD_BORDER);
+        letterLabel = new JLabel();
+        letterLabel.setFont(LETTER_FONT);
+        letterLabel.setForeground(Color.WHITE);
+        letterLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        letterCard.add(letterLabel, BorderLayout.CENTER);
+        
+        // === OPIS LITERY ===
+        letterDesc = new JLabel();
+        letterDesc.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        letterDesc.setForeground(TEXT_COLOR);
+        letterDesc.setAlignmentX(Component.CENTER_ALIGNMENT);
+        
+        // === KARTA Z OSOBĄ ===
+        JPanel targetCard = new JPanel();
+        targetCard.setLayout(new BorderLayout());
+        targetCard.setBackground(CARD_COLOR);
+        targetCard.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(PRIMARY_COLOR, 3),
+            BorderFactory.createEmptyBorder(20, 25, 20, 25)
+        ));
+        JLabel targetTitle = new JLabel("Wylosowana osoba:");
+        targetTitle.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        targetTitle.setForeground(TEXT_COLOR);
+        targetTitle.setHorizontalAlignment(SwingConstants.CENTER);
+        targetValue = new JLabel();
+        targetValue.setFont(new Font("Segoe UI", Font.BOLD, 28));
+        targetValue.setForeground(PRIMARY_COLOR.darker());
+        targetValue.setHorizontalAlignment(SwingConstants.CENTER);
+        targetCard.add(targetTitle, BorderLayout.NORTH);
+        targetCard.add(targetValue, BorderLayout.CENTER);
+        
+        // === SKŁADANIE ELEMENTÓW WYNIKU ===
+        resultPanel.add(titleLabel);
+        resultPanel.add(Box.createVerticalStrut(16));
+        resultPanel.add(letterCard);
+        resultPanel.add(Box.createVerticalStrut(8));
+        resultPanel.add(letterDesc);
+        resultPanel.add(Box.createVerticalStrut(26));
+        resultPanel.add(targetCard);
+    }
+    
     /**
      * Tworzy stylizowany przycisk z efektami hover i lepszą widocznością (podobny do głównego okna)
      */
@@ -199,27 +307,16 @@ public class RollingDialog extends JDialog {
         button.setOpaque(true); // Zapewnienie nieprzezroczystości
         
         // Wyraźne obramowanie dla lepszej widoczności
-        button.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createRaisedBevelBorder(), // Poprawiona nazwa metody
-            BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(Color.BLACK, 3), // Grubsze czarne obramowanie
-                BorderFactory.createEmptyBorder(12, 25, 12, 25) // Większy padding
-            )
-        ));
+        button.setBorder(BUTTON_BORDER);
+        Color hoverColor = bgColor.brighter();
         
-        // Dodanie efektu hover z lepszym kontrastem
+        // Efekt hover z lepszym kontrastem i efekt kliknięcia (obramowania przygotowane z góry)
         button.addMouseListener(new java.awt.event.MouseAdapter() {
             public void mouseEntered(java.awt.event.MouseEvent evt) {
                 if (button.isEnabled()) {
-                    button.setBackground(bgColor.brighter());
-                    button.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createRaisedBevelBorder(),
-                        BorderFactory.createCompoundBorder(
-                            BorderFactory.createLineBorder(Color.BLUE, 4), // Niebieskie przy hover
-                            BorderFactory.createEmptyBorder(12, 25, 12, 25)
-                        )
-                    ));
-                    if (button == rollButton && button.isEnabled()) {
+                    button.setBackground(hoverColor);
+                    button.setBorder(BUTTON_HOVER_BORDER); // Niebieskie przy hover
+                    if (button == rollButton) {
                         button.setText("Kliknij aby losować!");
                     }
                 }
@@ -227,49 +324,50 @@ public class RollingDialog extends JDialog {
             public void mouseExited(java.awt.event.MouseEvent evt) {
                 if (button.isEnabled()) {
                     button.setBackground(bgColor);
-                    button.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createRaisedBevelBorder(),
-                        BorderFactory.createCompoundBorder(
-                            BorderFactory.createLineBorder(Color.BLACK, 3),
-                            BorderFactory.createEmptyBorder(12, 25, 12, 25)
-                        )
-                    ));
-                    if (button == rollButton && button.isEnabled()) {
+                    button.setBorder(BUTTON_BORDER);
+                    if (button == rollButton) {
                         button.setText("Losuj!");
                     }
                 }
             }
-        });
-        
-        // Dodanie efektu kliknięcia
-        button.addMouseListener(new java.awt.event.MouseAdapter() {
             public void mousePressed(java.awt.event.MouseEvent evt) {
                 if (button.isEnabled()) {
-                    button.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createLoweredBevelBorder(), // Poprawiona nazwa metody
-                        BorderFactory.createCompoundBorder(
-                            BorderFactory.createLineBorder(Color.RED, 3),
-                            BorderFactory.createEmptyBorder(12, 25, 12, 25)
-                        )
-                    ));
+                    button.setBorder(BUTTON_PRESSED_BORDER);
                 }
             }
             public void mouseReleased(java.awt.event.MouseEvent evt) {
                 if (button.isEnabled()) {
-                    button.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createRaisedBevelBorder(),
-                        BorderFactory.createCompoundBorder(
-                            BorderFactory.createLineBorder(Color.BLACK, 3),
-                            BorderFactory.createEmptyBorder(12, 25, 12, 25)
-                        )
-                    ));
+                    button.setBorder(BUTTON_BORDER);
                 }
             }
         });
         
         return button;
     }
-
+    
+    /**
+     * Obramowanie przycisku: fazka, kolorowa linia i wewnętrzny odstęp
+     */
+    private static Border buttonBorder(Border bevel, Color lineColor, int lineWidth) {
+        return BorderFactory.createCompoundBorder(
+            bevel,
+            BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(lineColor, lineWidth),
+                BorderFactory.createEmptyBorder(12, 25, 12, 25) // Większy padding
+            )
+        );
+    }
+    
+    /**
+     * Obramowanie karty z literą w podanym kolorze
+     */
+    private static Border letterCardBorder(Color color) {
+        return BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(color, 3),
+            BorderFactory.createEmptyBorder(25, 25, 25, 25)
+        );
+    }
+    
     /**
      * Tworzy układ komponentów w oknie modalnym z nowoczesnym stylem kart
      */
@@ -344,227 +442,129 @@ public class RollingDialog extends JDialog {
         // Przycisk losowania litery
         rollButton.addActionListener(e -> roll());
         
-        // Przycisk następnego gracza - zamyka okno modalne
-        nextButton.addActionListener(e -> {
-            setVisible(false); // Ukrywa okno
-            dispose(); // Zwalnia zasoby okna
-        });
+        // Przycisk następnego gracza - ukrywa okno (zostaje do następnej tury)
+        nextButton.addActionListener(e -> endTurn());
+    }
+    
+    /**
+     * Kończy turę: zatrzymuje animację i ukrywa okno (showTurn zwraca wynik)
+     */
+    private void endTurn() {
+        stopAnimation();
+        setVisible(false);
+    }
+    
+    /**
+     * Zamyka okno razem z zegarem animacji
+     */
+    @Override
+    public void dispose() {
+        stopAnimation();
+        super.dispose();
     }
     
     /**
      * Główna metoda losowania - wybiera literę i osobę dla gracza
      */
     private void roll() {
-        // Wylosowanie litery
-        char letter = randomizer.getRandomLetterForModal();
-        // Przydzielenie osoby dla aktualnego gracza (zapis do finalPairs w RandomizerApp)
-        String target = randomizer.assignTargetForOnRoll(playerName, letter);
+        // Wylosowanie litery (lub kodu) i osoby dla aktualnego gracza (zapis do finalPairs w silniku)
+        PairingEngine.Assignment rolled = randomizer.rollForPlayer(playerName);
         
         // Zapisz wynik (tylko imię i litera - target jest w finalPairs)
-        result = new RandomizerApp.PlayerResult(playerName, letter);
+        result = new PairingEngine.PlayerResult(playerName, rolled.letter, rolled.code);
         
         // Wyświetl wynik (litera + osoba)
-        showResult(letter, target);
+        showResult(result.symbol(), rolled.target);
         
         // Zaktualizuj przyciski
         rollButton.setText("Zakończ");
         rollButton.setEnabled(false);
         nextButton.setEnabled(true);
     }
-
+    
     /**
      * Wyświetla wynik losowania w panelu wyników z nowoczesną animacją i stylem
-     * @param letter wylosowana litera
+     * @param letter wylosowana litera (albo kod wieloznakowy)
      * @param target wylosowana osoba
      */
-    private void showResult(char letter, String target) {
-        resultPanel.removeAll();
-        // === TYTUŁ WYNIKU ===
-        JLabel titleLabel = new JLabel("Wynik losowania:");
-        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
-        titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        titleLabel.setForeground(TEXT_COLOR);
-        
-        // === KARTA Z LITERĄ (główny element) ===
-        JPanel letterCard = new JPanel(new BorderLayout());
-        letterCard.setBackground(ACCENT_COLOR);
-        letterCard.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(ACCENT_COLOR.darker(), 3),
-            BorderFactory.createEmptyBorder(25, 25, 25, 25)
-        ));
-        letterCard.setMaximumSize(new Dimension(160, 130));
-        JLabel letterLabel = new JLabel(String.valueOf(letter));
-        letterLabel.setFont(new Font("Segoe UI", Font.BOLD, 52));
-        letterLabel.setForeground(Color.WHITE);
-        letterLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        letterCard.add(letterLabel, BorderLayout.CENTER);
-        
-        // === OPIS LITERY ===
-        JLabel letterDesc = new JLabel("Wylosowana litera");
-        letterDesc.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        letterDesc.setForeground(TEXT_COLOR);
-        letterDesc.setAlignmentX(Component.CENTER_ALIGNMENT);
-        
-        // === KARTA Z OSOBĄ ===
-        JPanel targetCard = new JPanel();
-        targetCard.setLayout(new BorderLayout());
-        targetCard.setBackground(CARD_COLOR);
-        targetCard.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(PRIMARY_COLOR, 3),
-            BorderFactory.createEmptyBorder(20, 25, 20, 25)
-        ));
-        JLabel targetTitle = new JLabel("Wylosowana osoba:");
-        targetTitle.setFont(new Font("Segoe UI", Font.BOLD, 16));
-        targetTitle.setForeground(TEXT_COLOR);
-        targetTitle.setHorizontalAlignment(SwingConstants.CENTER);
-        JLabel targetValue = new JLabel((target == null || target.isEmpty()) ? "(brak)" : target);
-        targetValue.setFont(new Font("Segoe UI", Font.BOLD, 28));
-        targetValue.setForeground(PRIMARY_COLOR.darker());
-        targetValue.setHorizontalAlignment(SwingConstants.CENTER);
-        targetCard.add(targetTitle, BorderLayout.NORTH);
-        targetCard.add(targetValue, BorderLayout.CENTER);
-        
-        // === SKŁADANIE ELEMENTÓW WYNIKU ===
-        resultPanel.add(titleLabel);
-        resultPanel.add(Box.createVerticalStrut(16));
-        resultPanel.add(letterCard);
-        resultPanel.add(Box.createVerticalStrut(8));
-        resultPanel.add(letterDesc);
-        resultPanel.add(Box.createVerticalStrut(26));
-        resultPanel.add(targetCard);
+    private void showResult(String letter, String target) {
+        letterLabel.setText(letter);
+        letterDesc.setText(letter.length() > 1 ? "Wylosowany kod" : "Wylosowana litera");
+        targetValue.setText((target == null || target.isEmpty()) ? "(brak)" : target);
+        
+        // Rozmiar karty zależy od długości kodu; powiększenie o 15% dla podskoków
+        letterCard.setMaximumSize(new Dimension(160 + 40 * (letter.length() - 1), 130));
+        letterCard.setPreferredSize(null);
+        letterCardSize.setSize(letterCard.getPreferredSize());
+        letterCardGrownSize.setSize((int)(letterCardSize.width * 1.15), (int)(letterCardSize.height * 1.15));
+        letterCard.setPreferredSize(letterCardSize);
         
         // === WYŚWIETLENIE Z ANIMACJĄ ===
         resultPanel.setVisible(true);
         resultPanel.revalidate();
         resultPanel.repaint();
         
-        // === NOWOCZESNA ANIMACJA FADE-IN ===
-        animateResultAppearance(letterCard);
+        // === NOWOCZESNA ANIMACJA: POJAWIENIE SIĘ, PODSKOKI, ŚWIECENIE ===
+        frame = 0;
+        letterCardGrown = false;
+        glowLevel = -1;
+        animationClock.restart();
     }
     
     /**
-     * Animuje pojawienie się wyniku z efektem bounce
+     * Jedna klatka animacji - kolejno pojawienie się wyniku, podskoki karty i świecenie ramki
      */
-    private void animateResultAppearance(JPanel letterCard) {
-        Timer fadeTimer = new Timer(40, new ActionListener() {
-            private int step = 0;
-            private final int maxSteps = 15;
-            
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                step++;
-                float alpha = (float) step / maxSteps;
-                
-                // Efekt fade-in przez zmianę przezroczystości
-                Color bgColor = resultPanel.getBackground();
-                resultPanel.setBackground(new Color(
-                    bgColor.getRed(), 
-                    bgColor.getGreen(), 
-                    bgColor.getBlue(), 
-                    Math.min(255, (int)(alpha * 255))
-                ));
-                
-                if (step >= maxSteps) {
-                    ((Timer) e.getSource()).stop();
-                    // Po fade-in uruchom efekt bounce na literze
-                    animateBounce(letterCard);
-                }
-                
-                resultPanel.repaint();
-            }
-        });
-        fadeTimer.start();
+    private void nextFrame() {
+        frame++;
+        if (frame <= FADE_FRAMES) {
+            // Efekt fade-in przez zmianę przezroczystości tła
+            resultPanel.setBackground(FADE_COLORS[frame - 1]);
+            resultPanel.repaint();
+        } else if (frame <= FADE_FRAMES + BOUNCE_FRAMES) {
+            // Powiększenie w pierwszej połowie każdego podskoku, powrót w drugiej
+            int phase = (frame - FADE_FRAMES - 1) / BOUNCE_STEP;
+            setLetterCardGrown(phase % 2 == 0 && frame < FADE_FRAMES + BOUNCE_FRAMES);
+        } else if (frame <= LAST_FRAME) {
+            // Jasność ramki rośnie do GLOW_LEVELS i maleje do 0, zmiana co GLOW_STEP klatek
+            int tick = (frame - FADE_FRAMES - BOUNCE_FRAMES - 1) / GLOW_STEP + 1;
+            int position = tick % (2 * GLOW_LEVELS);
+            setGlowLevel(position <= GLOW_LEVELS ? position : 2 * GLOW_LEVELS - position);
+        } else {
+            stopAnimation();
+        }
     }
     
-    /**
-     * Animuje efekt bounce dla karty z literą
-     */
-    private void animateBounce(JPanel letterCard) {
-        Timer bounceTimer = new Timer(120, new ActionListener() {
-            private int bounces = 0;
-            private boolean growing = true;
-            private Dimension originalSize = letterCard.getPreferredSize();
-            private final int maxBounces = 3;
-            
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                if (growing) {
-                    // Powiększenie
-                    letterCard.setPreferredSize(new Dimension(
-                        (int)(originalSize.width * 1.15),
-                        (int)(originalSize.height * 1.15)
-                    ));
-                    growing = false;
-                } else {
-                    // Powrót do normalnego rozmiaru
-                    letterCard.setPreferredSize(originalSize);
-                    growing = true;
-                    bounces++;
-                }
-                
-                letterCard.revalidate();
-                letterCard.repaint();
-                
-                if (bounces >= maxBounces) {
-                    ((Timer) e.getSource()).stop();
-                    letterCard.setPreferredSize(originalSize);
-                    letterCard.revalidate();
-                    
-                    // Dodaj subtelny efekt świecenia
-                    addGlowEffect(letterCard);
-                }
-            }
-        });
-        bounceTimer.start();
+    private void setLetterCardGrown(boolean grown) {
+        if (grown == letterCardGrown) return;
+        letterCardGrown = grown;
+        letterCard.setPreferredSize(grown ? letterCardGrownSize : letterCardSize);
+        letterCard.revalidate();
+        letterCard.repaint();
+    }
+    
+    private void setGlowLevel(int level) {
+        if (level == glowLevel) return;
+        glowLevel = level;
+        letterCard.setBorder(GLOW_BORDERS[level]);
+        letterCard.repaint();
     }
     
     /**
-     * Dodaje subtelny efekt świecenia do karty z literą
+     * Zatrzymuje zegar i przywraca końcowy wygląd karty
      */
-    private void addGlowEffect(JPanel letterCard) {
-        Timer glowTimer = new Timer(100, new ActionListener() {
-            private int glowStep = 0;
-            private boolean increasing = true;
-            
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                if (increasing) {
-                    glowStep++;
-                    if (glowStep >= 10) increasing = false;
-                } else {
-                    glowStep--;
-                    if (glowStep <= 0) increasing = true;
-                }
-                
-                // Zmiana intensywności obramowania dla efektu świecenia
-                int intensity = 100 + (glowStep * 15);
-                Color glowColor = new Color(
-                    Math.min(255, ACCENT_COLOR.getRed() + intensity/10),
-                    Math.min(255, ACCENT_COLOR.getGreen() + intensity/10),
-                    Math.min(255, ACCENT_COLOR.getBlue() + intensity/10)
-                );
-                
-                letterCard.setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createLineBorder(glowColor, 3),
-                    BorderFactory.createEmptyBorder(25, 25, 25, 25)
-                ));
-                
-                letterCard.repaint();
-            }
-        });
-        
-        // Uruchom efekt świecenia na 3 sekundy
-        Timer stopGlowTimer = new Timer(3000, e -> glowTimer.stop());
-        stopGlowTimer.setRepeats(false);
-        stopGlowTimer.start();
-        glowTimer.start();
+    private void stopAnimation() {
+        animationClock.stop();
+        resultPanel.setBackground(CARD_COLOR);
+        letterCard.setBorder(LETTER_CARD_BORDER);
+        if (letterCardGrown) setLetterCardGrown(false);
+        glowLevel = -1;
     }
     
     /**
      * Zwraca wynik losowania tego gracza
      * @return obiekt PlayerResult z imieniem gracza i wylosowaną literą
      */
-    public RandomizerApp.PlayerResult getResult() {
+    public PairingEngine.PlayerResult getResult() {
         return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,179 @@
+import java.security.SecureRandom;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Rejestr pokoi gry - wiele niezależnych losowań w jednej maszynie wirtualnej.
+ *
+ * Pokoje trzymane są w ConcurrentHashMap, więc wyszukanie pokoju nie blokuje innych pokoi,
+ * a każdy pokój ma własny silnik z własną blokadą. Liczba pokoi i liczba uczestników pokoju
+ * są ograniczone, więc pamięć rejestru ma górną granicę: pokój to silnik z tablicami
+ * indeksowanymi uczestnikiem (nazwa, identyfikator w mapie nazw, litera, przydziały), czyli
+ * stały narzut plus koszt proporcjonalny do liczby uczestników.
+ *
+ * Sprzątanie w tle usuwa pokoje zakończone dawniej niż finishedTtl (czas na pobranie wyników)
+ * oraz pokoje nieużywane dłużej niż idleTtl. Pokoje przypięte nie są usuwane.
+ */
+public final class RoomRegistry implements AutoCloseable {
+    // Znaki identyfikatorów pokoi (bez łatwych do pomylenia 0/o, 1/l/i)
+    private static final String ID_CHARS = "abcdefghjkmnpqrstuvwxyz23456789";
+    private static final int ID_LENGTH = 8;
+    
+    private final ConcurrentHashMap<String, GameRoom> rooms = new ConcurrentHashMap<>();
+    // Liczba pokoi nieprzypiętych (limit maxRooms)
+    private final AtomicInteger roomCount = new AtomicInteger();
+    private final Supplier<PairingEngine> engineFactory;
+    private final int maxRooms;
+    private final int maxPlayersPerRoom;
+    private final long finishedTtlMillis;
+    private final long idleTtlMillis;
+    private final SecureRandom idRandom = new SecureRandom();
+    // Wątek sprzątania (null dopóki nie uruchomiono startEviction)
+    private ScheduledExecutorService evictor;
+    
+    /**
+     * @param engineFactory tworzy silnik dla nowego pokoju
+     * @param maxRooms największa liczba pokoi naraz (bez przypiętych)
+     * @param maxPlayersPerRoom największa liczba uczestników w pokoju
+     * @param finishedTtlMillis jak długo zakończony pokój pozostaje dostępny
+     * @param idleTtlMillis po jakim czasie bez użycia pokój jest usuwany
+     */
+    public RoomRegistry(Supplier<PairingEngine> engineFactory, int maxRooms, int maxPlayersPerRoom,
+                        long finishedTtlMillis, long idleTtlMillis) {
+        if (maxRooms < 1 || maxPlayersPerRoom < 2) {
+            throw new IllegalArgumentException("Limit pokoi musi wynosić co najmniej 1, a limit uczestników co najmniej 2.");
+        }
+        this.engineFactory = engineFactory;
+        this.maxRooms = maxRooms;
+        this.maxPlayersPerRoom = maxPlayersPerRoom;
+        this.finishedTtlMillis = finishedTtlMillis;
+        this.idleTtlMillis = idleTtlMillis;
+    }
+    
+    /**
+     * Tworzy nowy pokój z losowym identyfikatorem
+     * @throws IllegalStateException gdy osiągnięto limit pokoi
+     */
+    public GameRoom create() {
+        if (roomCount.incrementAndGet() > maxRooms) {
+            roomCount.decrementAndGet();
+            throw new IllegalStateException("Osiągnięto limit pokoi (" + maxRooms + "). Spróbuj ponownie później.");
+        }
+        long now = System.currentTimeMillis();
+        GameRoom room;
+        do {
+            room = new GameRoom(newId(), engineFactory.get(), false, now);
+        } while (rooms.putIfAbsent(room.getId(), room) != null);
+        return room;
+    }
+    
+    /**
+     * Dodaje pokój przypięty o podanym identyfikatorze (np. domyślny pokój serwera)
+     * @throws IllegalArgumentException gdy pokój o tym identyfikatorze już istnieje
+     */
+    public GameRoom addPinned(String id, PairingEngine engine) {
+        GameRoom room = new GameRoom(id, engine, true, System.currentTimeMillis());
+        if (rooms.putIfAbsent(id, room) != null) {
+            throw new IllegalArgumentException("Pokój " + id + " już istnieje.");
+        }
+        return room;
+    }
+    
+    private String newId() {
+        char[] id = new char[ID_LENGTH];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = ID_CHARS.charAt(idRandom.nextInt(ID_CHARS.length()));
+        }
+        return new String(id);
+    }
+    
+    /**
+     * Zwraca pokój i zapisuje jego użycie
+     * @throws NoSuchElementException gdy pokoju nie ma (np. został już usunięty)
+     */
+    public GameRoom get(String id) {
+        GameRoom room = rooms.get(id);
+        if (room == null) {
+            throw new NoSuchElementException("Nieznany pokój: " + id);
+        }
+        room.touch(System.currentTimeMillis());
+        return room;
+    }
+    
+    /**
+     * Usuwa pokój (przypiętego nie można usunąć)
+     * @throws NoSuchElementException gdy pokoju nie ma
+     */
+    public void remove(String id) {
+        GameRoom room = rooms.get(id);
+        if (room == null) {
+            throw new NoSuchElementException("Nieznany pokój: " + id);
+        }
+        if (room.isPinned()) {
+            throw new IllegalStateException("Pokoju " + id + " nie można usunąć.");
+        }
+        if (rooms.remove(id, room)) {
+            roomCount.decrementAndGet();
+        }
+    }
+    
+    public int size() {
+        return rooms.size();
+    }
+    
+    public int getMaxPlayersPerRoom() {
+        return maxPlayersPerRoom;
+    }
+    
+    // === SPRZĄTANIE ===
+    
+    /**
+     * Usuwa pokoje zakończone dawniej niż finishedTtl i nieużywane dłużej niż idleTtl
+     * @return liczba usuniętych pokoi
+     */
+    public int evictExpired(long now) {
+        int evicted = 0;
+        for (GameRoom room : rooms.values()) {
+            if (room.isPinned()) continue;
+            
+            long finishedSince = room.finishedSince(now);
+            boolean expired = (finishedSince > 0 && now - finishedSince >= finishedTtlMillis)
+                || now - room.getLastAccess() >= idleTtlMillis;
+            if (expired && rooms.remove(room.getId(), room)) {
+                roomCount.decrementAndGet();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+    
+    /**
+     * Uruchamia sprzątanie w tle co podany czas
+     */
+    public synchronized void startEviction(long periodMillis) {
+        if (evictor != null) return;
+        evictor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "room-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> evictExpired(System.currentTimeMillis()),
+            periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Zatrzymuje sprzątanie w tle
+     */
+    @Override
+    public synchronized void close() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+            evictor = null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Import listy uczestników z pliku (np. eksport z systemu kadrowego) bez przechodzenia
+ * przez komponenty Swinga.
+ *
+ * Plik jest mapowany do pamięci i dzielony na fragmenty na granicach nowych linii (bajt '\n'
+ * nigdy nie występuje wewnątrz wielobajtowego znaku UTF-8, więc podział jest bezpieczny).
+ * Fragmenty są dekodowane, dzielone na nazwy i przycinane równolegle. Powtórzenia usuwa
+ * współbieżny indeks nazw: dla każdej nazwy zapamiętywana jest najwcześniejsza pozycja
+ * w pliku i jedna, wspólna instancja tekstu - wynik zachowuje kolejność z pliku.
+ */
+public final class RosterImporter {
+    // Minimalny rozmiar fragmentu przetwarzanego przez jeden wątek
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    
+    private RosterImporter() {
+    }
+    
+    /**
+     * Wynik importu: unikalne nazwy w kolejności z pliku i liczba pominiętych powtórzeń
+     */
+    public static final class Result {
+        public final List<String> names;
+        public final int duplicates;
+        
+        Result(List<String> names, int duplicates) {
+            this.names = names;
+            this.duplicates = duplicates;
+        }
+    }
+    
+    /**
+     * Wczytuje nazwy z pliku UTF-8 (jedna na linię albo oddzielone przecinkami)
+     * @throws IOException gdy pliku nie da się odczytać
+     * @throws IllegalArgumentException gdy plik jest za duży do zmapowania
+     */
+    public static Result importFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Plik jest za duży (maksymalnie 2 GB).");
+            }
+            if (size == 0) return new Result(new ArrayList<>(), 0);
+            
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return parse(buffer, (int) size);
+        }
+    }
+    
+    /**
+     * Dzieli zmapowany plik na fragmenty, parsuje je równolegle i usuwa powtórzenia
+     */
+    private static Result parse(MappedByteBuffer buffer, int size) {
+        int[] bounds = chunkBounds(buffer, size);
+        int chunks = bounds.length - 1;
+        
+        // Parsowanie fragmentów równolegle
+        List<List<String>> parsed = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) parsed.add(null);
+        IntStream.range(0, chunks).parallel().forEach(i ->
+            parsed.set(i, parseChunk(buffer, bounds[i], bounds[i + 1], i == 0)));
+        
+        // Indeks nazw: najwcześniejsza pozycja (fragment << 32 | numer w fragmencie) i wspólna instancja
+        ConcurrentHashMap<String, Long> firstPosition = new ConcurrentHashMap<>();
+        IntStream.range(0, chunks).parallel().forEach(i -> {
+            List<String> names = parsed.get(i);
+            for (int j = 0; j < names.size(); j++) {
+                firstPosition.merge(names.get(j), ((long) i << 32) | j, Math::min);
+            }
+        });
+        
+        // Złożenie wyniku w kolejności z pliku - tylko pierwsze wystąpienia
+        List<String> unique = new ArrayList<>(firstPosition.size());
+        int total = 0;
+        for (int i = 0; i < chunks; i++) {
+            List<String> names = parsed.get(i);
+            total += names.size();
+            for (int j = 0; j < names.size(); j++) {
+                if (firstPosition.get(names.get(j)) == (((long) i << 32) | j)) {
+                    unique.add(names.get(j));
+                }
+            }
+            parsed.set(i, null);
+        }
+        return new Result(unique, total - unique.size());
+    }
+    
+    /**
+     * Wyznacza granice fragmentów - każda granica (poza końcem) leży tuż za znakiem nowej linii
+     */
+    private static int[] chunkBounds(MappedByteBuffer buffer, int size) {
+        int target = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, size / MIN_CHUNK_BYTES));
+        int chunkSize = (int) Math.ceil((double) size / target);
+        
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int position = 0;
+        while (true) {
+            int next = (int) Math.min((long) position + chunkSize, size);
+            while (next < size && buffer.get(next - 1) != '\n') next++;
+            bounds.add(next);
+            if (next >= size) break;
+            position = next;
+        }
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+    
+    /**
+     * Dekoduje fragment i dzieli go na przycięte, niepuste nazwy (przecinki lub nowe linie)
+     */
+    private static List<String> parseChunk(MappedByteBuffer buffer, int from, int to, boolean first) {
+        String text = StandardCharsets.UTF_8.decode(buffer.slice(from, to - from)).toString();
+        List<String> names = new ArrayList<>();
+        
+        // Znacznik BOM na początku pliku nie jest częścią pierwszej nazwy
+        int start = first && text.startsWith("\uFEFF") ? 1 : 0;
+        for (int i = start; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) == '\n' || text.charAt(i) == ',') {
+                String name = text.substring(start, i).trim();
+                if (!name.isEmpty()) names.add(name);
+                start = i + 1;
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,402 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * Zapis i odczyt całej sesji gry (uczestnicy, ograniczenia, ustawienia liter, wyniki tur
+ * i przydziały) w zwartym formacie binarnym, żeby przerwaną grę dało się wznowić.
+ *
+ * Układ pliku (little-endian), wersja 2 (wersja 1 nie ma sekcji grup):
+ * <pre>
+ * nagłówek:   magic "RNDS" | wersja (short) | flagi (short) | liczba graczy | liczba tur
+ *             | liczba ograniczeń
+ * ustawienia: alfabet | wykluczone litery (długość w bajtach + UTF-8)
+ * nazwy:      końce nazw (int[graczy]) | długość bloku | blok UTF-8 wszystkich nazw
+ * stan gry:   litery (char[graczy]) | cele (int[graczy]) | ograniczenia (long[ograniczeń])
+ * grupy:      liczba grup | nazwy grup | (tylko z flagą GRUPY) numery grup (int[graczy])
+ * kody:       (tylko z flagą KODY) litery kodów | długość kodu | klucze rund (long[6])
+ *             | liczba wydanych kodów | numery kodów (int[graczy])
+ * stopka:     CRC32 wszystkich poprzednich bajtów
+ * </pre>
+ * Nazwy trzymane są w jednej tablicy napisów, a stan gry jako tablice liczb, więc plik
+ * jest zapisywany i czytany blokami - przy odczycie plik jest mapowany do pamięci i tablice
+ * kopiowane są wprost z mapowania, bez parsowania tekstu.
+ */
+public final class SessionStore {
+    // "RNDS"
+    private static final int MAGIC = 0x52_4E_44_53;
+    private static final short VERSION = 2;
+    // Flagi nagłówka
+    private static final short FLAG_BALANCED = 1;
+    private static final short FLAG_CODE_MODE = 2;
+    private static final short FLAG_CODES = 4;
+    private static final short FLAG_GROUPS = 8;
+    // Rozmiar bufora zapisu
+    private static final int BUFFER_SIZE = 256 * 1024;
+    
+    private SessionStore() {
+    }
+    
+    // === ZAPIS ===
+    
+    /**
+     * Zapisuje migawkę gry do pliku sesji (przez plik tymczasowy, podmieniany po sukcesie)
+     * @throws IOException gdy zapis się nie powiódł
+     */
+    public static void save(GameSnapshot game, Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".part");
+        boolean done = false;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            write(game, out);
+            out.finish();
+            channel.force(false);
+            done = true;
+        } finally {
+            if (!done) Files.deleteIfExists(temp);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    private static void write(GameSnapshot game, Output out) throws IOException {
+        int n = game.getPlayerCount();
+        boolean hasCodes = game.codeNumbers != null;
+        short flags = (short) ((game.balancedLetters ? FLAG_BALANCED : 0)
+            | (game.codeMode ? FLAG_CODE_MODE : 0) | (hasCodes ? FLAG_CODES : 0)
+            | (game.groupOf != null ? FLAG_GROUPS : 0));
+        
+        // Nagłówek i ustawienia
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putShort(flags);
+        out.putInt(n);
+        out.putInt(game.turnCount);
+        out.putInt(game.restrictions.length);
+        out.putString(game.alphabet);
+        StringBuilder excluded = new StringBuilder();
+        for (char c : game.excludedLetters) excluded.append(c);
+        out.putString(excluded.toString());
+        
+        // Nazwy: końce w bloku i blok UTF-8
+        byte[][] encoded = new byte[n][];
+        int[] ends = new int[n];
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            encoded[i] = game.names[i].getBytes(StandardCharsets.UTF_8);
+            total += encoded[i].length;
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Lista uczestników jest za duża do zapisania.");
+            }
+            ends[i] = (int) total;
+        }
+        out.putInts(ends);
+        out.putInt((int) total);
+        for (byte[] name : encoded) out.putBytes(name);
+        
+        // Stan gry
+        out.putChars(game.letters);
+        out.putInts(game.targetOf);
+        out.putLongs(game.restrictions);
+        
+        // Grupy ograniczeń
+        out.putInt(game.groupNames.length);
+        for (String group : game.groupNames) out.putString(group);
+        if (game.groupOf != null) out.putInts(game.groupOf);
+        
+        // Kody
+        if (hasCodes) {
+            CodeGenerator generator = game.codeGenerator;
+            out.putString(generator.getLetters());
+            out.putInt(generator.getLength());
+            out.putLongs(generator.getRoundKeys());
+            out.putLong(generator.getIssued());
+            out.putInts(game.codeNumbers);
+        }
+    }
+    
+    /**
+     * Buforowany zapis do kanału z sumą kontrolną zapisanych bajtów
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+        
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        void putShort(short value) throws IOException {
+            ensure(Short.BYTES);
+            buffer.putShort(value);
+        }
+        
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+        
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+        
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            putBytes(bytes);
+        }
+        
+        void putBytes(byte[] bytes) throws IOException {
+            for (int offset = 0; offset < bytes.length; ) {
+                ensure(1);
+                int count = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, count);
+                offset += count;
+            }
+        }
+        
+        void putChars(char[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                ensure(Character.BYTES);
+                int count = Math.min(buffer.remaining() / Character.BYTES, values.length - offset);
+                buffer.asCharBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Character.BYTES);
+                offset += count;
+            }
+        }
+        
+        void putInts(int[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                ensure(Integer.BYTES);
+                int count = Math.min(buffer.remaining() / Integer.BYTES, values.length - offset);
+                buffer.asIntBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                offset += count;
+            }
+        }
+        
+        void putLongs(long[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                ensure(Long.BYTES);
+                int count = Math.min(buffer.remaining() / Long.BYTES, values.length - offset);
+                buffer.asLongBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                offset += count;
+            }
+        }
+        
+        /**
+         * Opróżnia bufor, gdy brakuje w nim miejsca na podaną liczbę bajtów
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+        
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        /**
+         * Dopisuje sumę kontrolną i opróżnia bufor
+         */
+        void finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+    
+    // === ODCZYT ===
+    
+    /**
+     * Wczytuje migawkę gry z pliku sesji
+     * @throws IOException gdy pliku nie da się odczytać
+     * @throws IllegalArgumentException gdy plik nie jest poprawnym plikiem sesji
+     */
+    public static GameSnapshot load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Plik sesji jest za duży (maksymalnie 2 GB).");
+            }
+            if (size < 24) {
+                throw new IllegalArgumentException("To nie jest plik sesji gry.");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer in = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            
+            if (in.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("To nie jest plik sesji gry.");
+            }
+            short version = in.getShort(4);
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("Nieobsługiwana wersja pliku sesji: " + version + ".");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(in.slice(0, (int) size - Integer.BYTES));
+            if (in.getInt((int) size - Integer.BYTES) != (int) crc.getValue()) {
+                throw new IllegalArgumentException("Plik sesji jest uszkodzony.");
+            }
+            
+            try {
+                in.limit((int) size - Integer.BYTES).position(6);
+                return read(in, version);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+                // Długości niezgodne z rozmiarem pliku
+                throw new IllegalArgumentException("Plik sesji jest uszkodzony.");
+            }
+        }
+    }
+    
+    /**
+     * Zwraca sumę kontrolną zapisaną w stopce pliku sesji (identyfikuje konkretny zapis)
+     */
+    static int checksum(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer footer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            long position = channel.size() - Integer.BYTES;
+            while (footer.hasRemaining() && position >= 0) {
+                if (channel.read(footer, position + footer.position()) < 0) break;
+            }
+            if (footer.hasRemaining()) {
+                throw new IllegalArgumentException("To nie jest plik sesji gry.");
+            }
+            return footer.getInt(0);
+        }
+    }
+    
+    private static GameSnapshot read(ByteBuffer in, short version) {
+        short flags = in.getShort();
+        int n = in.getInt();
+        int turnCount = in.getInt();
+        int restrictionCount = in.getInt();
+        if (n < 0 || turnCount < 0 || turnCount > n || restrictionCount < 0) {
+            throw new IllegalArgumentException("Niespójny stan gry.");
+        }
+        String alphabet = getString(in);
+        Set<Character> excluded = new TreeSet<>();
+        for (char c : getString(in).toCharArray()) excluded.add(c);
+        
+        // Nazwy
+        int[] ends = getInts(in, n);
+        int blobLength = in.getInt();
+        requireRemaining(in, blobLength, 1);
+        for (int i = 0, start = 0; i < n; i++) {
+            if (ends[i] < start || ends[i] > blobLength) throw new IllegalArgumentException("Niespójny stan gry.");
+            start = ends[i];
+        }
+        byte[] blob = new byte[blobLength];
+        in.get(blob);
+        String[] names = new String[n];
+        for (int i = 0, start = 0; i < n; i++) {
+            names[i] = new String(blob, start, ends[i] - start, StandardCharsets.UTF_8);
+            start = ends[i];
+        }
+        
+        // Stan gry
+        requireRemaining(in, n, Character.BYTES);
+        char[] letters = new char[n];
+        in.asCharBuffer().get(letters);
+        in.position(in.position() + n * Character.BYTES);
+        int[] targetOf = getInts(in, n);
+        requireRange(targetOf, n);
+        requireRemaining(in, restrictionCount, Long.BYTES);
+        long[] restrictions = new long[restrictionCount];
+        in.asLongBuffer().get(restrictions);
+        in.position(in.position() + restrictionCount * Long.BYTES);
+        
+        // Grupy (od wersji 2)
+        String[] groupNames = new String[0];
+        int[] groupOf = null;
+        if (version >= 2) {
+            int groupCount = in.getInt();
+            // Każda nazwa grupy zajmuje co najmniej pole długości
+            requireRemaining(in, groupCount, Integer.BYTES);
+            groupNames = new String[groupCount];
+            for (int i = 0; i < groupNames.length; i++) groupNames[i] = getString(in);
+            if ((flags & FLAG_GROUPS) != 0) {
+                groupOf = getInts(in, n);
+                requireRange(groupOf, groupCount);
+            }
+        }
+        
+        // Kody
+        int[] codeNumbers = null;
+        CodeGenerator generator = null;
+        if ((flags & FLAG_CODES) != 0) {
+            String codeLetters = getString(in);
+            int length = in.getInt();
+            long[] keys = new long[6];
+            in.asLongBuffer().get(keys);
+            in.position(in.position() + keys.length * Long.BYTES);
+            generator = new CodeGenerator(codeLetters, length, keys, in.getLong());
+            codeNumbers = getInts(in, n);
+            for (int number : codeNumbers) {
+                if (number < -1) throw new IllegalArgumentException("Niespójny stan gry.");
+            }
+        }
+        
+        int assigned = 0;
+        for (int target : targetOf) {
+            if (target >= 0) assigned++;
+        }
+        return new GameSnapshot(names, restrictions, groupNames, groupOf, Collections.unmodifiableSet(excluded), alphabet,
+            (flags & FLAG_BALANCED) != 0, (flags & FLAG_CODE_MODE) != 0, turnCount,
+            letters, codeNumbers, generator, targetOf, assigned);
+    }
+    
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        requireRemaining(in, length, 1);
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static int[] getInts(ByteBuffer in, int count) {
+        requireRemaining(in, count, Integer.BYTES);
+        int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + count * Integer.BYTES);
+        return values;
+    }
+    
+    /**
+     * Sprawdza licznik odczytany z pliku, zanim posłuży do alokacji - plik
+     * ucięty albo z nowszej wersji kończy się komunikatem, a nie OOM.
+     */
+    private static void requireRemaining(ByteBuffer in, int count, int elementSize) {
+        if (count < 0 || count > in.remaining() / elementSize) {
+            throw new IllegalArgumentException("Niespójny stan gry.");
+        }
+    }
+    
+    /** Indeksy muszą leżeć w [-1, limit) - -1 oznacza brak przydziału. */
+    private static void requireRange(int[] values, int limit) {
+        for (int value : values) {
+            if (value < -1 || value >= limit) throw new IllegalArgumentException("Niespójny stan gry.");
+        }
+    }
+}